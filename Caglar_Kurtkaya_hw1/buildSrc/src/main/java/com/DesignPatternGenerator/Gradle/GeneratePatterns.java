@@ -0,0 +1,103 @@
+package com.DesignPatternGenerator.Gradle;
+
+import org.gradle.api.DefaultTask;
+import org.gradle.api.file.ConfigurableFileCollection;
+import org.gradle.api.file.DirectoryProperty;
+import org.gradle.api.file.RegularFileProperty;
+import org.gradle.api.provider.Property;
+import org.gradle.api.tasks.CacheableTask;
+import org.gradle.api.tasks.Classpath;
+import org.gradle.api.tasks.InputFile;
+import org.gradle.api.tasks.Internal;
+import org.gradle.api.tasks.Optional;
+import org.gradle.api.tasks.OutputDirectory;
+import org.gradle.api.tasks.PathSensitive;
+import org.gradle.api.tasks.PathSensitivity;
+import org.gradle.api.tasks.TaskAction;
+import org.gradle.workers.IsolationMode;
+import org.gradle.workers.WorkerExecutor;
+
+import javax.inject.Inject;
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+
+//Generates every request of a manifest(the GeneratorCli manifest format, one request per line) into outputDir.
+//The manifest, application.conf and the generator classpath are the inputs and outputDir is the only output,
+//so an unchanged manifest is up to date and a clean CI build takes the output from the build cache.
+//The whole manifest is one Worker API item run in a class loader made from generatorClasspath: every request goes
+//through one GenerationPlan(see GeneratorCli.generateBatch), then the unique files are written by parallelism threads,
+//so the output is the same whatever the thread count and a type two requests generate differently fails the task.
+@CacheableTask
+public class GeneratePatterns extends DefaultTask {
+
+    private final WorkerExecutor workerExecutor;
+
+    private final RegularFileProperty manifest;
+    private final RegularFileProperty config;
+    private final ConfigurableFileCollection generatorClasspath;
+    private final DirectoryProperty outputDir;
+    private final Property<Integer> parallelism;
+
+    @Inject
+    public GeneratePatterns(WorkerExecutor workerExecutor) {
+        this.workerExecutor = workerExecutor;
+        manifest = getProject().getObjects().fileProperty();
+        config = getProject().getObjects().fileProperty();
+        generatorClasspath = getProject().files();
+        outputDir = getProject().getObjects().directoryProperty();
+        parallelism = getProject().getObjects().property(Integer.class);
+        parallelism.set(getProject().getGradle().getStartParameter().getMaxWorkerCount());
+    }
+
+    @InputFile
+    @PathSensitive(PathSensitivity.NONE)
+    public RegularFileProperty getManifest() {
+        return manifest;
+    }
+
+    //Keys missing from it fall back to application.conf on the generator classpath
+    @InputFile
+    @Optional
+    @PathSensitive(PathSensitivity.NONE)
+    public RegularFileProperty getConfig() {
+        return config;
+    }
+
+    //The generator and its dependencies, a change in the generator invalidates the output
+    @Classpath
+    public ConfigurableFileCollection getGeneratorClasspath() {
+        return generatorClasspath;
+    }
+
+    @OutputDirectory
+    public DirectoryProperty getOutputDir() {
+        return outputDir;
+    }
+
+    //Threads that generate and write the files, --max-workers by default. Only changes the speed, not the output
+    @Internal
+    public Property<Integer> getParallelism() {
+        return parallelism;
+    }
+
+    @TaskAction
+    public void generate() throws IOException {
+        //Start from an empty directory so a request removed from the manifest leaves no stale files behind
+        File out = outputDir.get().getAsFile();
+        getProject().delete(out);
+        Files.createDirectories(out.toPath());
+
+        File manifestFile = manifest.get().getAsFile();
+        String configFile = config.isPresent() ? config.get().getAsFile().getAbsolutePath() : "";
+        int threads = Math.max(parallelism.get(), 1);
+        workerExecutor.submit(GeneratePatternsWork.class, worker -> {
+            worker.setIsolationMode(IsolationMode.CLASSLOADER);
+            worker.classpath(generatorClasspath);
+            worker.setDisplayName("Generating " + manifestFile.getName());
+            worker.params(manifestFile, out, configFile, threads);
+        });
+        //Fails the task when generation failed
+        workerExecutor.await();
+    }
+}
@@ -0,0 +1,70 @@
+package com.DesignPatternGenerator.Gradle;
+
+import org.gradle.api.GradleException;
+
+import javax.inject.Inject;
+import java.io.BufferedReader;
+import java.io.Closeable;
+import java.io.File;
+import java.io.IOException;
+import java.lang.reflect.InvocationTargetException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+
+//The whole manifest, run by the Worker API in a class loader made from the generator classpath.
+//buildSrc is built before the generator, so the generator is only reached by name:
+//GeneratorCli.generateBatch(manifest, new DirectorySink(outputDir), parallelism, Configs.load(config, loader)).
+//The config is a snapshot of this run, Configs.current() of a class loader shared with other builds is never changed
+public class GeneratePatternsWork implements Runnable {
+
+    private static final String CONFIGS = "com.DesignPatternGenerator.Utils.Configs";
+    private static final String CLI = "com.DesignPatternGenerator.GeneratorCli";
+    private static final String OUTPUT_SINK = "com.DesignPatternGenerator.DPG.OutputSink";
+    private static final String DIRECTORY_SINK = "com.DesignPatternGenerator.DPG.DirectorySink";
+
+    private final File manifest;
+    private final File outputDir;
+    private final String configFile;
+    private final int parallelism;
+
+    @Inject
+    public GeneratePatternsWork(File manifest, File outputDir, String configFile, Integer parallelism) {
+        this.manifest = manifest;
+        this.outputDir = outputDir;
+        this.configFile = configFile;
+        this.parallelism = parallelism;
+    }
+
+    @Override
+    public void run() {
+        ClassLoader loader = getClass().getClassLoader();
+        try {
+            Class<?> configsType = Class.forName(CONFIGS, true, loader);
+            Object configs = configsType.getMethod("load", Path.class, ClassLoader.class)
+                    .invoke(null, configFile.isEmpty() ? null : Paths.get(configFile), loader);
+            Class<?> sinkType = Class.forName(OUTPUT_SINK, true, loader);
+            Object summary;
+            try(BufferedReader requests = Files.newBufferedReader(manifest.toPath(), StandardCharsets.UTF_8);
+                Closeable sink = (Closeable) Class.forName(DIRECTORY_SINK, true, loader).getConstructor(Path.class)
+                        .newInstance(outputDir.toPath())){
+                summary = Class.forName(CLI, true, loader)
+                        .getMethod("generateBatch", BufferedReader.class, sinkType, int.class, configsType)
+                        .invoke(null, requests, sink, parallelism, configs);
+            }
+            long failed = (Long) summary.getClass().getMethod("getFailed").invoke(summary);
+            if(failed > 0){
+                long total = (Long) summary.getClass().getMethod("getRequests").invoke(summary);
+                throw new GradleException(failed + " of " + total + " requests of " + manifest
+                        + " failed or conflict with an earlier request, see the log for the reasons");
+            }
+        } catch (InvocationTargetException ex){
+            throw new GradleException("Pattern generation failed: " + ex.getCause().getMessage(), ex.getCause());
+        } catch (ReflectiveOperationException ex){
+            throw new GradleException("The generator classpath does not contain the pattern generator", ex);
+        } catch (IOException ex){
+            throw new GradleException("Could not generate " + manifest + " into " + outputDir, ex);
+        }
+    }
+}
@@ -0,0 +1,47 @@
+package com.DesignPatternGenerator.Gradle;
+
+import org.gradle.api.Plugin;
+import org.gradle.api.Project;
+import org.gradle.api.artifacts.Configuration;
+import org.gradle.api.plugins.JavaPlugin;
+import org.gradle.api.plugins.JavaPluginConvention;
+import org.gradle.api.tasks.SourceSet;
+import org.gradle.api.tasks.TaskProvider;
+
+import java.io.File;
+
+//Adds generatePatterns: src/main/patterns/requests.jsonl generated into build/generated/patterns,
+//which is a source directory of the main source set, so compileJava generates and compiles the patterns.
+//The generator comes from the patternGenerator configuration, e.g. patternGenerator project(':'),
+//never from this project's own classes: compileJava depends on the task, so they cannot generate it.
+//src/main/resources/application.conf is the config when the project has one, otherwise the generator's own.
+//Every property can be changed in the generatePatterns block
+public class PatternGeneratorPlugin implements Plugin<Project> {
+
+    public static final String CONFIGURATION_NAME = "patternGenerator";
+
+    @Override
+    public void apply(Project project) {
+        project.getPluginManager().apply(JavaPlugin.class);
+        SourceSet main = project.getConvention().getPlugin(JavaPluginConvention.class)
+                .getSourceSets().getByName(SourceSet.MAIN_SOURCE_SET_NAME);
+
+        Configuration generator = project.getConfigurations().create(CONFIGURATION_NAME, configuration -> {
+            configuration.setVisible(false);
+            configuration.setDescription("The pattern generator and its dependencies used by generatePatterns.");
+        });
+
+        TaskProvider<GeneratePatterns> generatePatterns = project.getTasks().register("generatePatterns", GeneratePatterns.class, task -> {
+            task.setGroup("build");
+            task.setDescription("Generates the design patterns requested in the manifest.");
+            task.getManifest().set(project.getLayout().getProjectDirectory().file("src/main/patterns/requests.jsonl"));
+            File config = project.file("src/main/resources/application.conf");
+            if(config.isFile()){
+                task.getConfig().set(config);
+            }
+            task.getGeneratorClasspath().from(generator);
+            task.getOutputDir().set(project.getLayout().getBuildDirectory().dir("generated/patterns"));
+        });
+        main.getJava().srcDir(generatePatterns);
+    }
+}
@@ -0,0 +1,90 @@
+package com.DesignPatternGenerator;
+
+import org.gradle.testkit.runner.BuildResult;
+import org.gradle.testkit.runner.GradleRunner;
+import org.gradle.testkit.runner.TaskOutcome;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.util.List;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+//Runs :patterns:generatePatterns with TestKit on a copy of this build(the generator, buildSrc and this project),
+//on the Gradle version running the test, with a build cache of its own
+public class GeneratePatternsTest {
+
+    private static final String TASK = ":patterns:generatePatterns";
+
+    @Rule
+    public TemporaryFolder temp = new TemporaryFolder();
+    //The root of this build, set by patterns/build.gradle
+    Path root = Paths.get(System.getProperty("dpg.rootDir"));
+    Path project;
+
+    @Before
+    public void init() throws IOException {
+        project = temp.newFolder("build").toPath();
+        copy(root.resolve("build.gradle"));
+        copy(root.resolve("src/main"));
+        copy(root.resolve("buildSrc/build.gradle"));
+        copy(root.resolve("buildSrc/src/main"));
+        copy(root.resolve("patterns/build.gradle"));
+        copy(root.resolve("patterns/src/main"));
+        Files.write(project.resolve("settings.gradle"), ("rootProject.name = 'Caglar_Kurtkaya_hw1'\n"
+                + "include 'patterns'\n"
+                + "buildCache {\n    local {\n        directory = new File(rootDir, 'build-cache')\n    }\n}\n").getBytes(StandardCharsets.UTF_8));
+    }
+
+    //Copies path, a file or a directory, to the same place in project
+    private void copy(Path path) throws IOException {
+        List<Path> paths;
+        try(Stream<Path> walk = Files.walk(path)){
+            paths = walk.sorted().collect(Collectors.toList());
+        }
+        for(Path source : paths){
+            Path target = project.resolve(root.relativize(source).toString());
+            if(Files.isDirectory(source)){
+                Files.createDirectories(target);
+            } else {
+                Files.createDirectories(target.getParent());
+                Files.copy(source, target, StandardCopyOption.REPLACE_EXISTING);
+            }
+        }
+    }
+
+    private BuildResult run(String... tasks){
+        String[] arguments = new String[tasks.length + 2];
+        System.arraycopy(tasks, 0, arguments, 0, tasks.length);
+        arguments[tasks.length] = "--build-cache";
+        arguments[tasks.length + 1] = "--stacktrace";
+        return GradleRunner.create().withProjectDir(project.toFile()).withArguments(arguments).forwardOutput().build();
+    }
+
+    @Test
+    public void verifyGenerationIsIncrementalAndCached(){
+        Assert.assertEquals("first run does not generate ", TaskOutcome.SUCCESS, run(TASK).task(TASK).getOutcome());
+        Assert.assertTrue("sources are not generated ",
+                Files.isRegularFile(project.resolve("patterns/build/generated/patterns/Generated/AbstractFactory/MyFactory.java")));
+
+        Assert.assertEquals("unchanged run is not up to date ", TaskOutcome.UP_TO_DATE, run(TASK).task(TASK).getOutcome());
+
+        Assert.assertEquals("clean run is not loaded from the build cache ", TaskOutcome.FROM_CACHE,
+                run(":patterns:clean", TASK).task(TASK).getOutcome());
+        Assert.assertTrue("cached sources are not restored ",
+                Files.isRegularFile(project.resolve("patterns/build/generated/patterns/Generated/AbstractFactory/MyFactory.java")));
+
+        //the generated sources compile too
+        Assert.assertEquals("generated sources do not compile ", TaskOutcome.SUCCESS,
+                run(":patterns:compileJava").task(":patterns:compileJava").getOutcome());
+    }
+}
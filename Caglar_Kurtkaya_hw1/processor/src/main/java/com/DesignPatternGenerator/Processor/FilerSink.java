@@ -0,0 +1,31 @@
+package com.DesignPatternGenerator.Processor;
+
+import com.DesignPatternGenerator.DPG.GeneratedSource;
+import com.DesignPatternGenerator.DPG.OutputSink;
+
+import javax.annotation.processing.Filer;
+import javax.lang.model.element.Element;
+import javax.tools.JavaFileObject;
+import java.io.IOException;
+import java.io.Writer;
+
+//Writes generated sources through the annotation processing Filer, so javac compiles them in the same run.
+//Every file is tied to the annotated elements that asked for it, which is what incremental builds track
+public class FilerSink implements OutputSink {
+
+    private final Filer filer;
+    private final Element[] originatingElements;
+
+    public FilerSink(Filer filer, Element... originatingElements){
+        this.filer = filer;
+        this.originatingElements = originatingElements;
+    }
+
+    @Override
+    public void write(GeneratedSource source) throws IOException {
+        JavaFileObject file = filer.createSourceFile(source.getQualifiedName(), originatingElements);
+        try(Writer writer = file.openWriter()){
+            writer.write(source.getSource());
+        }
+    }
+}
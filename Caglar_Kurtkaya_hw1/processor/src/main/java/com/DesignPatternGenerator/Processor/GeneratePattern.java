@@ -0,0 +1,43 @@
+package com.DesignPatternGenerator.Processor;
+
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Repeatable;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+//Generates a pattern while javac compiles the annotated type, see PatternProcessor.
+//
+//  @GeneratePattern(type = "AFDP", className = "MyFactory", productType = "Bank", productName = "Chase")
+//  class Banking {}
+//
+//The same values as a PatternRequest, packName defaults to the package of the annotated type
+@Retention(RetentionPolicy.SOURCE)
+@Target(ElementType.TYPE)
+@Repeatable(GeneratePatterns.class)
+public @interface GeneratePattern {
+
+    //Pattern id, e.g. AFDP, CDP
+    String type();
+
+    String className();
+
+    String productType() default "";
+
+    String productName() default "";
+
+    //Empty means the package of the annotated type
+    String packName() default "";
+
+    //Chain receivers(CDP), 0 means Chain.numberOfClass
+    int chainLength() default 0;
+
+    //Visitor element types(VDP), empty means Element1..N
+    String[] elementTypes() default {};
+
+    //Visitor type switch dispatch(VDP)
+    boolean typeSwitch() default false;
+
+    //default or performance, empty means the profile of application.conf
+    String profile() default "";
+}
@@ -0,0 +1,13 @@
+package com.DesignPatternGenerator.Processor;
+
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+//Container of repeated @GeneratePattern annotations
+@Retention(RetentionPolicy.SOURCE)
+@Target(ElementType.TYPE)
+public @interface GeneratePatterns {
+    GeneratePattern[] value();
+}
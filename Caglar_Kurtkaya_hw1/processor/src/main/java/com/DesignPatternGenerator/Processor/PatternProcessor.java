@@ -0,0 +1,180 @@
+package com.DesignPatternGenerator.Processor;
+
+import com.DesignPatternGenerator.DPG.FragmentCache;
+import com.DesignPatternGenerator.DPG.GeneratedSource;
+import com.DesignPatternGenerator.DPG.GenerationPlan;
+import com.DesignPatternGenerator.DPG.GenerationProfile;
+import com.DesignPatternGenerator.DPG.InvalidRequestException;
+import com.DesignPatternGenerator.DPG.PatternProvider;
+import com.DesignPatternGenerator.DPG.PatternRegistry;
+import com.DesignPatternGenerator.DPG.PatternRequest;
+import com.DesignPatternGenerator.Utils.Configs;
+import com.typesafe.config.ConfigFactory;
+
+import javax.annotation.processing.AbstractProcessor;
+import javax.annotation.processing.RoundEnvironment;
+import javax.lang.model.SourceVersion;
+import javax.lang.model.element.Element;
+import javax.lang.model.element.TypeElement;
+import javax.tools.Diagnostic;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeSet;
+
+//Annotation processor for @GeneratePattern. Each annotation becomes a PatternRequest, is validated and
+//generated by the PatternProvider registered for its pattern(see PatternRegistry), so the sources are compiled
+//by the same javac run. The files of every annotation are merged in one GenerationPlan before they reach the Filer:
+//a type generated identically by several annotations(e.g. a product shared by two factories) is written once,
+//a type generated differently is a compile error on the annotated element that came later.
+//Registered as an aggregating processor for Gradle, a merged file comes from every annotated type that generated it.
+//Add the processor subproject's jar to the annotationProcessor configuration to use it, the generator jar does not register it.
+public class PatternProcessor extends AbstractProcessor {
+
+    private Configs configs;
+    private PatternRegistry registry;
+    //Every file generated by this compilation, across rounds, and the annotation each plan owner stands for
+    private final GenerationPlan plan = new GenerationPlan();
+    private final List<String> owners = new ArrayList<>();
+    private final Set<String> written = new HashSet<>();
+
+    @Override
+    public Set<String> getSupportedAnnotationTypes() {
+        return new LinkedHashSet<>(Arrays.asList(GeneratePattern.class.getCanonicalName(), GeneratePatterns.class.getCanonicalName()));
+    }
+
+    @Override
+    public SourceVersion getSupportedSourceVersion() {
+        return SourceVersion.latestSupported();
+    }
+
+    @Override
+    public boolean process(Set<? extends TypeElement> annotations, RoundEnvironment roundEnv) {
+        Set<Element> annotated = new LinkedHashSet<>(roundEnv.getElementsAnnotatedWith(GeneratePattern.class));
+        annotated.addAll(roundEnv.getElementsAnnotatedWith(GeneratePatterns.class));
+        //Annotated elements of every file of the round, in the order they were first generated
+        Map<String, Set<Element>> origins = new LinkedHashMap<>();
+        for(Element element : annotated){
+            for(GeneratePattern annotation : element.getAnnotationsByType(GeneratePattern.class)){
+                List<GeneratedSource> sources = generate(element, annotation);
+                if(sources != null){
+                    merge(element, annotation, sources, origins);
+                }
+            }
+        }
+        for(GenerationPlan.PlannedFile planned : plan.getFiles()){
+            if(written.add(planned.getQualifiedName())){
+                write(planned.getSource(), origins.get(planned.getQualifiedName()));
+            }
+        }
+        return true;
+    }
+
+    //The rendered files of one annotation, null when it cannot be generated
+    private List<GeneratedSource> generate(Element element, GeneratePattern annotation){
+        try {
+            PatternRequest request = toRequest(element, annotation);
+            PatternProvider provider = registry().lookup(request.getPatternName());
+            if(provider == null){
+                error(element, "Unknown pattern '" + annotation.type() + "', known patterns are " + new TreeSet<>(registry().getIds()));
+                return null;
+            }
+            List<String> problems = provider.getProblems(request);
+            if(!problems.isEmpty()){
+                throw new InvalidRequestException(request.toString(), problems);
+            }
+            return provider.create(request).generateSources();
+        } catch (InvalidRequestException ex){
+            error(element, ex.getMessage());
+        } catch (RuntimeException ex){
+            error(element, describe(annotation) + ": "
+                    + (ex.getCause() != null ? ex.getCause().getMessage() : ex.getMessage()));
+        }
+        return null;
+    }
+
+    //Adds the files of one annotation to the plan, a type already planned with other content is reported on element
+    private void merge(Element element, GeneratePattern annotation, List<GeneratedSource> sources, Map<String, Set<Element>> origins){
+        int owner = owners.size();
+        owners.add(annotation.type() + " " + annotation.className() + " on " + element);
+        plan.addSources(owner, sources);
+        for(GeneratedSource source : sources){
+            GenerationPlan.PlannedFile planned = plan.get(source.getQualifiedName());
+            if(planned.getOwner() != owner && !planned.getSource().getSource().equals(source.getSource())){
+                error(element, describe(annotation) + ": " + source.getQualifiedName()
+                        + " is already generated differently by " + owners.get(planned.getOwner()));
+            } else {
+                origins.computeIfAbsent(source.getQualifiedName(), name -> new LinkedHashSet<>()).add(element);
+            }
+        }
+    }
+
+    private void write(GeneratedSource source, Set<Element> originatingElements){
+        Element[] elements = originatingElements.toArray(new Element[0]);
+        try {
+            new FilerSink(processingEnv.getFiler(), elements).write(source);
+        } catch (IOException ex){
+            error(elements[0], "Cannot write " + source.getQualifiedName() + ": " + ex.getMessage());
+        }
+    }
+
+    private PatternRequest toRequest(Element element, GeneratePattern annotation){
+        String packName = annotation.packName().isEmpty()
+                ? processingEnv.getElementUtils().getPackageOf(element).getQualifiedName().toString()
+                : annotation.packName();
+        PatternRequest request = new PatternRequest(annotation.type(), annotation.className(),
+                emptyToNull(annotation.productType()), emptyToNull(annotation.productName()), packName);
+        if(annotation.chainLength() != 0){
+            request = request.withChainLength(annotation.chainLength());
+        }
+        if(annotation.elementTypes().length > 0){
+            request = request.withVisitorElements(Arrays.asList(annotation.elementTypes()));
+        }
+        if(annotation.typeSwitch()){
+            request = request.withTypeSwitchDispatch();
+        }
+        if(!annotation.profile().isEmpty()){
+            GenerationProfile profile = GenerationProfile.fromId(annotation.profile());
+            if(profile == null){
+                throw new IllegalArgumentException("Unknown profile '" + annotation.profile() + "'");
+            }
+            request = request.withProfile(profile);
+        }
+        return request;
+    }
+
+    //application.conf is read with the processor's class loader, javac's context class loader does not see it
+    private Configs configs(){
+        if(configs == null){
+            configs = Configs.of(ConfigFactory.load(PatternProcessor.class.getClassLoader()));
+        }
+        return configs;
+    }
+
+    //Built-in patterns on the processor's config, plus every PatternProvider on the processor path
+    private PatternRegistry registry(){
+        if(registry == null){
+            registry = PatternRegistry.withBuiltins(FragmentCache.shared(), configs())
+                    .loadServices(PatternProcessor.class.getClassLoader());
+        }
+        return registry;
+    }
+
+    private void error(Element element, String message){
+        processingEnv.getMessager().printMessage(Diagnostic.Kind.ERROR, message, element);
+    }
+
+    private static String describe(GeneratePattern annotation){
+        return "Cannot generate " + annotation.type() + " " + annotation.className();
+    }
+
+    private static String emptyToNull(String value){
+        return value.isEmpty() ? null : value;
+    }
+}
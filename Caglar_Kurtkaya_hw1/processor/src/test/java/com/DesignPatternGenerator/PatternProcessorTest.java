@@ -0,0 +1,121 @@
+package com.DesignPatternGenerator;
+
+import com.DesignPatternGenerator.Processor.PatternProcessor;
+import org.junit.Assert;
+import org.junit.Test;
+
+import javax.tools.Diagnostic;
+import javax.tools.DiagnosticCollector;
+import javax.tools.JavaCompiler;
+import javax.tools.JavaFileObject;
+import javax.tools.SimpleJavaFileObject;
+import javax.tools.StandardJavaFileManager;
+import javax.tools.ToolProvider;
+import java.io.IOException;
+import java.net.URI;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.Collections;
+
+public class PatternProcessorTest {
+
+    //Compiles one source with the processor, generated sources go to out/src and classes to out/classes
+    private boolean compile(Path out, String source, DiagnosticCollector<JavaFileObject> diagnostics) throws IOException {
+        JavaCompiler compiler = ToolProvider.getSystemJavaCompiler();
+        Files.createDirectories(out.resolve("src"));
+        Files.createDirectories(out.resolve("classes"));
+        JavaFileObject file = new SimpleJavaFileObject(URI.create("string:///banking/Banking.java"), JavaFileObject.Kind.SOURCE) {
+            @Override
+            public CharSequence getCharContent(boolean ignoreEncodingErrors) {
+                return source;
+            }
+        };
+        try(StandardJavaFileManager fileManager = compiler.getStandardFileManager(diagnostics, null, StandardCharsets.UTF_8)){
+            JavaCompiler.CompilationTask task = compiler.getTask(null, fileManager, diagnostics,
+                    Arrays.asList("-d", out.resolve("classes").toString(), "-s", out.resolve("src").toString(),
+                            "-classpath", System.getProperty("java.class.path")),
+                    null, Collections.singletonList(file));
+            task.setProcessors(Collections.singletonList(new PatternProcessor()));
+            return task.call();
+        }
+    }
+
+    @Test
+    public void verifyPatternsAreGeneratedDuringCompilation() throws IOException {
+        Path out = Files.createTempDirectory("processor");
+        DiagnosticCollector<JavaFileObject> diagnostics = new DiagnosticCollector<>();
+        boolean ok = compile(out, "package banking;\n"
+                + "import com.DesignPatternGenerator.Processor.GeneratePattern;\n"
+                + "@GeneratePattern(type = \"AFDP\", className = \"MyFactory\", productType = \"Bank\", productName = \"Chase\")\n"
+                + "@GeneratePattern(type = \"CDP\", className = \"MyHandler\", packName = \"banking.chain\", chainLength = 4)\n"
+                + "class Banking {\n"
+                + "    Bank bank = new MyFactory().createBank();\n"
+                + "}\n", diagnostics);
+
+        Assert.assertTrue("compilation failed " + diagnostics.getDiagnostics(), ok);
+        Assert.assertTrue("factory source is missing ", Files.exists(out.resolve("src/banking/MyFactory.java")));
+        Assert.assertTrue("receiver class is missing ", Files.exists(out.resolve("classes/banking/chain/Receiver4.class")));
+    }
+
+    @Test
+    public void verifyInvalidAnnotationIsACompileError() throws IOException {
+        Path out = Files.createTempDirectory("processor");
+        DiagnosticCollector<JavaFileObject> diagnostics = new DiagnosticCollector<>();
+        boolean ok = compile(out, "package banking;\n"
+                + "@com.DesignPatternGenerator.Processor.GeneratePattern(type = \"AFDP\", className = \"class\")\n"
+                + "class Banking {}\n", diagnostics);
+
+        Assert.assertFalse("invalid annotation should fail the build ", ok);
+        boolean reported = false;
+        for(Diagnostic<? extends JavaFileObject> diagnostic : diagnostics.getDiagnostics()){
+            reported |= diagnostic.getKind() == Diagnostic.Kind.ERROR
+                    && diagnostic.getMessage(null).contains("className 'class' is a reserved word");
+        }
+        Assert.assertTrue("problem is not reported " + diagnostics.getDiagnostics(), reported);
+    }
+
+    @Test
+    public void verifySharedTypesAreWrittenOnce() throws IOException {
+        Path out = Files.createTempDirectory("processor");
+        DiagnosticCollector<JavaFileObject> diagnostics = new DiagnosticCollector<>();
+        boolean ok = compile(out, "package banking;\n"
+                + "import com.DesignPatternGenerator.Processor.GeneratePattern;\n"
+                + "@GeneratePattern(type = \"AFDP\", className = \"MyFactory\", productType = \"Bank\", productName = \"Chase\")\n"
+                + "@GeneratePattern(type = \"FDP\", className = \"MyCreator\", productType = \"Bank\", productName = \"Chase\")\n"
+                + "class Banking {}\n"
+                + "@GeneratePattern(type = \"BDP\", className = \"Portfolio\", productType = \"Bank\", productName = \"Chase\")\n"
+                + "class Investing {}\n", diagnostics);
+
+        Assert.assertTrue("compilation failed " + diagnostics.getDiagnostics(), ok);
+        Assert.assertTrue("shared product is missing ", Files.exists(out.resolve("classes/banking/Chase.class")));
+        Assert.assertTrue("creator is missing ", Files.exists(out.resolve("classes/banking/MyCreator.class")));
+        Assert.assertTrue("builder is missing ", Files.exists(out.resolve("classes/banking/Portfolio.class")));
+    }
+
+    @Test
+    public void verifyConflictingTypesAreACompileError() throws IOException {
+        Path out = Files.createTempDirectory("processor");
+        DiagnosticCollector<JavaFileObject> diagnostics = new DiagnosticCollector<>();
+        boolean ok = compile(out, "package banking;\n"
+                + "import com.DesignPatternGenerator.Processor.GeneratePattern;\n"
+                + "@GeneratePattern(type = \"CDP\", className = \"MyHandler\")\n"
+                + "class Banking {}\n"
+                + "@GeneratePattern(type = \"CDP\", className = \"OtherHandler\")\n"
+                + "class Investing {}\n", diagnostics);
+
+        Assert.assertFalse("conflicting annotations should fail the build ", ok);
+        int reported = 0;
+        for(Diagnostic<? extends JavaFileObject> diagnostic : diagnostics.getDiagnostics()){
+            String message = diagnostic.getMessage(null);
+            if(diagnostic.getKind() == Diagnostic.Kind.ERROR){
+                Assert.assertFalse("file is created twice " + message, message.contains("Attempt to recreate"));
+                if(message.contains("Cannot generate CDP OtherHandler: banking.Receiver1 is already generated differently by CDP MyHandler")){
+                    reported++;
+                }
+            }
+        }
+        Assert.assertEquals("conflict is not reported " + diagnostics.getDiagnostics(), 1, reported);
+    }
+}
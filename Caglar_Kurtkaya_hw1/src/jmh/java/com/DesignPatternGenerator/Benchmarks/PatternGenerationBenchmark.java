@@ -0,0 +1,122 @@
+package com.DesignPatternGenerator.Benchmarks;
+
+import com.DesignPatternGenerator.DPG.DirectorySink;
+import com.DesignPatternGenerator.DPG.FragmentCache;
+import com.DesignPatternGenerator.DPG.GeneratedSource;
+import com.DesignPatternGenerator.DPG.OutputSink;
+import com.DesignPatternGenerator.DPG.PatternBuilder;
+import com.DesignPatternGenerator.DPG.PatternRequest;
+import com.DesignPatternGenerator.DPG.PatternType;
+import com.squareup.javapoet.JavaFile;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
+
+//Throughput of every stage of the generation pipeline for each of the eight patterns:
+//  endToEnd  - specs, rendering and writing to a sink that only consumes the text
+//  buildSpecs - TypeSpec construction alone(PatternBuilder.generateFiles)
+//  render    - JavaFile.toString of prebuilt files
+//  write     - writing rendered files to a directory on tmpfs(/dev/shm when it exists)
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+public class PatternGenerationBenchmark {
+
+    @Param({"AFDP", "BDP", "FDP", "FCDP", "CDP", "MDP", "VDP", "TDP"})
+    public String patternName;
+
+    //"off" measures a cold build on every call, "on" measures the steady state of a large batch
+    @Param({"off", "on"})
+    public String fragmentCache;
+
+    private PatternRequest request;
+    private FragmentCache cache;
+    private List<JavaFile> files;
+    private List<GeneratedSource> sources;
+    private Path tmpRoot;
+    private DirectorySink directorySink;
+
+    @Setup(Level.Trial)
+    public void setUp() throws IOException {
+        request = PatternType.fromId(patternName).requiresProduct()
+                ? new PatternRequest(patternName, "MyClass", "Bank", "Chase", "Outputs")
+                : new PatternRequest(patternName, "MyClass", "Outputs");
+        cache = "on".equals(fragmentCache) ? new FragmentCache(FragmentCache.DEFAULT_MAX_SIZE) : null;
+        files = generator().generateFiles();
+        sources = new ArrayList<>(files.size());
+        for(JavaFile javaFile : files){
+            sources.add(GeneratedSource.of(javaFile));
+        }
+
+        Path shm = Paths.get("/dev/shm");
+        tmpRoot = Files.isDirectory(shm) ? Files.createTempDirectory(shm, "dpg-bench") : Files.createTempDirectory("dpg-bench");
+        directorySink = new DirectorySink(tmpRoot);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws IOException {
+        try(Stream<Path> paths = Files.walk(tmpRoot)){
+            paths.sorted(Comparator.reverseOrder()).forEach(path -> path.toFile().delete());
+        }
+    }
+
+    private PatternBuilder generator(){
+        return PatternBuilder.fromRequest(request, cache);
+    }
+
+    @Benchmark
+    public void endToEnd(Blackhole bh){
+        generator().generateCode(new BlackholeSink(bh));
+    }
+
+    @Benchmark
+    public List<JavaFile> buildSpecs(){
+        return generator().generateFiles();
+    }
+
+    @Benchmark
+    public void render(Blackhole bh){
+        for(JavaFile javaFile : files){
+            bh.consume(javaFile.toString());
+        }
+    }
+
+    @Benchmark
+    public void write() throws IOException {
+        for(GeneratedSource source : sources){
+            directorySink.write(source);
+        }
+    }
+
+    //Consumes the rendered text so the JIT cannot drop the rendering
+    private static final class BlackholeSink implements OutputSink {
+        private final Blackhole bh;
+
+        BlackholeSink(Blackhole bh){
+            this.bh = bh;
+        }
+
+        @Override
+        public void write(GeneratedSource source) {
+            bh.consume(source.getSource());
+        }
+    }
+}
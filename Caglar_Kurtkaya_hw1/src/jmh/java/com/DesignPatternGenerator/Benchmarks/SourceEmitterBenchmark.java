@@ -0,0 +1,46 @@
+package com.DesignPatternGenerator.Benchmarks;
+
+import com.DesignPatternGenerator.DPG.GeneratedSource;
+import com.DesignPatternGenerator.DPG.PatternBuilder;
+import com.DesignPatternGenerator.DPG.SourceEmitter;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+//Specs and rendering of the fixed-shape patterns with each SourceEmitter, fragment cache off
+//so every call renders from scratch. Both emitters produce the same text, see SourceEmitterTest
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+public class SourceEmitterBenchmark {
+
+    @Param({"FCDP", "TDP"})
+    public String patternName;
+
+    @Param({"javapoet", "template"})
+    public String emitter;
+
+    private SourceEmitter sourceEmitter;
+
+    @Setup
+    public void setUp(){
+        sourceEmitter = SourceEmitter.fromId(emitter);
+    }
+
+    @Benchmark
+    public List<GeneratedSource> generateSources(){
+        return new PatternBuilder.pBuilder(patternName, "MyClass")
+                .withPackName("Outputs")
+                .withEmitter(sourceEmitter)
+                .withFragmentCache(null)
+                .build().generateSources();
+    }
+}
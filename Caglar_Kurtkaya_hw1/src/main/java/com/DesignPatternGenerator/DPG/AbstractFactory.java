@@ -1,7 +1,28 @@
 package com.DesignPatternGenerator.DPG;
 
+import java.util.List;
 import java.util.Map;
 
 public interface AbstractFactory {
-    PatternGenerator getPattern(String patternName, Map<String, String> args);
+    PatternGenerator getPattern(PatternRequest request);
+
+    //Every problem of the request for this factory, empty when getPattern can generate it
+    default List<String> getProblems(PatternRequest request) {
+        return request.getProblems();
+    }
+
+    //Returns the request, or throws InvalidRequestException listing every problem getProblems finds
+    default PatternRequest validate(PatternRequest request) {
+        List<String> problems = getProblems(request);
+        if(!problems.isEmpty()){
+            throw new InvalidRequestException(request.toString(), problems);
+        }
+        return request;
+    }
+
+    //Map based variant kept for existing callers, keys: desiredClassName, productType, productName, packName
+    default PatternGenerator getPattern(String patternName, Map<String, String> args) {
+        return getPattern(new PatternRequest(patternName, args.get("desiredClassName"),
+                args.get("productType"), args.get("productName"), args.get("packName")));
+    }
 }
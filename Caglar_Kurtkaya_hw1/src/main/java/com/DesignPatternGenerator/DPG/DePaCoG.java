@@ -1,88 +1,423 @@
 package com.DesignPatternGenerator.DPG;//package CodeGenerator;
 
+import com.squareup.javapoet.JavaFile;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
-import java.util.HashMap;
-import java.util.Map;
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+import java.util.concurrent.atomic.AtomicLong;
 
-public class DePaCoG{
-    private AbstractFactory af;
-    private Map<String,String> myMap;
+public class DePaCoG implements AutoCloseable {
+    private final AbstractFactory af;
+    private final int parallelism;
+    //Worker threads of generateAll, shared by every batch of this instance and stopped by close()
+    private final ForkJoinPool pool;
+    private final MetricsRecorder metrics;
+    private final RenderCache renderCache;
+    //Identical requests in flight at the same time: whole single requests per destination, and stage 1 of any request
+    private final SingleFlight<List<Object>, PatternResult> requestFlights = new SingleFlight<>();
+    private final SingleFlight<String, Specs> specFlights = new SingleFlight<>();
     private static final Logger logger = LoggerFactory.getLogger("DePaCoG");
 
     public DePaCoG() {
-        this.af = new PatternFactory();
-        myMap = new HashMap<>();
+        this(Runtime.getRuntime().availableProcessors());
+    }
+
+    //parallelism bounds the number of worker threads used by generateAll
+    public DePaCoG(int parallelism) {
+        this(parallelism, MetricsRecorder.NOOP);
+    }
+
+    //metrics receives stage timings and per-request counts, e.g. new GenerationMetrics().registerMBean()
+    public DePaCoG(int parallelism, MetricsRecorder metrics) {
+        this(parallelism, metrics, null);
+    }
+
+    //renderCache serves requests rendered before, also by earlier runs, null turns it off. See RenderCache
+    public DePaCoG(int parallelism, MetricsRecorder metrics, RenderCache renderCache) {
+        this(parallelism, metrics, renderCache, new PatternFactory());
+    }
+
+    //af creates the generator of every request, e.g. a PatternFactory on a registry with its own Configs snapshot
+    public DePaCoG(int parallelism, MetricsRecorder metrics, RenderCache renderCache, AbstractFactory af) {
+        if(parallelism < 1){
+            throw new IllegalArgumentException("parallelism must be at least 1, was " + parallelism);
+        }
+        this.af = af;
+        this.parallelism = parallelism;
+        this.pool = new ForkJoinPool(parallelism);
+        this.metrics = metrics;
+        this.renderCache = renderCache;
     }
 
 
     public void generateAbstractFactoryPattern(String className, String productType, String productName, String packName){
-        myMap.put("desiredClassName", className);
-        myMap.put("productType", productType);
-        myMap.put("productName", productName);
-        myMap.put("packName", packName);
-        PatternGenerator pg = af.getPattern("AFDP", myMap);
-        logger.info("PatternGenerator is being created with patternName -> {}", "AFDP");
-        pg.generateCode();
+        generatePattern(new PatternRequest("AFDP", className, productType, productName, packName));
     }
     public void generateBuilderPattern(String className, String productType, String productName, String packName){
-        myMap.put("desiredClassName", className);
-        myMap.put("productType", productType);
-        myMap.put("productName", productName);
-        myMap.put("packName", packName);
-        PatternGenerator pg = af.getPattern("BDP", myMap);
-        logger.info("PatternGenerator is being created with patternName -> {}", "BDP");
-        pg.generateCode();
+        generatePattern(new PatternRequest("BDP", className, productType, productName, packName));
     }
 
     public void generateFactoryPattern(String className, String productType, String productName, String packName){
-        myMap.put("desiredClassName", className);
-        myMap.put("productType", productType);
-        myMap.put("productName", productName);
-        myMap.put("packName", packName);
-        PatternGenerator pg = af.getPattern("FDP", myMap);
-        logger.info("PatternGenerator is being created with patternName -> {}", "FDP");
-        pg.generateCode();
+        generatePattern(new PatternRequest("FDP", className, productType, productName, packName));
     }
     public void generateFacadePattern(String className, String packName){
-        myMap.put("desiredClassName", className);
-        myMap.put("packName", packName);
-        PatternGenerator pg = af.getPattern("FCDP", myMap);
-        logger.info("PatternGenerator is being created with patternName -> {}", "FCDP");
-        pg.generateCode();
+        generatePattern(new PatternRequest("FCDP", className, packName));
     }
 
     public void generateChainPattern(String className, String packName){
-        myMap.put("desiredClassName", className);
-        myMap.put("packName", packName);
-        PatternGenerator pg = af.getPattern("CDP", myMap);
-        logger.info("PatternGenerator is being created with patternName -> {}", "CDP");
-        pg.generateCode();
+        generatePattern(new PatternRequest("CDP", className, packName));
     }
     public void generateMediatorPattern(String className, String packName){
-        myMap.put("desiredClassName", className);
-        myMap.put("packName", packName);
-        PatternGenerator pg = af.getPattern("MDP", myMap);
-        logger.info("PatternGenerator is being created with patternName -> {}", "MDP");
-        pg.generateCode();
+        generatePattern(new PatternRequest("MDP", className, packName));
     }
 
     public void generateVisitorPattern(String className, String packName){
-        myMap.put("desiredClassName", className);
-        myMap.put("packName", packName);
-        PatternGenerator pg = af.getPattern("VDP", myMap);
-        logger.info("PatternGenerator is being created with patternName -> {}", "VDP");
-        pg.generateCode();
+        generatePattern(new PatternRequest("VDP", className, packName));
     }
 
     public void generateTemplatePattern(String className, String packName){
-        myMap.put("desiredClassName", className);
-        myMap.put("packName", packName);
-        PatternGenerator pg = af.getPattern("TDP", myMap);
-        logger.info("PatternGenerator is being created with patternName -> {}", "TDP");
-        pg.generateCode();
+        generatePattern(new PatternRequest("TDP", className, packName));
+    }
+
+    //Every call carries its own immutable request and gets its own generator,
+    //so one DePaCoG instance can be shared by concurrent callers without locking
+    public PatternResult generatePattern(PatternRequest request){
+        return generatePattern(request, DirectorySink.defaultSink());
+    }
+
+    //Same as generatePattern(request) but writes to the given sink, e.g. an InMemorySink.
+    //A call identical to one already running(same pattern, names, package, config and destination)
+    //waits for it and returns its result instead of generating and writing the same files again
+    public PatternResult generatePattern(PatternRequest request, OutputSink sink){
+        RequestState state = new RequestState(request);
+        List<Object> key = flightKey(state, sink);
+        if(key == null){
+            return generate(state, sink);
+        }
+        return requestFlights.execute(key, () -> generate(state, sink), () -> metrics.recordCoalesced(state.pattern));
+    }
+
+    private PatternResult generate(RequestState state, OutputSink sink){
+        PatternRequest request = state.request;
+        try {
+            af.validate(request);
+            List<JavaFile> files = buildFiles(state);
+            if(state.cached != null){
+                for(GeneratedSource source : state.cached){
+                    write(state, source, sink);
+                }
+            } else if(state.emitted != null){
+                List<GeneratedSource> rendered = new ArrayList<>(state.emitted.size());
+                for(GeneratedSource source : state.emitted){
+                    rendered.add(write(state, source, sink) ? source : null);
+                }
+                cacheRendered(state, rendered);
+            } else {
+                List<GeneratedSource> rendered = new ArrayList<>(files.size());
+                for(JavaFile javaFile : files){
+                    rendered.add(write(state, javaFile, sink));
+                }
+                cacheRendered(state, rendered);
+            }
+        } catch (RuntimeException ex){
+            state.error = ex;
+            throw ex;
+        } finally {
+            finish(state);
+        }
+        return state.toResult();
+    }
+
+    //--------------------------------------------------------------------------------------
+    //Batch generation
+    //Runs every request on this instance's bounded work-stealing pool and returns one result per request.
+    //Results are always in the same order as the requests, whatever the thread count.
+    public List<PatternResult> generateAll(List<PatternRequest> requests){
+        return generateAll(requests, DirectorySink.defaultSink());
     }
 
+    //Every request of the batch is written to the given sink.
+    //Requests are validated first, an invalid one gets an InvalidRequestException in its result.
+    //Runs in three stages: build the specs of every request in parallel, merge them into one
+    //GenerationPlan in request order, then write each unique file once in parallel.
+    public List<PatternResult> generateAll(List<PatternRequest> requests, OutputSink sink){
+        List<RequestState> states = new ArrayList<>(requests.size());
+        List<ForkJoinTask<List<JavaFile>>> specTasks = new ArrayList<>(requests.size());
+        for(PatternRequest request : requests){
+            RequestState state = new RequestState(request);
+            states.add(state);
+            //Invalid requests, unknown pattern ids included, are rejected here and never reach the pool
+            List<String> problems = af.getProblems(request);
+            if(problems.isEmpty()){
+                specTasks.add(pool.submit(() -> buildFiles(state)));
+            } else {
+                state.error = new InvalidRequestException(request.toString(), problems);
+                specTasks.add(null);
+            }
+        }
+
+        GenerationPlan plan = new GenerationPlan();
+        for(int i = 0; i < states.size(); i++){
+            RequestState state = states.get(i);
+            if(specTasks.get(i) == null){
+                continue;
+            }
+            try {
+                List<JavaFile> files = specTasks.get(i).join();
+                List<GeneratedSource> sources = state.cached != null ? state.cached : state.emitted;
+                state.conflicts.addAll(sources != null ? plan.addSources(i, sources) : plan.add(i, files));
+            } catch (RuntimeException ex){
+                logger.error("Generation failed for {}", state.request, ex);
+                state.error = ex;
+            }
+        }
+
+        List<ForkJoinTask<?>> writeTasks = new ArrayList<>();
+        for(GenerationPlan.PlannedFile planned : plan.getFiles()){
+            RequestState owner = states.get(planned.getOwner());
+            writeTasks.add(pool.submit(() -> write(owner, planned, sink)));
+        }
+        for(ForkJoinTask<?> task : writeTasks){
+            task.join();
+        }
+        for(RequestState state : states){
+            cacheRendered(state, plan);
+        }
+
+        List<PatternResult> results = new ArrayList<>(states.size());
+        for(RequestState state : states){
+            finish(state);
+            results.add(state.toResult());
+        }
+        logger.info("Batch of {} requests finished on {} threads, {} files written, {} duplicates merged",
+                requests.size(), parallelism, plan.getFiles().size(), plan.getDuplicates());
+        return results;
+    }
+
+    //Stops the worker threads of generateAll once the running batches are done, later batches are rejected
+    @Override
+    public void close(){
+        pool.shutdown();
+    }
+
+    //Batch generation with a staged commit: the batch is written to a staging directory and moved under root
+    //only when no request failed, otherwise root is left untouched. See StagedSink
+    public List<PatternResult> generateAllStaged(List<PatternRequest> requests, Path root) throws IOException {
+        try(StagedSink sink = new StagedSink(root)){
+            List<PatternResult> results = generateAll(requests, sink);
+            for(PatternResult result : results){
+                if(result.getError() != null){
+                    logger.warn("Batch not committed to {}, {} failed", root, result.getRequest());
+                    return results;
+                }
+            }
+            sink.commit();
+            return results;
+        }
+    }
+
+    //Creates the request's generator and its content key(see RenderCache.keyOf), once per request.
+    //The key is null for generators of other providers, their requests are never coalesced or cached
+    private void prepare(RequestState state){
+        if(state.generator == null){
+            PatternGenerator pg = af.getPattern(state.request);
+            logger.debug("PatternGenerator is being created with patternName -> {}", state.request.getPatternName());
+            state.contentKey = pg instanceof PatternBuilder ? RenderCache.keyOf((PatternBuilder) pg) : null;
+            state.generator = pg;
+        }
+    }
+
+    //Requests are identical when they render the same content to the same place, null when not coalesced.
+    //A request that cannot be prepared is not coalesced, generate reports its error
+    private List<Object> flightKey(RequestState state, OutputSink sink){
+        try {
+            prepare(state);
+        } catch (RuntimeException ex){
+            return null;
+        }
+        if(state.contentKey == null){
+            return null;
+        }
+        Object destination = sink instanceof DirectorySink ? ((DirectorySink) sink).getRoot().toAbsolutePath().normalize() : sink;
+        return Arrays.asList(state.contentKey, destination);
+    }
+
+    //What stage 1 produced for a request, shared by the identical requests in flight with it:
+    //JavaFiles, files from the render cache or files already rendered by the request's emitter
+    private static final class Specs {
+        private final List<JavaFile> files;
+        private final List<GeneratedSource> cached;
+        private final List<GeneratedSource> emitted;
+
+        private Specs(List<JavaFile> files, List<GeneratedSource> cached, List<GeneratedSource> emitted){
+            this.files = files;
+            this.cached = cached;
+            this.emitted = emitted;
+        }
+    }
+
+    //Stage 1: builds the specs of one request, identical requests in flight share one build.
+    //A render cache hit sets state.cached instead and returns no files, it skips stages 1 and 2.
+    //A request its emitter renders without JavaPoet(see SourceEmitter) sets state.emitted and returns no files,
+    //stage 2 happens here
+    private List<JavaFile> buildFiles(RequestState state){
+        long start = System.nanoTime();
+        try {
+            prepare(state);
+            Specs specs = state.contentKey == null ? buildSpecs(state)
+                    : specFlights.execute(state.contentKey, () -> buildSpecs(state), () -> metrics.recordCoalesced(state.pattern));
+            state.cacheKey = renderCache != null ? state.contentKey : null;
+            List<GeneratedSource> sources = specs.cached != null ? specs.cached : specs.emitted;
+            if(sources != null){
+                for(GeneratedSource source : sources){
+                    state.files.add(source.getQualifiedName());
+                }
+            }
+            state.cached = specs.cached;
+            state.emitted = specs.emitted;
+            for(JavaFile javaFile : specs.files){
+                state.files.add(javaFile.packageName + "." + javaFile.typeSpec.name);
+            }
+            return specs.files;
+        } finally {
+            state.elapsedNanos.addAndGet(System.nanoTime() - start);
+        }
+    }
+
+    private Specs buildSpecs(RequestState state){
+        if(renderCache != null && state.contentKey != null){
+            List<GeneratedSource> cached = renderCache.get(state.contentKey);
+            if(cached != null){
+                return new Specs(Collections.<JavaFile>emptyList(), cached, null);
+            }
+        }
+        long start = System.nanoTime();
+        if(state.generator instanceof PatternBuilder){
+            List<GeneratedSource> emitted = ((PatternBuilder) state.generator).emitSources();
+            if(emitted != null){
+                metrics.recordStage(state.pattern, GenerationStage.RENDER, System.nanoTime() - start);
+                return new Specs(Collections.<JavaFile>emptyList(), null, emitted);
+            }
+        }
+        try {
+            return new Specs(state.generator.generateFiles(), null, null);
+        } finally {
+            metrics.recordStage(state.pattern, GenerationStage.SPEC_BUILD, System.nanoTime() - start);
+        }
+    }
+
+    //Stages 2 and 3 of a planned file, only stage 3 when it came rendered from the render cache
+    private void write(RequestState owner, GenerationPlan.PlannedFile planned, OutputSink sink){
+        if(planned.getJavaFile() == null){
+            write(owner, planned.getSource(), sink);
+        } else {
+            planned.setSource(write(owner, planned.getJavaFile(), sink));
+        }
+    }
+
+    //Stages 2 and 3: renders one file and writes it, time and bytes are charged to the owner request.
+    //Returns the rendered file, null when rendering or writing failed
+    private GeneratedSource write(RequestState owner, JavaFile javaFile, OutputSink sink){
+        long start = System.nanoTime();
+        GeneratedSource source;
+        try {
+            source = GeneratedSource.of(javaFile);
+        } catch (RuntimeException ex){
+            logger.error("Cannot write {}.{}", javaFile.packageName, javaFile.typeSpec.name, ex);
+            owner.error = ex;
+            owner.elapsedNanos.addAndGet(System.nanoTime() - start);
+            return null;
+        }
+        long nanos = System.nanoTime() - start;
+        owner.elapsedNanos.addAndGet(nanos);
+        metrics.recordStage(owner.pattern, GenerationStage.RENDER, nanos);
+        return write(owner, source, sink) ? source : null;
+    }
+
+    //Stage 3: writes one rendered file, returns false when writing failed
+    private boolean write(RequestState owner, GeneratedSource source, OutputSink sink){
+        long start = System.nanoTime();
+        try {
+            long bytes = sink.writeCounted(source);
+            metrics.recordStage(owner.pattern, GenerationStage.WRITE, System.nanoTime() - start);
+            owner.bytes.addAndGet(bytes);
+            return true;
+        } catch (IOException | RuntimeException ex){
+            logger.error("Cannot write {}", source, ex);
+            owner.error = ex;
+            return false;
+        } finally {
+            owner.elapsedNanos.addAndGet(System.nanoTime() - start);
+        }
+    }
+
+    //Stores a request rendered by this run in the render cache, unless it failed
+    private void cacheRendered(RequestState state, List<GeneratedSource> rendered){
+        if(state.cacheKey == null || state.cached != null || state.error != null || rendered.contains(null)){
+            return;
+        }
+        renderCache.put(state.cacheKey, rendered);
+    }
+
+    //Batch variant, the request's files are taken from the plan whichever request wrote them.
+    //A request with conflicts is not stored, some of its files were not the ones it generated
+    private void cacheRendered(RequestState state, GenerationPlan plan){
+        if(state.cacheKey == null || state.cached != null || !state.conflicts.isEmpty()){
+            return;
+        }
+        List<GeneratedSource> rendered = new ArrayList<>(state.files.size());
+        for(String file : state.files){
+            GenerationPlan.PlannedFile planned = plan.get(file);
+            rendered.add(planned != null ? planned.getSource() : null);
+        }
+        cacheRendered(state, rendered);
+    }
+
+    //Records the request's metrics. Its log events are folded into one debug line,
+    //the PatternResult carries the same summary for callers that run with logging at INFO
+    private void finish(RequestState state){
+        metrics.recordRequest(state.pattern, state.files.size(), state.bytes.get(), state.elapsedNanos.get(),
+                state.error == null && state.conflicts.isEmpty());
+        if(logger.isDebugEnabled()){
+            logger.debug("Generated {}: {} files, {} bytes, {} conflicts in {} us", state.request, state.files.size(),
+                    state.bytes.get(), state.conflicts.size(), state.elapsedNanos.get() / 1000);
+        }
+    }
+
+    //Per-request bookkeeping of a batch run
+    private static final class RequestState {
+        private final PatternRequest request;
+        private final String pattern;
+        private final AtomicLong elapsedNanos = new AtomicLong();
+        private final AtomicLong bytes = new AtomicLong();
+        private final List<String> files = new ArrayList<>();
+        private final List<String> conflicts = new ArrayList<>();
+        private volatile Throwable error;
+        //The request's generator and content key, see prepare
+        private volatile PatternGenerator generator;
+        private volatile String contentKey;
+        //Render cache key, null when the request is not cached, and the cached files on a hit
+        private volatile String cacheKey;
+        private volatile List<GeneratedSource> cached;
+        //The files when the request's emitter rendered them in stage 1, null when they are JavaFiles
+        private volatile List<GeneratedSource> emitted;
+
+        private RequestState(PatternRequest request){
+            this.request = request;
+            this.pattern = String.valueOf(PatternType.normalize(request.getPatternName()));
+        }
+
+        private PatternResult toResult(){
+            return new PatternResult(request, elapsedNanos.get(), bytes.get(), error, files, conflicts);
+        }
+    }
 
-}
\ No newline at end of file
+}
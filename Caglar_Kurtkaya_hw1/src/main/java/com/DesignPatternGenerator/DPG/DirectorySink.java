@@ -0,0 +1,124 @@
+package com.DesignPatternGenerator.DPG;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.CharBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.CharsetEncoder;
+import java.nio.charset.CoderResult;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+//Writes every file under a source root, one directory per package.
+//A sink is meant to live for one batch: each package directory is created once,
+//sources are encoded into a per thread direct buffer and written with a single FileChannel write,
+//and with fsync on, every written file is forced to disk once when the sink is closed
+public class DirectorySink implements OutputSink {
+
+    private static final int INITIAL_BUFFER = 16 * 1024;
+
+    //Encoder and buffer reused by every write on the same thread, the buffer only grows
+    private static final ThreadLocal<CharsetEncoder> encoder =
+            ThreadLocal.withInitial(StandardCharsets.UTF_8::newEncoder);
+    private static final ThreadLocal<ByteBuffer> buffer =
+            ThreadLocal.withInitial(() -> ByteBuffer.allocateDirect(INITIAL_BUFFER));
+
+    private final Path root;
+    private final boolean fsync;
+    private final Set<Path> directories = ConcurrentHashMap.newKeySet();
+    private final Set<Path> unsynced = ConcurrentHashMap.newKeySet();
+
+    public DirectorySink(Path root){
+        this(root, false);
+    }
+
+    public DirectorySink(Path root, boolean fsync){
+        this.root = root;
+        this.fsync = fsync;
+    }
+
+    //root maven source
+    public static DirectorySink defaultSink(){
+        return new DirectorySink(Paths.get("./src/main/java"));
+    }
+
+    public Path getRoot() {
+        return root;
+    }
+
+    //Path the source is written to
+    public Path resolve(GeneratedSource source){
+        return root.resolve(source.getRelativePath());
+    }
+
+    @Override
+    public void write(GeneratedSource source) throws IOException {
+        write(resolve(source), encode(source.getSource()));
+    }
+
+    //Replaces the file with the remaining bytes of the buffer
+    void write(Path file, ByteBuffer bytes) throws IOException {
+        Path dir = file.getParent();
+        if(dir != null && !directories.contains(dir)){
+            Files.createDirectories(dir);
+            directories.add(dir);
+        }
+        try(FileChannel channel = FileChannel.open(file, StandardOpenOption.WRITE,
+                StandardOpenOption.CREATE, StandardOpenOption.TRUNCATE_EXISTING)){
+            while(bytes.hasRemaining()){
+                channel.write(bytes);
+            }
+        }
+        if(fsync){
+            unsynced.add(file);
+        }
+    }
+
+    //UTF-8 bytes of the source in this thread's buffer, valid until the thread encodes again
+    private static ByteBuffer encode(String source){
+        CharsetEncoder e = encoder.get();
+        ByteBuffer out = buffer.get();
+        while(true){
+            e.reset();
+            out.clear();
+            CharBuffer in = CharBuffer.wrap(source);
+            CoderResult result = e.encode(in, out, true);
+            if(!result.isOverflow()){
+                result = e.flush(out);
+            }
+            if(result.isOverflow()){
+                out = ByteBuffer.allocateDirect(Math.max(out.capacity() * 2, source.length() * 3));
+                buffer.set(out);
+                continue;
+            }
+            out.flip();
+            return out;
+        }
+    }
+
+    //Forces the written files, then their directories, to disk
+    @Override
+    public void close() throws IOException {
+        if(!fsync){
+            return;
+        }
+        for(Path file : unsynced){
+            try(FileChannel channel = FileChannel.open(file, StandardOpenOption.WRITE)){
+                channel.force(true);
+            }
+        }
+        unsynced.clear();
+        for(Path dir : directories){
+            try(FileChannel channel = FileChannel.open(dir, StandardOpenOption.READ)){
+                channel.force(true);
+            } catch (IOException ex){
+                //directories cannot be opened on every platform, the files are already on disk
+            }
+        }
+    }
+}
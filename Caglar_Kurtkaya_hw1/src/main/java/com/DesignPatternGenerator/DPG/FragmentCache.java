@@ -0,0 +1,96 @@
+package com.DesignPatternGenerator.DPG;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Supplier;
+
+//Bounded LRU cache of immutable JavaPoet fragments(TypeSpec, MethodSpec and lists of them).
+//PatternBuilder keys every fragment by role, package, config values and the request values it uses,
+//so identical inputs across a batch reuse one spec instead of rebuilding it.
+public class FragmentCache {
+
+    public static final int DEFAULT_MAX_SIZE = 4096;
+
+    private static final FragmentCache SHARED = new FragmentCache(DEFAULT_MAX_SIZE);
+
+    private final int maxSize;
+    private final Map<Object, Object> entries;
+    private final AtomicLong hits = new AtomicLong();
+    private final AtomicLong misses = new AtomicLong();
+    private final AtomicLong evictions = new AtomicLong();
+
+    public FragmentCache(int maxSize){
+        if(maxSize < 1){
+            throw new IllegalArgumentException("maxSize must be at least 1, was " + maxSize);
+        }
+        this.maxSize = maxSize;
+        this.entries = new LinkedHashMap<Object, Object>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<Object, Object> eldest) {
+                if(size() > FragmentCache.this.maxSize){
+                    evictions.incrementAndGet();
+                    return true;
+                }
+                return false;
+            }
+        };
+    }
+
+    //Cache used by PatternBuilder unless another one is given
+    public static FragmentCache shared(){
+        return SHARED;
+    }
+
+    //Returns the cached fragment or builds it. Building happens outside the lock,
+    //two threads missing the same key may both build it and the first one stored wins
+    @SuppressWarnings("unchecked")
+    public <T> T get(Object key, Supplier<T> builder){
+        synchronized (entries){
+            Object value = entries.get(key);
+            if(value != null){
+                hits.incrementAndGet();
+                return (T) value;
+            }
+        }
+        misses.incrementAndGet();
+        T value = builder.get();
+        synchronized (entries){
+            Object previous = entries.putIfAbsent(key, value);
+            return previous != null ? (T) previous : value;
+        }
+    }
+
+    public long getHits() {
+        return hits.get();
+    }
+
+    public long getMisses() {
+        return misses.get();
+    }
+
+    public long getEvictions() {
+        return evictions.get();
+    }
+
+    public int size() {
+        synchronized (entries){
+            return entries.size();
+        }
+    }
+
+    public int getMaxSize() {
+        return maxSize;
+    }
+
+    public void clear() {
+        synchronized (entries){
+            entries.clear();
+        }
+    }
+
+    @Override
+    public String toString() {
+        return "hits=" + getHits() + " misses=" + getMisses() + " evictions=" + getEvictions() + " size=" + size();
+    }
+}
@@ -0,0 +1,71 @@
+package com.DesignPatternGenerator.DPG;
+
+import com.squareup.javapoet.JavaFile;
+
+//One rendered java file, the unit every OutputSink writes
+public final class GeneratedSource {
+
+    private final String packageName;
+    private final String typeName;
+    private final String source;
+
+    public GeneratedSource(String packageName, String typeName, String source){
+        this.packageName = packageName;
+        this.typeName = typeName;
+        this.source = source;
+    }
+
+    //Renders a JavaPoet file, same text as JavaFile.writeTo would write
+    public static GeneratedSource of(JavaFile javaFile){
+        return new GeneratedSource(javaFile.packageName, javaFile.typeSpec.name, javaFile.toString());
+    }
+
+    public String getPackageName() {
+        return packageName;
+    }
+
+    public String getTypeName() {
+        return typeName;
+    }
+
+    public String getSource() {
+        return source;
+    }
+
+    //Bytes of the source encoded as UTF-8, counted without encoding it.
+    //Names may be any Java identifier, so the source is not always ASCII. A lone surrogate encodes as '?'
+    public int getUtf8Length() {
+        int length = 0;
+        for(int i = 0; i < source.length(); i++){
+            char c = source.charAt(i);
+            if(c < 0x80){
+                length++;
+            } else if(c < 0x800){
+                length += 2;
+            } else if(Character.isHighSurrogate(c) && i + 1 < source.length() && Character.isLowSurrogate(source.charAt(i + 1))){
+                length += 4;
+                i++;
+            } else if(Character.isSurrogate(c)){
+                length++;
+            } else {
+                length += 3;
+            }
+        }
+        return length;
+    }
+
+    //e.g. Outputs.Bank
+    public String getQualifiedName() {
+        return packageName.isEmpty() ? typeName : packageName + "." + typeName;
+    }
+
+    //e.g. Outputs/Bank.java, always '/' separated
+    public String getRelativePath() {
+        return getQualifiedName().replace('.', '/') + ".java";
+    }
+
+    @Override
+    public String toString() {
+        return getQualifiedName();
+    }
+}
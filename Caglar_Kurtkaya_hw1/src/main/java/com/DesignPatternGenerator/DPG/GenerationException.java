@@ -0,0 +1,16 @@
+package com.DesignPatternGenerator.DPG;
+
+//Thrown when a pattern cannot be generated or written, e.g. a null package or an unwritable path.
+//DePaCoG records it in the request's PatternResult
+public class GenerationException extends RuntimeException {
+
+    private static final long serialVersionUID = 1L;
+
+    public GenerationException(String message){
+        super(message);
+    }
+
+    public GenerationException(String message, Throwable cause){
+        super(message, cause);
+    }
+}
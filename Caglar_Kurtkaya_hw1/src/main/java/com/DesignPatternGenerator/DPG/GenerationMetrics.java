@@ -0,0 +1,163 @@
+package com.DesignPatternGenerator.DPG;
+
+import javax.management.InstanceNotFoundException;
+import javax.management.JMException;
+import javax.management.ObjectName;
+import java.lang.management.ManagementFactory;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+
+//Default MetricsRecorder: counters and latency histograms per pattern and stage, readable over JMX
+public class GenerationMetrics implements MetricsRecorder, GenerationMetricsMXBean {
+
+    //Every registered instance gets its own name key, see registerMBean
+    public static final String OBJECT_NAME = "com.DesignPatternGenerator:type=GenerationMetrics";
+
+    private static final AtomicInteger instances = new AtomicInteger();
+
+    private static final String REQUEST = "REQUEST";
+
+    private final ConcurrentMap<String, LatencyHistogram> latencies = new ConcurrentHashMap<>();
+    private final ConcurrentMap<String, LongAdder> requestsByPattern = new ConcurrentHashMap<>();
+    private final LongAdder failures = new LongAdder();
+    private final LongAdder files = new LongAdder();
+    private final LongAdder bytes = new LongAdder();
+    private final LongAdder coalesced = new LongAdder();
+    private ObjectName objectName;
+
+    @Override
+    public void recordStage(String patternName, GenerationStage stage, long nanos) {
+        histogram(patternName + "." + stage.name()).record(nanos);
+    }
+
+    @Override
+    public void recordRequest(String patternName, int files, long bytes, long nanos, boolean success) {
+        requestsByPattern.computeIfAbsent(patternName, name -> new LongAdder()).increment();
+        histogram(patternName + "." + REQUEST).record(nanos);
+        this.files.add(files);
+        this.bytes.add(bytes);
+        if(!success){
+            failures.increment();
+        }
+    }
+
+    @Override
+    public void recordCoalesced(String patternName) {
+        coalesced.increment();
+    }
+
+    //Histogram of "<pattern>.<stage>", created on first use
+    public LatencyHistogram histogram(String key){
+        return latencies.computeIfAbsent(key, k -> new LatencyHistogram());
+    }
+
+    //Registers this instance with the platform MBean server as OBJECT_NAME,name=<n>, n is unique in the JVM
+    //so several DePaCoGs or a restarted daemon each expose their own metrics. Call unregisterMBean when done
+    public synchronized GenerationMetrics registerMBean(){
+        if(objectName != null){
+            return this;
+        }
+        try {
+            ObjectName name = new ObjectName(OBJECT_NAME + ",name=" + instances.incrementAndGet());
+            ManagementFactory.getPlatformMBeanServer().registerMBean(this, name);
+            objectName = name;
+        } catch (JMException ex){
+            throw new IllegalStateException("Cannot register " + OBJECT_NAME, ex);
+        }
+        return this;
+    }
+
+    //Removes this instance from the platform MBean server, does nothing when it is not registered
+    public synchronized void unregisterMBean(){
+        if(objectName == null){
+            return;
+        }
+        try {
+            ManagementFactory.getPlatformMBeanServer().unregisterMBean(objectName);
+        } catch (InstanceNotFoundException ex){
+            //already removed through the MBean server
+        } catch (JMException ex){
+            throw new IllegalStateException("Cannot unregister " + objectName, ex);
+        } finally {
+            objectName = null;
+        }
+    }
+
+    //The name this instance is registered under, null when it is not registered
+    public synchronized ObjectName getObjectName(){
+        return objectName;
+    }
+
+    //--------------------------------------------------------------------------------------
+    //GenerationMetricsMXBean
+
+    @Override
+    public long getRequestCount() {
+        long total = 0;
+        for(LongAdder count : requestsByPattern.values()){
+            total += count.sum();
+        }
+        return total;
+    }
+
+    @Override
+    public long getFailureCount() {
+        return failures.sum();
+    }
+
+    @Override
+    public long getFileCount() {
+        return files.sum();
+    }
+
+    @Override
+    public long getBytesWritten() {
+        return bytes.sum();
+    }
+
+    @Override
+    public long getCoalescedCount() {
+        return coalesced.sum();
+    }
+
+    @Override
+    public Map<String, Long> getRequestCountByPattern() {
+        Map<String, Long> counts = new TreeMap<>();
+        for(Map.Entry<String, LongAdder> entry : requestsByPattern.entrySet()){
+            counts.put(entry.getKey(), entry.getValue().sum());
+        }
+        return counts;
+    }
+
+    @Override
+    public Map<String, Double> getMeanLatencyMillis() {
+        Map<String, Double> means = new TreeMap<>();
+        for(Map.Entry<String, LatencyHistogram> entry : latencies.entrySet()){
+            means.put(entry.getKey(), entry.getValue().getMeanNanos() / 1_000_000.0);
+        }
+        return means;
+    }
+
+    @Override
+    public Map<String, Double> getP99LatencyMillis() {
+        Map<String, Double> p99 = new TreeMap<>();
+        for(Map.Entry<String, LatencyHistogram> entry : latencies.entrySet()){
+            p99.put(entry.getKey(), entry.getValue().getPercentileNanos(99) / 1_000_000.0);
+        }
+        return p99;
+    }
+
+    @Override
+    public void reset() {
+        latencies.clear();
+        requestsByPattern.clear();
+        failures.reset();
+        files.reset();
+        bytes.reset();
+        coalesced.reset();
+    }
+}
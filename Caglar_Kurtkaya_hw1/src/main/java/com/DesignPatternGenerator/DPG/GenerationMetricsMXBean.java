@@ -0,0 +1,27 @@
+package com.DesignPatternGenerator.DPG;
+
+import java.util.Map;
+
+//JMX view of GenerationMetrics, registered as com.DesignPatternGenerator:type=GenerationMetrics.
+//Latency maps are keyed by "<pattern>.<stage>", e.g. "AFDP.RENDER", or "<pattern>.REQUEST" for whole requests
+public interface GenerationMetricsMXBean {
+
+    long getRequestCount();
+
+    long getFailureCount();
+
+    long getFileCount();
+
+    long getBytesWritten();
+
+    //Requests that shared the work of an identical request in flight
+    long getCoalescedCount();
+
+    Map<String, Long> getRequestCountByPattern();
+
+    Map<String, Double> getMeanLatencyMillis();
+
+    Map<String, Double> getP99LatencyMillis();
+
+    void reset();
+}
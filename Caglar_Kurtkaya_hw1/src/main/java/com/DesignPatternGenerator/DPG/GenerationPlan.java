@@ -0,0 +1,116 @@
+package com.DesignPatternGenerator.DPG;
+
+import com.squareup.javapoet.JavaFile;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+//Collects the files of every request in a batch and merges them by qualified name,
+//so a type shared by several patterns(e.g. the product interface) is written exactly once.
+//Requests must be added in batch order: the first definition of a type wins and a later,
+//different definition of the same type is reported as a conflict and dropped.
+public class GenerationPlan {
+
+    //A file of the plan and the index of the request that contributed it.
+    //Files from a RenderCache come already rendered and have no JavaFile
+    public static final class PlannedFile {
+        private final String qualifiedName;
+        private final JavaFile javaFile;
+        private final int owner;
+        private volatile GeneratedSource source;
+
+        private PlannedFile(String qualifiedName, JavaFile javaFile, GeneratedSource source, int owner){
+            this.qualifiedName = qualifiedName;
+            this.javaFile = javaFile;
+            this.source = source;
+            this.owner = owner;
+        }
+
+        //null when the file came rendered
+        public JavaFile getJavaFile() {
+            return javaFile;
+        }
+
+        //null until the file is rendered
+        public GeneratedSource getSource() {
+            return source;
+        }
+
+        void setSource(GeneratedSource source) {
+            this.source = source;
+        }
+
+        public int getOwner() {
+            return owner;
+        }
+
+        public String getQualifiedName() {
+            return qualifiedName;
+        }
+
+        //Cached fragments are usually the very same spec, only render when they are not
+        private boolean sameAs(JavaFile otherFile, GeneratedSource otherSource){
+            if(javaFile != null && otherFile != null){
+                return javaFile.typeSpec == otherFile.typeSpec || javaFile.equals(otherFile);
+            }
+            String text = source != null ? source.getSource() : javaFile.toString();
+            return text.equals(otherSource != null ? otherSource.getSource() : otherFile.toString());
+        }
+    }
+
+    private final Map<String, PlannedFile> files = new LinkedHashMap<>();
+    private int duplicates;
+
+    //Adds the files of one request and returns a description of every conflicting type
+    public List<String> add(int owner, List<JavaFile> javaFiles){
+        List<String> conflicts = new ArrayList<>();
+        for(JavaFile javaFile : javaFiles){
+            add(owner, qualifiedName(javaFile), javaFile, null, conflicts);
+        }
+        return conflicts;
+    }
+
+    //Same as add for files that are already rendered
+    public List<String> addSources(int owner, List<GeneratedSource> sources){
+        List<String> conflicts = new ArrayList<>();
+        for(GeneratedSource source : sources){
+            add(owner, source.getQualifiedName(), null, source, conflicts);
+        }
+        return conflicts;
+    }
+
+    private void add(int owner, String name, JavaFile javaFile, GeneratedSource source, List<String> conflicts){
+        PlannedFile planned = files.get(name);
+        if(planned == null){
+            files.put(name, new PlannedFile(name, javaFile, source, owner));
+        }
+        else if(planned.sameAs(javaFile, source)){
+            duplicates++;
+        }
+        else {
+            conflicts.add(name + " is already defined differently by request #" + planned.owner);
+        }
+    }
+
+    //The planned file of a type, null when no request generates it
+    public PlannedFile get(String qualifiedName) {
+        return files.get(qualifiedName);
+    }
+
+    //Unique files, in the order they were first added
+    public List<PlannedFile> getFiles() {
+        return Collections.unmodifiableList(new ArrayList<>(files.values()));
+    }
+
+    //Number of identical files that were merged away
+    public int getDuplicates() {
+        return duplicates;
+    }
+
+    private static String qualifiedName(JavaFile javaFile){
+        return javaFile.packageName.isEmpty() ? javaFile.typeSpec.name : javaFile.packageName + "." + javaFile.typeSpec.name;
+    }
+}
@@ -0,0 +1,24 @@
+package com.DesignPatternGenerator.DPG;
+
+import java.util.Locale;
+
+//What the generated code is optimized for, set by "profile" in application.conf or per request
+public enum GenerationProfile {
+    //The textbook shape of every pattern
+    DEFAULT,
+    //Same types for hot paths: final classes, shared(flyweight) products, an immutable Builder product,
+    //a lock-free Mediator, an iterative Chain and a type switch Visitor
+    PERFORMANCE;
+
+    //Case-insensitive, returns null when the id is not a profile
+    public static GenerationProfile fromId(String id){
+        if(id == null){
+            return null;
+        }
+        try {
+            return valueOf(id.trim().toUpperCase(Locale.ROOT));
+        } catch (IllegalArgumentException ex){
+            return null;
+        }
+    }
+}
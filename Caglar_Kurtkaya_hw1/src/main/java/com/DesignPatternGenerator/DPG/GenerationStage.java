@@ -0,0 +1,8 @@
+package com.DesignPatternGenerator.DPG;
+
+//Stages of the generation pipeline timed by a MetricsRecorder
+public enum GenerationStage {
+    SPEC_BUILD,   //building the JavaPoet TypeSpecs of a request
+    RENDER,       //rendering a JavaFile to text, or every file of a request its emitter renders without JavaPoet
+    WRITE         //handing the text to the OutputSink
+}
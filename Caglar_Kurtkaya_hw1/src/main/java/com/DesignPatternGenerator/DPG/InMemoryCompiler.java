@@ -0,0 +1,120 @@
+package com.DesignPatternGenerator.DPG;
+
+import javax.tools.DiagnosticCollector;
+import javax.tools.FileObject;
+import javax.tools.ForwardingJavaFileManager;
+import javax.tools.JavaCompiler;
+import javax.tools.JavaFileManager;
+import javax.tools.JavaFileObject;
+import javax.tools.SimpleJavaFileObject;
+import javax.tools.StandardJavaFileManager;
+import javax.tools.ToolProvider;
+import java.io.ByteArrayOutputStream;
+import java.io.OutputStream;
+import java.net.URI;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.SortedMap;
+import java.util.TreeMap;
+
+//Compiles generated sources to class bytes without touching the disk.
+//A whole batch is compiled by one compiler invocation, and the compiler and its file manager
+//are kept for the life of the instance, so reuse one InMemoryCompiler for every batch.
+//
+//  InMemorySink sink = new InMemorySink();
+//  new DePaCoG().generateAll(requests, sink);
+//  ClassLoader loader = compiler.compileAndLoad(sink.toJavaFileObjects(), getClass().getClassLoader());
+public class InMemoryCompiler {
+
+    //Generated code needs no annotation processing, and must not run processors found on the classpath
+    private static final List<String> OPTIONS = Arrays.asList("-proc:none", "-g");
+
+    private final JavaCompiler compiler;
+    private final ClassFileManager fileManager;
+
+    public InMemoryCompiler(){
+        this.compiler = ToolProvider.getSystemJavaCompiler();
+        if(compiler == null){
+            throw new GenerationException("No system Java compiler, InMemoryCompiler needs to run on a JDK");
+        }
+        this.fileManager = new ClassFileManager(compiler.getStandardFileManager(null, null, StandardCharsets.UTF_8));
+    }
+
+    public SortedMap<String, byte[]> compile(InMemorySink sink){
+        return compile(sink.toJavaFileObjects());
+    }
+
+    //Binary class name -> class bytes, including nested classes.
+    //Throws GenerationException with the compiler's diagnostics when the batch does not compile
+    public synchronized SortedMap<String, byte[]> compile(Collection<? extends JavaFileObject> sources){
+        DiagnosticCollector<JavaFileObject> diagnostics = new DiagnosticCollector<>();
+        SortedMap<String, byte[]> classes = new TreeMap<>();
+        fileManager.begin();
+        try {
+            boolean ok = compiler.getTask(null, fileManager, diagnostics, OPTIONS, null, sources).call();
+            if(!ok){
+                throw new GenerationException("Generated sources do not compile: " + diagnostics.getDiagnostics());
+            }
+            for(Map.Entry<String, ByteArrayOutputStream> entry : fileManager.outputs.entrySet()){
+                classes.put(entry.getKey(), entry.getValue().toByteArray());
+            }
+        } finally {
+            fileManager.outputs = null;
+        }
+        return Collections.unmodifiableSortedMap(classes);
+    }
+
+    //Compiles the batch and defines its classes in a new loader on top of parent
+    public ClassLoader compileAndLoad(Collection<? extends JavaFileObject> sources, ClassLoader parent){
+        return new BytesClassLoader(compile(sources), parent);
+    }
+
+    //Routes class output of the current compilation to memory
+    private static final class ClassFileManager extends ForwardingJavaFileManager<StandardJavaFileManager> {
+        private Map<String, ByteArrayOutputStream> outputs;
+
+        ClassFileManager(StandardJavaFileManager standard){
+            super(standard);
+        }
+
+        void begin(){
+            outputs = new TreeMap<>();
+        }
+
+        @Override
+        public JavaFileObject getJavaFileForOutput(JavaFileManager.Location location, String className,
+                                                   JavaFileObject.Kind kind, FileObject sibling) {
+            ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+            outputs.put(className, bytes);
+            return new SimpleJavaFileObject(URI.create("mem:///" + className.replace('.', '/') + kind.extension), kind) {
+                @Override
+                public OutputStream openOutputStream() {
+                    return bytes;
+                }
+            };
+        }
+    }
+
+    //Defines classes from the compiled bytes on first use
+    private static final class BytesClassLoader extends ClassLoader {
+        private final Map<String, byte[]> classes;
+
+        BytesClassLoader(Map<String, byte[]> classes, ClassLoader parent){
+            super(parent);
+            this.classes = classes;
+        }
+
+        @Override
+        protected Class<?> findClass(String name) throws ClassNotFoundException {
+            byte[] bytes = classes.get(name);
+            if(bytes == null){
+                throw new ClassNotFoundException(name);
+            }
+            return defineClass(name, bytes, 0, bytes.length);
+        }
+    }
+}
@@ -0,0 +1,57 @@
+package com.DesignPatternGenerator.DPG;
+
+import javax.tools.JavaFileObject;
+import javax.tools.SimpleJavaFileObject;
+import java.net.URI;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.SortedMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+
+//Keeps the generated files in memory, keyed by qualified name
+public class InMemorySink implements OutputSink {
+
+    private final ConcurrentSkipListMap<String, GeneratedSource> sources = new ConcurrentSkipListMap<>();
+
+    @Override
+    public void write(GeneratedSource source) {
+        sources.put(source.getQualifiedName(), source);
+    }
+
+    //qualified name -> source text, sorted by qualified name
+    public SortedMap<String, String> getSources() {
+        SortedMap<String, String> texts = new ConcurrentSkipListMap<>();
+        for(Map.Entry<String, GeneratedSource> entry : sources.entrySet()){
+            texts.put(entry.getKey(), entry.getValue().getSource());
+        }
+        return Collections.unmodifiableSortedMap(texts);
+    }
+
+    public List<GeneratedSource> getGeneratedSources() {
+        return new ArrayList<>(sources.values());
+    }
+
+    //Source file objects that can be handed straight to javax.tools.JavaCompiler
+    public List<JavaFileObject> toJavaFileObjects() {
+        List<JavaFileObject> objects = new ArrayList<>(sources.size());
+        for(GeneratedSource source : sources.values()){
+            objects.add(new SimpleJavaFileObject(URI.create("string:///" + source.getRelativePath()), JavaFileObject.Kind.SOURCE) {
+                @Override
+                public CharSequence getCharContent(boolean ignoreEncodingErrors) {
+                    return source.getSource();
+                }
+            });
+        }
+        return objects;
+    }
+
+    public int size() {
+        return sources.size();
+    }
+
+    public void clear() {
+        sources.clear();
+    }
+}
@@ -0,0 +1,163 @@
+package com.DesignPatternGenerator.DPG;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+
+//Directory sink that only writes files whose content changed, so mtimes of unchanged files stay put
+//and Gradle only recompiles what really changed.
+//A SHA-256 of every file is kept in a manifest(.dpg-manifest) under the root. When prune is on,
+//files listed in the previous manifest but not generated by this run are deleted on close().
+public class IncrementalSink implements OutputSink {
+
+    public static final String MANIFEST_NAME = ".dpg-manifest";
+
+    private final DirectorySink target;
+    private final Path manifestFile;
+    private final boolean prune;
+    private final Map<String, String> previous;
+    private final Map<String, String> current = new ConcurrentHashMap<>();
+    private final AtomicInteger written = new AtomicInteger();
+    private final AtomicInteger skipped = new AtomicInteger();
+    private final AtomicInteger deleted = new AtomicInteger();
+
+    private static final Logger logger = LoggerFactory.getLogger("IncrementalSink");
+
+    public IncrementalSink(Path root) throws IOException {
+        this(root, false);
+    }
+
+    public IncrementalSink(Path root, boolean prune) throws IOException {
+        this.target = new DirectorySink(root);
+        this.manifestFile = root.resolve(MANIFEST_NAME);
+        this.prune = prune;
+        this.previous = readManifest(manifestFile);
+    }
+
+    @Override
+    public void write(GeneratedSource source) throws IOException {
+        writeCounted(source);
+    }
+
+    //An unchanged file is not written and counts 0 bytes
+    @Override
+    public long writeCounted(GeneratedSource source) throws IOException {
+        byte[] bytes = source.getSource().getBytes(StandardCharsets.UTF_8);
+        String hash = sha256(bytes);
+        current.put(source.getRelativePath(), hash);
+
+        Path file = target.resolve(source);
+        if(isUpToDate(file, source.getRelativePath(), hash, bytes.length)){
+            skipped.incrementAndGet();
+            return 0;
+        }
+        target.write(file, ByteBuffer.wrap(bytes));
+        written.incrementAndGet();
+        return bytes.length;
+    }
+
+    //Trusts the manifest when the file still has the recorded size, otherwise hashes what is on disk
+    private boolean isUpToDate(Path file, String relativePath, String hash, long size) throws IOException {
+        if(!Files.isRegularFile(file) || Files.size(file) != size){
+            return false;
+        }
+        if(hash.equals(previous.get(relativePath))){
+            return true;
+        }
+        return hash.equals(sha256(Files.readAllBytes(file)));
+    }
+
+    //Deletes stale files(prune only) and saves the manifest
+    @Override
+    public void close() throws IOException {
+        Map<String, String> manifest = new TreeMap<>(current);
+        if(prune){
+            for(String relativePath : previous.keySet()){
+                if(!current.containsKey(relativePath)
+                        && Files.deleteIfExists(target.getRoot().resolve(relativePath))){
+                    deleted.incrementAndGet();
+                }
+            }
+        } else {
+            for(Map.Entry<String, String> entry : previous.entrySet()){
+                manifest.putIfAbsent(entry.getKey(), entry.getValue());
+            }
+        }
+        writeManifest(manifest);
+        logger.info("Incremental generation finished: {}", this);
+    }
+
+    public int getWritten() {
+        return written.get();
+    }
+
+    public int getSkipped() {
+        return skipped.get();
+    }
+
+    public int getDeleted() {
+        return deleted.get();
+    }
+
+    @Override
+    public String toString() {
+        return "written=" + getWritten() + " skipped=" + getSkipped() + " deleted=" + getDeleted();
+    }
+
+    //-----------------------------------------------------------------------------------
+    //Manifest, one "<sha256> <relative path>" line per file
+
+    private static Map<String, String> readManifest(Path manifestFile) throws IOException {
+        Map<String, String> manifest = new HashMap<>();
+        if(!Files.isRegularFile(manifestFile)){
+            return manifest;
+        }
+        for(String line : Files.readAllLines(manifestFile, StandardCharsets.UTF_8)){
+            int space = line.indexOf(' ');
+            if(space > 0){
+                manifest.put(line.substring(space + 1), line.substring(0, space));
+            }
+        }
+        return manifest;
+    }
+
+    //Written next to the manifest and moved over it, a crash never leaves a half-written manifest
+    private void writeManifest(Map<String, String> manifest) throws IOException {
+        List<String> lines = new ArrayList<>(manifest.size());
+        for(Map.Entry<String, String> entry : manifest.entrySet()){
+            lines.add(entry.getValue() + " " + entry.getKey());
+        }
+        Files.createDirectories(manifestFile.getParent());
+        Path tmp = manifestFile.resolveSibling(MANIFEST_NAME + ".tmp");
+        Files.write(tmp, lines, StandardCharsets.UTF_8);
+        Files.move(tmp, manifestFile, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+    }
+
+    static String sha256(byte[] bytes){
+        try {
+            byte[] digest = MessageDigest.getInstance("SHA-256").digest(bytes);
+            StringBuilder hex = new StringBuilder(digest.length * 2);
+            for(byte b : digest){
+                hex.append(Character.forDigit((b >> 4) & 0xF, 16)).append(Character.forDigit(b & 0xF, 16));
+            }
+            return hex.toString();
+        } catch (NoSuchAlgorithmException ex){
+            throw new IllegalStateException("SHA-256 is not available", ex);
+        }
+    }
+}
@@ -0,0 +1,22 @@
+package com.DesignPatternGenerator.DPG;
+
+import java.util.Collections;
+import java.util.List;
+
+//Thrown before any generation work when a request has invalid names or misses a required field
+public class InvalidRequestException extends GenerationException {
+
+    private static final long serialVersionUID = 1L;
+
+    private final List<String> problems;
+
+    public InvalidRequestException(String subject, List<String> problems){
+        super("Invalid request " + subject + ": " + String.join("; ", problems));
+        this.problems = Collections.unmodifiableList(problems);
+    }
+
+    //Every problem found, e.g. "className 'class' is a reserved word"
+    public List<String> getProblems() {
+        return problems;
+    }
+}
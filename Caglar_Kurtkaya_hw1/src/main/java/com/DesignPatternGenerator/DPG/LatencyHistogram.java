@@ -0,0 +1,60 @@
+package com.DesignPatternGenerator.DPG;
+
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAdder;
+
+//Lock-free latency histogram with power-of-two nanosecond buckets.
+//Bucket i counts values in [2^i, 2^(i+1)), so percentiles are accurate to a factor of two
+public class LatencyHistogram {
+
+    private static final int BUCKETS = 64;
+
+    private final AtomicLongArray buckets = new AtomicLongArray(BUCKETS);
+    private final LongAdder count = new LongAdder();
+    private final LongAdder sum = new LongAdder();
+
+    public void record(long nanos){
+        long value = Math.max(nanos, 1);
+        buckets.incrementAndGet(63 - Long.numberOfLeadingZeros(value));
+        count.increment();
+        sum.add(value);
+    }
+
+    public long getCount() {
+        return count.sum();
+    }
+
+    public long getTotalNanos() {
+        return sum.sum();
+    }
+
+    public double getMeanNanos() {
+        long n = getCount();
+        return n == 0 ? 0 : (double) getTotalNanos() / n;
+    }
+
+    //Upper bound of the bucket holding the given percentile(0-100), 0 when nothing was recorded
+    public long getPercentileNanos(double percentile){
+        long n = getCount();
+        if(n == 0){
+            return 0;
+        }
+        long rank = (long) Math.ceil(n * percentile / 100.0);
+        long seen = 0;
+        for(int i = 0; i < BUCKETS; i++){
+            seen += buckets.get(i);
+            if(seen >= rank){
+                return i == 62 ? Long.MAX_VALUE : (1L << (i + 1)) - 1;
+            }
+        }
+        return Long.MAX_VALUE;
+    }
+
+    public void reset(){
+        for(int i = 0; i < BUCKETS; i++){
+            buckets.set(i, 0);
+        }
+        count.reset();
+        sum.reset();
+    }
+}
@@ -0,0 +1,28 @@
+package com.DesignPatternGenerator.DPG;
+
+//Receives timings and counts from DePaCoG, implement it to forward them to your own metrics system.
+//Implementations are called from many worker threads at once and must be thread-safe
+public interface MetricsRecorder {
+
+    //Records nothing
+    MetricsRecorder NOOP = new MetricsRecorder() {
+        @Override
+        public void recordStage(String patternName, GenerationStage stage, long nanos) {
+        }
+
+        @Override
+        public void recordRequest(String patternName, int files, long bytes, long nanos, boolean success) {
+        }
+    };
+
+    //Called once per stage execution, RENDER and WRITE once per file(RENDER once per request its emitter renders)
+    void recordStage(String patternName, GenerationStage stage, long nanos);
+
+    //Called once per request when it is finished
+    void recordRequest(String patternName, int files, long bytes, long nanos, boolean success);
+
+    //Called when a request shares the work of an identical request in flight instead of doing it again.
+    //A coalesced single request is not recorded by recordRequest, the request it joined is
+    default void recordCoalesced(String patternName) {
+    }
+}
@@ -0,0 +1,23 @@
+package com.DesignPatternGenerator.DPG;
+
+import java.io.Closeable;
+import java.io.IOException;
+
+//Destination of generated files. Implementations must be thread-safe,
+//DePaCoG.generateAll writes to one sink from many workers
+public interface OutputSink extends Closeable {
+
+    void write(GeneratedSource source) throws IOException;
+
+    //Writes source and returns the bytes written, 0 when the sink skipped it(e.g. an unchanged file of IncrementalSink).
+    //Sinks that store the source as UTF-8, which is all of them, count its encoded length
+    default long writeCounted(GeneratedSource source) throws IOException {
+        write(source);
+        return source.getUtf8Length();
+    }
+
+    //Flushes and releases the sink, nothing to do for most sinks
+    @Override
+    default void close() throws IOException {
+    }
+}
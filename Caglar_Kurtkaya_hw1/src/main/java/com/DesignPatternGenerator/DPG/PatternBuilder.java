@@ -7,28 +7,63 @@ import org.slf4j.LoggerFactory;
 
 import javax.lang.model.element.Modifier;
 import java.io.IOException;
-import java.nio.file.Paths;
 import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
 import java.util.Iterator;
 import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Supplier;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
 
 public class PatternBuilder implements PatternGenerator {
 
-    private String patternName;
-    private String className;
-    private String productType;
-    private String productName;
-    private String packName;
+    private final String patternName;
+    private final PatternType patternType;
+    private final String className;
+    private final String productType;
+    private final String productName;
+    private final String packName;
+    private final FragmentCache fragmentCache;
+    private final Configs configs;
+    private final GenerationProfile profile;
+    private final SourceEmitter emitter;
 
     private static final Logger logger = LoggerFactory.getLogger("PatternBuilder");
 
+    //Chains and visitors with at least this many receivers or elements build them in parallel
+    private static final int PARALLEL_TYPES = 64;
+    //Receivers linked by one method of the generated chain factory
+    private static final int LINKS_PER_METHOD = 500;
+    //Type switch dispatch: element kind field and constant, the dispatch method and the cases per switch
+    private static final String KIND_FIELD = "kind";
+    private static final String KIND_CONSTANT = "KIND";
+    private static final String DISPATCH_METHOD = "dispatch";
+    private static final int CASES_PER_METHOD = 256;
+    //Performance profile: the shared product constant, the mediator's action map and the receivers' handle method
+    private static final String PRODUCT_CONSTANT = "PRODUCT";
+    private static final String ACTIONS_FIELD = "actions";
+    private static final String HANDLE_METHOD = "handle";
+
 
     private PatternBuilder(pBuilder myBuilder){
         this.patternName = myBuilder.patterName;
+        this.patternType = PatternType.fromId(myBuilder.patterName);
         this.className = myBuilder.className;
         this.productName = myBuilder.productName;
         this.productType = myBuilder.productType;
         this.packName = myBuilder.packName;
+        this.fragmentCache = myBuilder.fragmentCache;
+        this.configs = myBuilder.configs != null ? myBuilder.configs : Configs.current();
+        this.profile = myBuilder.profile != null ? myBuilder.profile : GenerationProfile.fromId(configs.profile());
+        if(profile == null){
+            throw new GenerationException("Unknown profile '" + configs.profile() + "'");
+        }
+        this.emitter = myBuilder.emitter != null ? myBuilder.emitter : SourceEmitter.fromId(configs.emitter());
+        if(emitter == null){
+            throw new GenerationException("Unknown emitter '" + configs.emitter() + "'");
+        }
 
     }
 
@@ -42,6 +77,10 @@ public class PatternBuilder implements PatternGenerator {
         private  String productType;
         private String productName;
         private String packName;
+        private FragmentCache fragmentCache = FragmentCache.shared();
+        private Configs configs;
+        private GenerationProfile profile;
+        private SourceEmitter emitter;
 
 
         public pBuilder(String patterName, String className){
@@ -62,18 +101,75 @@ public class PatternBuilder implements PatternGenerator {
             return this;
         }
 
+        //null turns fragment caching off
+        public pBuilder withFragmentCache(FragmentCache fragmentCache){
+            this.fragmentCache = fragmentCache;
+            return this;
+        }
+
+        //Config snapshot to generate with, Configs.current() when not set
+        public pBuilder withConfigs(Configs configs){
+            this.configs = configs;
+            return this;
+        }
+
+        //Profile to generate for, the profile key of the configs when not set
+        public pBuilder withProfile(GenerationProfile profile){
+            this.profile = profile;
+            return this;
+        }
+
+        //Emitter to render with, the emitter key of the configs when not set
+        public pBuilder withEmitter(SourceEmitter emitter){
+            this.emitter = emitter;
+            return this;
+        }
+
+        //Throws InvalidRequestException for an unknown pattern or invalid names, before anything is generated
         public PatternBuilder build(){
+            List<String> problems = PatternRequest.problems(patterName, className, productType, productName, packName);
+            if(patterName != null && !patterName.trim().isEmpty() && PatternType.fromId(patterName) == null){
+                problems.add("unknown pattern '" + patterName + "'");
+            }
+            if(!problems.isEmpty()){
+                throw new InvalidRequestException(patterName + "(" + packName + "." + className + ")", problems);
+            }
             return new PatternBuilder(this);
         }
 
     }//End of inner class
 
+    //Builds a PatternBuilder for the given request
+    public static PatternBuilder fromRequest(PatternRequest request){
+        return fromRequest(request, FragmentCache.shared());
+    }
+
+    //Same as fromRequest(request) with its own fragment cache, null turns caching off
+    public static PatternBuilder fromRequest(PatternRequest request, FragmentCache fragmentCache){
+        return fromRequest(request, fragmentCache, Configs.current());
+    }
+
+    //Same as fromRequest(request, fragmentCache) on top of the given config snapshot instead of Configs.current()
+    public static PatternBuilder fromRequest(PatternRequest request, FragmentCache fragmentCache, Configs configs){
+        return new pBuilder(request.getPatternName(), request.getClassName())
+                .withProductType(request.getProductType())
+                .withProductName(request.getProductName())
+                .withPackName(request.getPackName())
+                .withFragmentCache(fragmentCache)
+                .withConfigs(configs.withOverrides(request.getConfigOverrides()))
+                .build();
+    }
+
     //--------------------------------------------------------------------------------------
     //Getters
     public String getPatternName() {
         return patternName;
     }
 
+    public PatternType getPatternType() {
+        return patternType;
+    }
+
     public String getClassName() {
         return className;
     }
@@ -90,6 +186,32 @@ public class PatternBuilder implements PatternGenerator {
         return packName;
     }
 
+    public Configs getConfigs() {
+        return configs;
+    }
+
+    public GenerationProfile getProfile() {
+        return profile;
+    }
+
+    public SourceEmitter getEmitter() {
+        return emitter;
+    }
+
+    private boolean performance(){
+        return profile == GenerationProfile.PERFORMANCE;
+    }
+
+    //The modifiers, plus final in the performance profile so calls on the class can be devirtualized
+    private Modifier[] finalInPerformance(Modifier... modifiers){
+        if(!performance()){
+            return modifiers;
+        }
+        Modifier[] withFinal = Arrays.copyOf(modifiers, modifiers.length + 1);
+        withFinal[modifiers.length] = Modifier.FINAL;
+        return withFinal;
+    }
+
     //--------------------------------------------------------------------------------------
     /*Abstract Factory
         Groups object factories that have a common theme.
@@ -97,92 +219,114 @@ public class PatternBuilder implements PatternGenerator {
 
     //Generates an Interface for Product
     //Product name is set by the Client(user input) @productType
-    private void generateProductInterface(){
+    private TypeSpec generateProductInterface(){
         TypeSpec intrFace = TypeSpec.interfaceBuilder(productType)
                 .addModifiers(Modifier.PUBLIC)
-                .addMethod(MethodSpec.methodBuilder(Configs.methodGetName)
+                .addMethod(MethodSpec.methodBuilder(configs.abstractFactory().methodGetName)
                         .returns(String.class)
                         .addModifiers(Modifier.PUBLIC, Modifier.ABSTRACT)
                         .build())
                 .build();
 
-        logger.debug("Product Interface: productType = {}", productType);
-        logger.info("Product interface generated with -> productType = {}", productType);
-        logger.info("Product interface generated with -> methodGetName = {}", Configs.methodGetName);
+        if(logger.isDebugEnabled()){
+            logger.debug("Product Interface: productType = {}", productType);
+            logger.debug("Product interface generated with -> productType = {}", productType);
+            logger.debug("Product interface generated with -> methodGetName = {}", configs.abstractFactory().methodGetName);
+        }
 
 
 
-        buildJavaFile(packName, intrFace);
+        return intrFace;
 
     }
 
     //Generates an AbstractFactory Interface
-    private void generateAbstractFactoryInterface(){
+    private TypeSpec generateAbstractFactoryInterface(){
         //Get the ProductInterface as a class
         ClassName prInterface = ClassName.get(packName, productType);
 
 
         //Create AbstractFactory interface
-        TypeSpec intrFace = TypeSpec.interfaceBuilder(Configs.abstractInterfaceName)
+        TypeSpec intrFace = TypeSpec.interfaceBuilder(configs.abstractFactory().abstractInterfaceName)
                 .addModifiers(Modifier.PUBLIC)
-                .addMethod(MethodSpec.methodBuilder(Configs.methodCreate + productType)
+                .addMethod(MethodSpec.methodBuilder(configs.abstractFactory().methodCreate + productType)
                         .returns(prInterface)
                         .addModifiers(Modifier.PUBLIC, Modifier.ABSTRACT)
                         .build())
                 .build();
 
-        logger.debug("Abstract Factory Interface: productType = {}", productType);
-        logger.info("AbstractFactory Interface generated with -> methodGetName = {}", Configs.methodCreate + productType);
-        logger.info("AbstractFactory Interface has a method with the return type -> {}", productType);
+        if(logger.isDebugEnabled()){
+            logger.debug("Abstract Factory Interface: productType = {}", productType);
+            logger.debug("AbstractFactory Interface generated with -> methodGetName = {}", configs.abstractFactory().methodCreate + productType);
+            logger.debug("AbstractFactory Interface has a method with the return type -> {}", productType);
+        }
 
 
 
-        buildJavaFile(packName,intrFace);
+        return intrFace;
 
     }
 
     //Generates a Factory class which implements the AbstractFactory interface
     //User defines className, productType, productName, packName
-    private void generateFactory(){
+    private TypeSpec generateFactory(){
         ClassName prInterface = ClassName.get(packName, productType);
         ClassName productClass = ClassName.get(packName, productName);
-        ClassName abstractInterface = ClassName.get(packName, Configs.abstractInterfaceName);
+        ClassName abstractInterface = ClassName.get(packName, configs.abstractFactory().abstractInterfaceName);
+
+        TypeSpec.Builder factoryBuilder = TypeSpec.classBuilder(className)
+                .addModifiers(finalInPerformance(Modifier.PUBLIC));
+        MethodSpec.Builder create = MethodSpec.methodBuilder(configs.abstractFactory().methodCreate + productType)
+                .returns(prInterface)
+                .addAnnotation(Override.class);
+        if(performance()){
+            //Products are stateless, one shared instance(flyweight) serves every call
+            factoryBuilder.addField(sharedProduct(prInterface, productClass));
+            create.addJavadoc("Returns the shared $T, products are stateless.\n", productClass)
+                    .addStatement("return $N", PRODUCT_CONSTANT);
+        }
+        else {
+            create.addStatement("return new $T()", productClass);
+        }
 
-        TypeSpec factoryClass = TypeSpec.classBuilder(className)
-                .addModifiers(Modifier.PUBLIC)
-                .addMethod(MethodSpec.methodBuilder(Configs.methodCreate + productType)
-                        .returns(prInterface)
-                        .addAnnotation(Override.class)
-                        .addStatement("return new $T()", productClass)
-                        .addModifiers(Modifier.PUBLIC)
-                        .build())
+        TypeSpec factoryClass = factoryBuilder
+                .addMethod(create.addModifiers(Modifier.PUBLIC).build())
                 .addSuperinterface(abstractInterface)
                 .build();
 
-        logger.debug("Factory Class: className = {}", className);
-        logger.debug("Factory Class: productType = {}", productType);
-        logger.debug("Factory Class: productName = {}", productName);
+        if(logger.isDebugEnabled()){
+            logger.debug("Factory Class: className = {}", className);
+            logger.debug("Factory Class: productType = {}", productType);
+            logger.debug("Factory Class: productName = {}", productName);
 
-        logger.info("Factory Class generated with -> methodGetName = {}", Configs.methodCreate + productType);
-        logger.info("Factory Class has a method({}) with the return type -> {}", Configs.methodCreate + productType,  productType);
-        logger.info("Factory Class implements -> {}", Configs.abstractInterfaceName);
+            logger.debug("Factory Class generated with -> methodGetName = {}", configs.abstractFactory().methodCreate + productType);
+            logger.debug("Factory Class has a method({}) with the return type -> {}", configs.abstractFactory().methodCreate + productType,  productType);
+            logger.debug("Factory Class implements -> {}", configs.abstractFactory().abstractInterfaceName);
+        }
 
 
 
 
-        buildJavaFile(packName,factoryClass);
+        return factoryClass;
 
     }
 
 
 
+    //private static final Bank PRODUCT = new Chase();
+    private FieldSpec sharedProduct(ClassName prInterface, ClassName productClass){
+        return FieldSpec.builder(prInterface, PRODUCT_CONSTANT, Modifier.PRIVATE, Modifier.STATIC, Modifier.FINAL)
+                .initializer("new $T()", productClass)
+                .build();
+    }
+
     //Generates a Product Class which implements Product Interface
-    private void generateProduct(){
+    private TypeSpec generateProduct(){
         ClassName prInterface = ClassName.get(packName, productType);
 
         TypeSpec productClass = TypeSpec.classBuilder(productName)
-                .addModifiers(Modifier.PUBLIC)
-                .addMethod(MethodSpec.methodBuilder(Configs.methodGetName)
+                .addModifiers(finalInPerformance(Modifier.PUBLIC))
+                .addMethod(MethodSpec.methodBuilder(configs.abstractFactory().methodGetName)
                         .returns(String.class)
                         .addAnnotation(Override.class)
                         .addStatement("return $S", productName)
@@ -192,15 +336,17 @@ public class PatternBuilder implements PatternGenerator {
                 .build();
 
 
-        logger.debug("Product Class: productType = {}", productType);
-        logger.debug("Product Class: productName = {}", productName);
+        if(logger.isDebugEnabled()){
+            logger.debug("Product Class: productType = {}", productType);
+            logger.debug("Product Class: productName = {}", productName);
 
-        logger.info("Product Class generated with -> methodGetName = {}", Configs.methodGetName);
-        logger.info("Product Class has a method({}) with the return type -> {}", Configs.methodGetName, String.class.getSimpleName());
-        logger.info("Product Class implements -> {}", prInterface);
+            logger.debug("Product Class generated with -> methodGetName = {}", configs.abstractFactory().methodGetName);
+            logger.debug("Product Class has a method({}) with the return type -> {}", configs.abstractFactory().methodGetName, String.class.getSimpleName());
+            logger.debug("Product Class implements -> {}", prInterface);
+        }
 
 
-        buildJavaFile(packName, productClass);
+        return productClass;
 
 
 
@@ -212,108 +358,186 @@ public class PatternBuilder implements PatternGenerator {
      */
 
     //Generates a ComplexObject Class
-    private void generateComplexObject() {
+    private TypeSpec generateComplexObject(){
+        if(performance()){
+            return generateImmutableComplexObject();
+        }
 
-        FieldSpec field = FieldSpec.builder(ParameterizedTypeName.get(ClassName.get(List.class), ClassName.get(packName, productType)) , Configs.variableChildren)
+        FieldSpec field = FieldSpec.builder(ParameterizedTypeName.get(ClassName.get(List.class), ClassName.get(packName, productType)) , configs.builder().variableChildren)
                 .addModifiers(Modifier.PRIVATE)
                 .initializer("new $T()", ParameterizedTypeName.get(ClassName.get(ArrayList.class), ClassName.get(packName, productType)))
                 .build();
 
         TypeSpec complexClass = TypeSpec.classBuilder(className)
                 .addField(field)
-                .addMethod(MethodSpec.methodBuilder(Configs.methodAdd)
+                .addMethod(MethodSpec.methodBuilder(configs.builder().methodAdd)
                         .returns(boolean.class)
-                        .addParameter(ClassName.get(packName,productType), Configs.variableChild)
-                        .addStatement("return $N.add($N)", Configs.variableChildren, Configs.variableChild)
+                        .addParameter(ClassName.get(packName,productType), configs.builder().variableChild)
+                        .addStatement("return $N.add($N)", configs.builder().variableChildren, configs.builder().variableChild)
                         .addModifiers(Modifier.PUBLIC)
                         .build())
-                .addMethod(MethodSpec.methodBuilder(Configs.methodIterator)
+                .addMethod(MethodSpec.methodBuilder(configs.builder().methodIterator)
                         .returns(ParameterizedTypeName.get(ClassName.get(Iterator.class),ClassName.get(packName,productType)))
-                        .addStatement("return $N.$N()", Configs.variableChildren, Configs.methodIterator)
+                        .addStatement("return $N.$N()", configs.builder().variableChildren, configs.builder().methodIterator)
                         .addModifiers(Modifier.PUBLIC)
                         .build())
                 .build();
 
-        logger.debug("ComplexObject Class: className = {}", className);
-        logger.debug("ComplexObject Class: productType = {}", productType);
-        logger.debug("ComplexObject Class: packName = {}", packName);
+        if(logger.isDebugEnabled()){
+            logger.debug("ComplexObject Class: className = {}", className);
+            logger.debug("ComplexObject Class: productType = {}", productType);
+            logger.debug("ComplexObject Class: packName = {}", packName);
 
-        logger.info("ComplexObject Class generated with -> methodGetName = {}", Configs.methodAdd);
-        logger.info("ComplexObject Class has a method({}) with the return type -> {}", Configs.methodAdd, boolean.class.getSimpleName());
-        logger.info("ComplexObject Class generated with -> methodGetName = {}", Configs.methodIterator);
-        logger.info("ComplexObject Class has a method({}) with the return type -> {}", Configs.methodIterator, ClassName.get(Iterator.class));
+            logger.debug("ComplexObject Class generated with -> methodGetName = {}", configs.builder().methodAdd);
+            logger.debug("ComplexObject Class has a method({}) with the return type -> {}", configs.builder().methodAdd, boolean.class.getSimpleName());
+            logger.debug("ComplexObject Class generated with -> methodGetName = {}", configs.builder().methodIterator);
+            logger.debug("ComplexObject Class has a method({}) with the return type -> {}", configs.builder().methodIterator, ClassName.get(Iterator.class));
+        }
 
 
-        buildJavaFile(packName, complexClass);
+        return complexClass;
 
 
     }
 
+    //Performance profile ComplexObject: immutable, its final children list is a copy made by the constructor
+    //and there is no add method, so a built object can be shared between threads without locking
+    private TypeSpec generateImmutableComplexObject(){
+        ClassName product = ClassName.get(packName, productType);
+        TypeName children = ParameterizedTypeName.get(ClassName.get(List.class), product);
+        String variableChildren = configs.builder().variableChildren;
+
+        TypeSpec complexClass = TypeSpec.classBuilder(className)
+                .addModifiers(Modifier.PUBLIC, Modifier.FINAL)
+                .addField(FieldSpec.builder(children, variableChildren)
+                        .addModifiers(Modifier.PRIVATE, Modifier.FINAL)
+                        .build())
+                .addMethod(MethodSpec.constructorBuilder()
+                        .addModifiers(Modifier.PUBLIC)
+                        .addParameter(children, variableChildren)
+                        .addStatement("this.$N = $T.unmodifiableList(new $T<>($N))", variableChildren, Collections.class, ArrayList.class, variableChildren)
+                        .build())
+                .addMethod(MethodSpec.methodBuilder(configs.builder().methodIterator)
+                        .returns(ParameterizedTypeName.get(ClassName.get(Iterator.class), product))
+                        .addStatement("return $N.$N()", variableChildren, configs.builder().methodIterator)
+                        .addModifiers(Modifier.PUBLIC)
+                        .build())
+                .build();
+
+        if(logger.isDebugEnabled()){
+            logger.debug("Immutable ComplexObject Class: className = {}, productType = {}", className, productType);
+        }
+
+        return complexClass;
+    }
+
     //Generates a Builder Interface
-    private void generateBuilderInterface(){
+    private TypeSpec generateBuilderInterface(){
 
-        TypeSpec intrFace = TypeSpec.interfaceBuilder(Configs.interfaceBuilder)
+        TypeSpec intrFace = TypeSpec.interfaceBuilder(configs.builder().interfaceBuilder)
                 .addModifiers(Modifier.PUBLIC)
-                .addMethod(MethodSpec.methodBuilder(Configs.methodBuildPartA)
+                .addMethod(MethodSpec.methodBuilder(configs.builder().methodBuildPartA)
                         .returns(TypeName.VOID)
                         .addModifiers(Modifier.PUBLIC, Modifier.ABSTRACT)
                         .build())
-                .addMethod(MethodSpec.methodBuilder(Configs.methodGetResult)
+                .addMethod(MethodSpec.methodBuilder(configs.builder().methodGetResult)
                         .returns(ClassName.get(packName,className))
                         .addModifiers(Modifier.PUBLIC, Modifier.ABSTRACT)
                         .build())
                 .build();
 
-        logger.debug("BuilderInterface: className = {}", Configs.interfaceBuilder);
+        if(logger.isDebugEnabled()){
+            logger.debug("BuilderInterface: className = {}", configs.builder().interfaceBuilder);
 
-        logger.info("BuilderInterface generated with -> methodBuildPartA = {}", Configs.methodBuildPartA);
-        logger.info("BuilderInterface has a method({}) with the return type -> {}", Configs.methodBuildPartA, TypeName.VOID);
-        logger.info("BuilderInterface generated with -> methodGetResult = {}", Configs.methodGetResult);
-        logger.info("BuilderInterface has a method({}) with the return type -> {}", Configs.methodGetResult,  ClassName.get(packName,className));
+            logger.debug("BuilderInterface generated with -> methodBuildPartA = {}", configs.builder().methodBuildPartA);
+            logger.debug("BuilderInterface has a method({}) with the return type -> {}", configs.builder().methodBuildPartA, TypeName.VOID);
+            logger.debug("BuilderInterface generated with -> methodGetResult = {}", configs.builder().methodGetResult);
+            logger.debug("BuilderInterface has a method({}) with the return type -> {}", configs.builder().methodGetResult,  ClassName.get(packName,className));
+        }
 
-        buildJavaFile(packName, intrFace);
+        return intrFace;
 
     }
 
     //Generates a concrete Builder1 class which implements Builder interface
-    private void generateBuilderClass(){
+    private TypeSpec generateBuilderClass(){
+        if(performance()){
+            return generateImmutableBuilderClass();
+        }
 
-        FieldSpec field = FieldSpec.builder(ClassName.get(packName, className) ,Configs.fieldCo)
+        FieldSpec field = FieldSpec.builder(ClassName.get(packName, className) ,configs.builder().fieldCo)
                 .addModifiers(Modifier.PRIVATE)
                 .initializer("new $T()", ClassName.get(packName, className))
                 .build();
 
-        TypeSpec builderClass = TypeSpec.classBuilder(Configs.classBuilder1)
+        TypeSpec builderClass = TypeSpec.classBuilder(configs.builder().classBuilder1)
                 .addField(field)
                 .addModifiers(Modifier.PUBLIC)
-                .addMethod(MethodSpec.methodBuilder(Configs.methodBuildPartA)
+                .addMethod(MethodSpec.methodBuilder(configs.builder().methodBuildPartA)
                         .returns(TypeName.VOID)
-                        .addStatement("$N.add(new $T())", Configs.fieldCo, ClassName.get(packName, productName))
+                        .addStatement("$N.add(new $T())", configs.builder().fieldCo, ClassName.get(packName, productName))
                         .addAnnotation(Override.class)
                         .addModifiers(Modifier.PUBLIC)
                         .build())
-                .addMethod(MethodSpec.methodBuilder(Configs.methodGetResult)
+                .addMethod(MethodSpec.methodBuilder(configs.builder().methodGetResult)
                         .returns(ClassName.get(packName,className))
-                        .addStatement("return $N", Configs.fieldCo)
+                        .addStatement("return $N", configs.builder().fieldCo)
                         .addAnnotation(Override.class)
                         .addModifiers(Modifier.PUBLIC)
                         .build())
-                .addSuperinterface(ClassName.get(packName,Configs.interfaceBuilder))
+                .addSuperinterface(ClassName.get(packName,configs.builder().interfaceBuilder))
                 .build();
 
-        logger.debug("BuilderClass: classBuilder1 = {}", Configs.classBuilder1);
-        logger.debug("BuilderClass: className = {}", className);
-        logger.debug("BuilderClass: packName = {}", packName);
+        if(logger.isDebugEnabled()){
+            logger.debug("BuilderClass: classBuilder1 = {}", configs.builder().classBuilder1);
+            logger.debug("BuilderClass: className = {}", className);
+            logger.debug("BuilderClass: packName = {}", packName);
+
+
+            logger.debug("BuilderClass generated with -> fieldCo = {}", configs.builder().fieldCo);
+            logger.debug("BuilderClass has a method({}) with the return type -> {}", configs.builder().methodBuildPartA, TypeName.VOID);
+            logger.debug("BuilderClass generated with -> methodGetResult = {}", configs.builder().methodGetResult);
+            logger.debug("BuilderClass has a method({}) with the return type -> {}", configs.builder().methodGetResult,  ClassName.get(packName,className));
+        }
 
 
-        logger.info("BuilderClass generated with -> fieldCo = {}", Configs.fieldCo);
-        logger.info("BuilderClass has a method({}) with the return type -> {}", Configs.methodBuildPartA, TypeName.VOID);
-        logger.info("BuilderClass generated with -> methodGetResult = {}", Configs.methodGetResult);
-        logger.info("BuilderClass has a method({}) with the return type -> {}", Configs.methodGetResult,  ClassName.get(packName,className));
+        return builderClass;
 
+    }
+
+    //Performance profile Builder1: collects the parts in its own final list, getResult builds a new immutable
+    //ComplexObject from them, so results handed out earlier never change
+    private TypeSpec generateImmutableBuilderClass(){
+        ClassName complexObject = ClassName.get(packName, className);
+        ClassName product = ClassName.get(packName, productType);
+        String variableChildren = configs.builder().variableChildren;
+
+        TypeSpec builderClass = TypeSpec.classBuilder(configs.builder().classBuilder1)
+                .addModifiers(Modifier.PUBLIC, Modifier.FINAL)
+                .addField(FieldSpec.builder(ParameterizedTypeName.get(ClassName.get(List.class), product), variableChildren)
+                        .addModifiers(Modifier.PRIVATE, Modifier.FINAL)
+                        .initializer("new $T<>()", ArrayList.class)
+                        .build())
+                .addMethod(MethodSpec.methodBuilder(configs.builder().methodBuildPartA)
+                        .returns(TypeName.VOID)
+                        .addStatement("$N.add(new $T())", variableChildren, ClassName.get(packName, productName))
+                        .addAnnotation(Override.class)
+                        .addModifiers(Modifier.PUBLIC)
+                        .build())
+                .addMethod(MethodSpec.methodBuilder(configs.builder().methodGetResult)
+                        .returns(complexObject)
+                        .addStatement("return new $T($N)", complexObject, variableChildren)
+                        .addAnnotation(Override.class)
+                        .addModifiers(Modifier.PUBLIC)
+                        .build())
+                .addSuperinterface(ClassName.get(packName, configs.builder().interfaceBuilder))
+                .build();
 
-        buildJavaFile(packName, builderClass);
+        if(logger.isDebugEnabled()){
+            logger.debug("Immutable BuilderClass: classBuilder1 = {}, className = {}", configs.builder().classBuilder1, className);
+        }
 
+        return builderClass;
     }
 
 
@@ -336,62 +560,76 @@ public class PatternBuilder implements PatternGenerator {
             }
        }
      */
-    private void generateFactoryAbstractClass(){
+    private TypeSpec generateFactoryAbstractClass(){
 
-        TypeSpec abstractCreator = TypeSpec.classBuilder(Configs.classCreator)
+        TypeSpec abstractCreator = TypeSpec.classBuilder(configs.factory().classCreator)
                 .addModifiers(Modifier.PUBLIC, Modifier.ABSTRACT)
-                .addField(FieldSpec.builder(ClassName.get(packName, productType), Configs.fieldProduct)
+                .addField(FieldSpec.builder(ClassName.get(packName, productType), configs.factory().fieldProduct)
                         .addModifiers(Modifier.PRIVATE)
                         .build())
-                .addMethod(MethodSpec.methodBuilder(Configs.methodFactoryMethod)
+                .addMethod(MethodSpec.methodBuilder(configs.factory().methodFactoryMethod)
                         .returns(ClassName.get(packName, productType))
                         .addModifiers(Modifier.PUBLIC, Modifier.ABSTRACT)
                         .build())
-                .addMethod(MethodSpec.methodBuilder(Configs.methodFoperation)
+                .addMethod(MethodSpec.methodBuilder(configs.factory().methodFoperation)
                         .returns(void.class)
                         .addJavadoc("To be implemented by the user.")
                         .addModifiers(Modifier.PUBLIC)
-                        .addCode("$N = $N();", Configs.fieldProduct, Configs.methodFactoryMethod)
+                        .addCode("$N = $N();", configs.factory().fieldProduct, configs.factory().methodFactoryMethod)
                         .build())
                 .build();
-        logger.debug("FactoryAbstractClass: classCreator = {}", Configs.classCreator);
-        logger.debug("FactoryAbstractClass: productType = {}", productType);
-        logger.debug("FactoryAbstractClass: packName = {}",packName);
-
-        logger.info("FactoryAbstractClass generated with -> fieldProduct = {}", Configs.fieldProduct);
-        logger.info("FactoryAbstractClass has a method({}) with the return type -> {}", Configs.methodFactoryMethod, ClassName.get(packName, productType));
-        logger.info("FactoryAbstractClass generated with -> methodFoperation = {}", Configs.methodFoperation);
-        logger.info("FactoryAbstractClass has a method({}) with the return type -> {}", Configs.methodFoperation, TypeName.VOID);
+        if(logger.isDebugEnabled()){
+            logger.debug("FactoryAbstractClass: classCreator = {}", configs.factory().classCreator);
+            logger.debug("FactoryAbstractClass: productType = {}", productType);
+            logger.debug("FactoryAbstractClass: packName = {}",packName);
+
+            logger.debug("FactoryAbstractClass generated with -> fieldProduct = {}", configs.factory().fieldProduct);
+            logger.debug("FactoryAbstractClass has a method({}) with the return type -> {}", configs.factory().methodFactoryMethod, ClassName.get(packName, productType));
+            logger.debug("FactoryAbstractClass generated with -> methodFoperation = {}", configs.factory().methodFoperation);
+            logger.debug("FactoryAbstractClass has a method({}) with the return type -> {}", configs.factory().methodFoperation, TypeName.VOID);
+        }
 
-        buildJavaFile(packName, abstractCreator);
+        return abstractCreator;
     }
 
     //Generates a Factory class which implements the abstract factory class(Creator)
-    private void generateFactoryClass(){
+    private TypeSpec generateFactoryClass(){
 
-        TypeSpec factory = TypeSpec.classBuilder(className)
-                .addField(FieldSpec.builder(ClassName.get(packName, productType), Configs.fieldProduct)
+        TypeSpec.Builder factoryBuilder = TypeSpec.classBuilder(className)
+                .addField(FieldSpec.builder(ClassName.get(packName, productType), configs.factory().fieldProduct)
                         .addModifiers(Modifier.PRIVATE)
-                        .build())
-                .addMethod(MethodSpec.methodBuilder(Configs.methodFactoryMethod)
-                        .returns(ClassName.get(packName, productType))
-                        .addAnnotation(Override.class)
-                        .addCode("return new $T();", ClassName.get(packName, productName))
-                        .addModifiers(Modifier.PUBLIC)
-                        .build())
-                .superclass(ClassName.get(packName, Configs.classCreator))
+                        .build());
+        MethodSpec.Builder factoryMethod = MethodSpec.methodBuilder(configs.factory().methodFactoryMethod)
+                .returns(ClassName.get(packName, productType))
+                .addAnnotation(Override.class)
+                .addModifiers(Modifier.PUBLIC);
+        if(performance()){
+            //Products are stateless, the factory method returns one shared instance(flyweight)
+            factoryBuilder.addModifiers(Modifier.FINAL)
+                    .addField(sharedProduct(ClassName.get(packName, productType), ClassName.get(packName, productName)));
+            factoryMethod.addStatement("return $N", PRODUCT_CONSTANT);
+        }
+        else {
+            factoryMethod.addCode("return new $T();", ClassName.get(packName, productName));
+        }
+
+        TypeSpec factory = factoryBuilder
+                .addMethod(factoryMethod.build())
+                .superclass(ClassName.get(packName, configs.factory().classCreator))
                 .build();
 
-        logger.debug("FactoryClass: className = {}",className);
-        logger.debug("FactoryClass: productType = {}", productType);
-        logger.debug("FactoryClass: productName = {}", productName);
-        logger.debug("FactoryClass: packName = {}",packName);
+        if(logger.isDebugEnabled()){
+            logger.debug("FactoryClass: className = {}",className);
+            logger.debug("FactoryClass: productType = {}", productType);
+            logger.debug("FactoryClass: productName = {}", productName);
+            logger.debug("FactoryClass: packName = {}",packName);
 
-        logger.info("FactoryClass generated with -> fieldProduct = {}", Configs.fieldProduct);
-        logger.info("FactoryClass has a method({}) with the return type -> {}", Configs.methodFactoryMethod, ClassName.get(packName, productType));
-        logger.info("FactoryClass implements {}",ClassName.get(packName, Configs.classCreator) );
+            logger.debug("FactoryClass generated with -> fieldProduct = {}", configs.factory().fieldProduct);
+            logger.debug("FactoryClass has a method({}) with the return type -> {}", configs.factory().methodFactoryMethod, ClassName.get(packName, productType));
+            logger.debug("FactoryClass implements {}",ClassName.get(packName, configs.factory().classCreator) );
+        }
 
-        buildJavaFile(packName, factory);
+        return factory;
 
     }
 
@@ -402,42 +640,46 @@ public class PatternBuilder implements PatternGenerator {
 
 
     //Generates an Abstract Facade class
-    private void generateAbstractFacade(){
-        TypeSpec abstractFacade = TypeSpec.classBuilder(Configs.classFacade)
+    private TypeSpec generateAbstractFacade(){
+        TypeSpec abstractFacade = TypeSpec.classBuilder(configs.facade().classFacade)
                 .addModifiers(Modifier.PUBLIC, Modifier.ABSTRACT)
-                .addMethod(MethodSpec.methodBuilder(Configs.methodFacadeOperation)
+                .addMethod(MethodSpec.methodBuilder(configs.facade().methodFacadeOperation)
                         .returns(void.class)
                         .addJavadoc("To be implemented by the user.")
                         .addModifiers(Modifier.PUBLIC, Modifier.ABSTRACT)
                         .build())
                 .build();
 
-        logger.debug("AbstractFacade: classFacade = {}", Configs.classFacade);
-        logger.info("AbstractFacadeClass has a method({}) with the return type -> {}", Configs.methodFacadeOperation, TypeName.VOID);
+        if(logger.isDebugEnabled()){
+            logger.debug("AbstractFacade: classFacade = {}", configs.facade().classFacade);
+            logger.debug("AbstractFacadeClass has a method({}) with the return type -> {}", configs.facade().methodFacadeOperation, TypeName.VOID);
+        }
 
 
-        buildJavaFile(packName, abstractFacade);
+        return abstractFacade;
     }
 
-    private void generateFacadeClass(){
+    private TypeSpec generateFacadeClass(){
 
         TypeSpec facade = TypeSpec.classBuilder(className)
-                .addModifiers(Modifier.PUBLIC)
-                .addMethod(MethodSpec.methodBuilder(Configs.methodFacadeOperation)
+                .addModifiers(finalInPerformance(Modifier.PUBLIC))
+                .addMethod(MethodSpec.methodBuilder(configs.facade().methodFacadeOperation)
                         .returns(void.class)
                         .addAnnotation(Override.class)
                         .addJavadoc("To be implemented by the user.")
                         .addModifiers(Modifier.PUBLIC)
                         .build())
-                .superclass(ClassName.get(packName,Configs.classFacade))
+                .superclass(ClassName.get(packName,configs.facade().classFacade))
                 .build();
 
-        logger.debug("FacadeClass: className = {}",className);
-        logger.info("FacadeClass has a method({}) with the return type -> {}", Configs.methodFacadeOperation, TypeName.VOID);
+        if(logger.isDebugEnabled()){
+            logger.debug("FacadeClass: className = {}",className);
+            logger.debug("FacadeClass has a method({}) with the return type -> {}", configs.facade().methodFacadeOperation, TypeName.VOID);
+        }
 
 
 
-        buildJavaFile(packName, facade);
+        return facade;
     }
 
 
@@ -446,11 +688,14 @@ public class PatternBuilder implements PatternGenerator {
         Chain of responsibility delegates commands to a chain of processing objects
      */
 
-    private void generateAbstractHandler(){
+    private TypeSpec generateAbstractHandler(){
+        if(performance()){
+            return generateIterativeHandler();
+        }
 
         TypeSpec abstractHandler = TypeSpec.classBuilder(className)
                 .addModifiers(Modifier.PUBLIC, Modifier.ABSTRACT)
-                .addField(FieldSpec.builder(ClassName.get(packName, className), Configs.fieldSuccessor)
+                .addField(FieldSpec.builder(ClassName.get(packName, className), configs.chain().fieldSuccessor)
                         .addModifiers(Modifier.PRIVATE)
                         .build())
                 .addMethod(MethodSpec.constructorBuilder()
@@ -458,17 +703,17 @@ public class PatternBuilder implements PatternGenerator {
                         .build())
                 .addMethod(MethodSpec.constructorBuilder()
                         .addModifiers(Modifier.PUBLIC)
-                        .addParameter(ClassName.get(packName, className), Configs.fieldSuccessor)
-                        .addStatement("this.$N = $N", Configs.fieldSuccessor, Configs.fieldSuccessor)
+                        .addParameter(ClassName.get(packName, className), configs.chain().fieldSuccessor)
+                        .addStatement("this.$N = $N", configs.chain().fieldSuccessor, configs.chain().fieldSuccessor)
                         .build())
-                .addMethod(MethodSpec.methodBuilder(Configs.methodHandleRequest)
+                .addMethod(MethodSpec.methodBuilder(configs.chain().methodHandleRequest)
                         .returns(void.class)
-                        .beginControlFlow("if($N != null)", Configs.fieldSuccessor)
-                        .addCode("$N.$N();", Configs.fieldSuccessor,Configs.methodHandleRequest)
+                        .beginControlFlow("if($N != null)", configs.chain().fieldSuccessor)
+                        .addCode("$N.$N();", configs.chain().fieldSuccessor,configs.chain().methodHandleRequest)
                         .endControlFlow()
                         .addModifiers(Modifier.PUBLIC)
                         .build())
-                .addMethod(MethodSpec.methodBuilder(Configs.methodCanHandle)
+                .addMethod(MethodSpec.methodBuilder(configs.chain().methodCanHandle)
                         .returns(boolean.class)
                         .addModifiers(Modifier.PUBLIC)
                         .addComment("Checking run-time conditions ... ")
@@ -476,34 +721,105 @@ public class PatternBuilder implements PatternGenerator {
                         .build())
                 .build();
 
-        logger.debug("AbstractHandler: className = {}",className);
-        logger.debug("AbstractHandler: packName = {}", packName);
+        if(logger.isDebugEnabled()){
+            logger.debug("AbstractHandler: className = {}",className);
+            logger.debug("AbstractHandler: packName = {}", packName);
 
-        logger.info("AbstractHandler has a method({}) with the return type -> {}", Configs.methodHandleRequest, TypeName.VOID);
-        logger.info("AbstractHandler has a method({}) with the return type -> {}", Configs.methodCanHandle, boolean.class);
+            logger.debug("AbstractHandler has a method({}) with the return type -> {}", configs.chain().methodHandleRequest, TypeName.VOID);
+            logger.debug("AbstractHandler has a method({}) with the return type -> {}", configs.chain().methodCanHandle, boolean.class);
+        }
 
 
 
-        buildJavaFile(packName, abstractHandler);
+        return abstractHandler;
     }
 
-    //Returns a class
-    private TypeSpec generateReceiverClass(String name, int x){
-        TypeSpec receiverClass;
-        logger.debug("In generateReceiverClass function name = {}", name);
-        logger.debug("In generateReceiverClass function x = {}", x);
-        //This constructor will not be added to the last receiver
-        //See GOF book Chain example code
-        MethodSpec constructor = MethodSpec.constructorBuilder()
-                .addModifiers(Modifier.PUBLIC)
-                .addParameter(ClassName.get(packName, className), Configs.fieldSuccessor)
-                .addStatement("super($N)", Configs.fieldSuccessor)
+    //Performance profile handler: handleRequest walks the chain in a loop instead of every receiver
+    //calling super.handleRequest(), so long chains cost no stack depth. Receivers implement handle()
+    private TypeSpec generateIterativeHandler(){
+        ClassName handler = ClassName.get(packName, className);
+        String successor = configs.chain().fieldSuccessor;
+
+        TypeSpec abstractHandler = TypeSpec.classBuilder(className)
+                .addModifiers(Modifier.PUBLIC, Modifier.ABSTRACT)
+                .addField(FieldSpec.builder(handler, successor)
+                        .addModifiers(Modifier.PRIVATE, Modifier.FINAL)
+                        .build())
+                .addMethod(MethodSpec.constructorBuilder()
+                        .addModifiers(Modifier.PUBLIC)
+                        .addStatement("this.$N = null", successor)
+                        .build())
+                .addMethod(MethodSpec.constructorBuilder()
+                        .addModifiers(Modifier.PUBLIC)
+                        .addParameter(handler, successor)
+                        .addStatement("this.$N = $N", successor, successor)
+                        .build())
+                .addMethod(MethodSpec.methodBuilder(configs.chain().methodHandleRequest)
+                        .returns(void.class)
+                        .addModifiers(Modifier.PUBLIC, Modifier.FINAL)
+                        .addJavadoc("The first receiver of the chain that can handle the request handles it.\n")
+                        .beginControlFlow("for ($T handler = this; handler != null; handler = handler.$N)", handler, successor)
+                        .beginControlFlow("if (handler.$N())", configs.chain().methodCanHandle)
+                        .addStatement("handler.$N()", HANDLE_METHOD)
+                        .addStatement("return")
+                        .endControlFlow()
+                        .endControlFlow()
+                        .build())
+                .addMethod(MethodSpec.methodBuilder(HANDLE_METHOD)
+                        .returns(void.class)
+                        .addModifiers(Modifier.PROTECTED, Modifier.ABSTRACT)
+                        .build())
+                .addMethod(MethodSpec.methodBuilder(configs.chain().methodCanHandle)
+                        .returns(boolean.class)
+                        .addModifiers(Modifier.PUBLIC)
+                        .addComment("Checking run-time conditions ... ")
+                        .addStatement("return false")
+                        .build())
                 .build();
 
+        if(logger.isDebugEnabled()){
+            logger.debug("IterativeHandler: className = {}", className);
+        }
+
+        return abstractHandler;
+    }
+
+    //Returns a class, the constructor and handleRequest specs are immutable and shared by every receiver
+    private TypeSpec generateReceiverClass(String name, boolean last, MethodSpec constructor, MethodSpec handleRequest){
+        TypeSpec receiverClass;
+        if(logger.isDebugEnabled()){
+            logger.debug("In generateReceiverClass function name = {}", name);
+            logger.debug("In generateReceiverClass function last = {}", last);
+        }
+
+        //Performance profile: the handler's loop asks canHandleRequest, the last receiver always says yes
+        if(performance()){
+            TypeSpec.Builder receiver = TypeSpec.classBuilder(name)
+                    .addModifiers(Modifier.FINAL)
+                    .superclass(ClassName.get(packName, className));
+            if(last){
+                receiver.addMethod(MethodSpec.methodBuilder(configs.chain().methodCanHandle)
+                                .returns(boolean.class)
+                                .addModifiers(Modifier.PUBLIC)
+                                .addAnnotation(Override.class)
+                                .addStatement("return true")
+                                .build())
+                        .addMethod(MethodSpec.methodBuilder(HANDLE_METHOD)
+                                .returns(void.class)
+                                .addModifiers(Modifier.PROTECTED)
+                                .addAnnotation(Override.class)
+                                .addComment(" Must handle the request unconditionally")
+                                .build());
+            }
+            else {
+                receiver.addMethod(constructor).addMethod(handleRequest);
+            }
+            receiverClass = receiver.build();
+        }
         //Last receiver in the chain must handle the request
-        if(x == 3){
+        else if(last){
             receiverClass = TypeSpec.classBuilder(name)
-                    .addMethod(MethodSpec.methodBuilder(Configs.methodHandleRequest)
+                    .addMethod(MethodSpec.methodBuilder(configs.chain().methodHandleRequest)
                             .returns(void.class)
                             .addModifiers(Modifier.PUBLIC)
                             .addAnnotation(Override.class)
@@ -511,22 +827,12 @@ public class PatternBuilder implements PatternGenerator {
                             .build())
                     .superclass(ClassName.get(packName, className))
                     .build();
-            logger.info("In generateReceiverClass last sub Receiver class has been created");
+            logger.debug("In generateReceiverClass last sub Receiver class has been created");
         }
         else {
             receiverClass = TypeSpec.classBuilder(name)
                     .addMethod(constructor)
-                    .addMethod(MethodSpec.methodBuilder(Configs.methodHandleRequest)
-                            .returns(void.class)
-                            .addModifiers(Modifier.PUBLIC)
-                            .addAnnotation(Override.class)
-                            .beginControlFlow("if($N())", Configs.methodCanHandle)
-                            .addComment("Handle Request Here!")
-                            .endControlFlow()
-                            .beginControlFlow("else")
-                            .addStatement("super.$N()",Configs.methodHandleRequest)
-                            .endControlFlow()
-                            .build())
+                    .addMethod(handleRequest)
                     .superclass(ClassName.get(packName, className))
                     .build();
         }
@@ -534,15 +840,98 @@ public class PatternBuilder implements PatternGenerator {
         return receiverClass;
     }
 
-    // Generates Receiver sub-classes
-    private void generateReceiverClasses(int numberOfReceivers, String name){
-        logger.debug("In generateReceiverClasses function numberOfReceivers = {}", numberOfReceivers);
-        logger.debug("In generateReceiverClasses function name = {}", name);
+    // Generates Receiver sub-classes, long chains are built in parallel
+    private List<TypeSpec> generateReceiverClasses(int numberOfReceivers, String name){
+        if(logger.isDebugEnabled()){
+            logger.debug("In generateReceiverClasses function numberOfReceivers = {}", numberOfReceivers);
+            logger.debug("In generateReceiverClasses function name = {}", name);
+        }
 
-        for(int i = 1; i <= numberOfReceivers; i++){
-            logger.debug("In generateReceiverClasses inside the for loop i = {}", i);
-            TypeSpec t = generateReceiverClass(name+i, i);
-            buildJavaFile(packName,t);
+        //This constructor will not be added to the last receiver
+        //See GOF book Chain example code
+        MethodSpec constructor = MethodSpec.constructorBuilder()
+                .addModifiers(Modifier.PUBLIC)
+                .addParameter(ClassName.get(packName, className), configs.chain().fieldSuccessor)
+                .addStatement("super($N)", configs.chain().fieldSuccessor)
+                .build();
+        MethodSpec handleRequest = performance()
+                ? MethodSpec.methodBuilder(HANDLE_METHOD)
+                        .returns(void.class)
+                        .addModifiers(Modifier.PROTECTED)
+                        .addAnnotation(Override.class)
+                        .addComment("Handle Request Here!")
+                        .build()
+                : MethodSpec.methodBuilder(configs.chain().methodHandleRequest)
+                        .returns(void.class)
+                        .addModifiers(Modifier.PUBLIC)
+                        .addAnnotation(Override.class)
+                        .beginControlFlow("if($N())", configs.chain().methodCanHandle)
+                        .addComment("Handle Request Here!")
+                        .endControlFlow()
+                        .beginControlFlow("else")
+                        .addStatement("super.$N()",configs.chain().methodHandleRequest)
+                        .endControlFlow()
+                        .build();
+
+        IntStream receivers = IntStream.rangeClosed(1, numberOfReceivers);
+        if(numberOfReceivers >= PARALLEL_TYPES){
+            receivers = receivers.parallel();
+        }
+        //Ordered stream, the list is in chain order whatever the thread count
+        return Collections.unmodifiableList(receivers
+                .mapToObj(i -> generateReceiverClass(name + i, i == numberOfReceivers, constructor, handleRequest))
+                .collect(Collectors.toList()));
+    }
+
+    //Factory that links Receiver1 -> Receiver2 -> ... -> ReceiverN and returns the head of the chain.
+    //The links are made from the tail, LINKS_PER_METHOD per helper method, so long chains stay far below
+    //the 64KB method size limit
+    private TypeSpec generateChainFactory(int numberOfReceivers, String name){
+        ClassName handler = ClassName.get(packName, className);
+        String next = "next";
+        String createMethod = "create";
+
+        TypeSpec.Builder factory = TypeSpec.classBuilder(className + "Factory")
+                .addModifiers(Modifier.PUBLIC, Modifier.FINAL)
+                .addJavadoc("Assembles the chain $N1 -> ... -> $N$L.\n", name, name, numberOfReceivers)
+                .addMethod(MethodSpec.constructorBuilder()
+                        .addModifiers(Modifier.PRIVATE)
+                        .build());
+
+        MethodSpec.Builder create = MethodSpec.methodBuilder(createMethod)
+                .addModifiers(Modifier.PUBLIC, Modifier.STATIC)
+                .returns(handler)
+                .addStatement("$T $N = new $T()", handler, next, ClassName.get(packName, name + numberOfReceivers));
+
+        int links = numberOfReceivers - 1;
+        if(links <= LINKS_PER_METHOD){
+            addLinks(create, numberOfReceivers - 1, 1, name, next);
+        }
+        else {
+            for(int high = numberOfReceivers - 1, chunk = 1; high >= 1; high -= LINKS_PER_METHOD, chunk++){
+                int low = Math.max(1, high - LINKS_PER_METHOD + 1);
+                String helper = "link" + chunk;
+                MethodSpec.Builder linkMethod = MethodSpec.methodBuilder(helper)
+                        .addModifiers(Modifier.PRIVATE, Modifier.STATIC)
+                        .returns(handler)
+                        .addParameter(handler, next);
+                addLinks(linkMethod, high, low, name, next);
+                factory.addMethod(linkMethod.addStatement("return $N", next).build());
+                create.addStatement("$N = $N($N)", next, helper, next);
+            }
+        }
+
+        if(logger.isDebugEnabled()){
+            logger.debug("ChainFactory: className = {}, receivers = {}", className + "Factory", numberOfReceivers);
+        }
+
+        return factory.addMethod(create.addStatement("return $N", next).build()).build();
+    }
+
+    //next = new Receiver<high>(next); ... next = new Receiver<low>(next);
+    private void addLinks(MethodSpec.Builder method, int high, int low, String name, String next){
+        for(int i = high; i >= low; i--){
+            method.addStatement("$N = new $T($N)", next, ClassName.get(packName, name + i), next);
         }
     }
 
@@ -551,28 +940,33 @@ public class PatternBuilder implements PatternGenerator {
         Mediator allows loose coupling between classes by being the only class that has detailed knowledge of their methods.
      */
 
-    private void generateAbstractMediator(){
-        TypeSpec abstractMediator = TypeSpec.classBuilder(Configs.classMediator)
+    private TypeSpec generateAbstractMediator(){
+        TypeSpec abstractMediator = TypeSpec.classBuilder(configs.mediator().classMediator)
                 .addModifiers(Modifier.PUBLIC, Modifier.ABSTRACT)
-                .addMethod(MethodSpec.methodBuilder(Configs.methodMediate)
+                .addMethod(MethodSpec.methodBuilder(configs.mediator().methodMediate)
                         .returns(void.class)
-                        .addParameter(ClassName.get(packName, Configs.classColleague), Configs.variableColleague)
+                        .addParameter(ClassName.get(packName, configs.mediator().classColleague), configs.mediator().variableColleague)
                         .addModifiers(Modifier.PUBLIC, Modifier.ABSTRACT)
                         .build())
                 .build();
 
-        logger.info("AbstractMediator class has a method({}) with the return type -> {}", Configs.methodMediate, TypeName.VOID);
+        if(logger.isDebugEnabled()){
+            logger.debug("AbstractMediator class has a method({}) with the return type -> {}", configs.mediator().methodMediate, TypeName.VOID);
+        }
 
-        buildJavaFile(packName, abstractMediator);
+        return abstractMediator;
 
     }
 
-    private void generateMediatorClass(){
+    private TypeSpec generateMediatorClass(){
+        if(performance()){
+            return generateConcurrentMediatorClass();
+        }
 
-        FieldSpec colleague1 = FieldSpec.builder(ClassName.get(packName, Configs.classColleague+1), Configs.variableColleague+1)
+        FieldSpec colleague1 = FieldSpec.builder(ClassName.get(packName, configs.mediator().classColleague+1), configs.mediator().variableColleague+1)
                 .addModifiers(Modifier.PRIVATE)
                 .build();
-        FieldSpec colleague2 = FieldSpec.builder(ClassName.get(packName, Configs.classColleague+2), Configs.variableColleague+2)
+        FieldSpec colleague2 = FieldSpec.builder(ClassName.get(packName, configs.mediator().classColleague+2), configs.mediator().variableColleague+2)
                 .addModifiers(Modifier.PRIVATE)
                 .build();
 
@@ -581,22 +975,22 @@ public class PatternBuilder implements PatternGenerator {
                 .addModifiers(Modifier.PUBLIC)
                 .addField(colleague1)
                 .addField(colleague2)
-                .addMethod(MethodSpec.methodBuilder(Configs.methodSetColleagues)
+                .addMethod(MethodSpec.methodBuilder(configs.mediator().methodSetColleagues)
                         .returns(void.class)
-                        .addParameter(ClassName.get(packName, Configs.classColleague+1), Configs.variableColleague+1)
-                        .addParameter(ClassName.get(packName, Configs.classColleague+2), Configs.variableColleague+2)
+                        .addParameter(ClassName.get(packName, configs.mediator().classColleague+1), configs.mediator().variableColleague+1)
+                        .addParameter(ClassName.get(packName, configs.mediator().classColleague+2), configs.mediator().variableColleague+2)
                         .addModifiers(Modifier.PUBLIC)
-                        .addStatement("this.$N = $N",Configs.variableColleague+1,Configs.variableColleague+1 )
-                        .addStatement("this.$N = $N",Configs.variableColleague+2, Configs.variableColleague+2)
+                        .addStatement("this.$N = $N",configs.mediator().variableColleague+1,configs.mediator().variableColleague+1 )
+                        .addStatement("this.$N = $N",configs.mediator().variableColleague+2, configs.mediator().variableColleague+2)
                         .build())
-                .addMethod(MethodSpec.methodBuilder(Configs.methodMediate)
+                .addMethod(MethodSpec.methodBuilder(configs.mediator().methodMediate)
                         .returns(void.class)
                         .addAnnotation(Override.class)
-                        .addParameter(ClassName.get(packName, Configs.classColleague), Configs.variableColleague)
+                        .addParameter(ClassName.get(packName, configs.mediator().classColleague), configs.mediator().variableColleague)
                         .addModifiers(Modifier.PUBLIC)
-                        .beginControlFlow("if ($N == $N)",Configs.variableColleague, Configs.variableColleague+1)
+                        .beginControlFlow("if ($N == $N)",configs.mediator().variableColleague, configs.mediator().variableColleague+1)
                         .addComment("Performing an action on colleague2")
-                        .addStatement("String state = $N.getState()", Configs.variableColleague+1)
+                        .addStatement("String state = $N.getState()", configs.mediator().variableColleague+1)
                         .addStatement("colleague2.action2(state)")
                         .endControlFlow()
                         .beginControlFlow("if (colleague == colleague2)")
@@ -605,80 +999,136 @@ public class PatternBuilder implements PatternGenerator {
                         .addStatement("colleague1.action1(state)")
                         .endControlFlow()
                         .build())
-                .superclass(ClassName.get(packName, Configs.classMediator))
+                .superclass(ClassName.get(packName, configs.mediator().classMediator))
                 .build();
 
-        logger.debug("MediatorClass: className = {}",className);
-        logger.debug("MediatorClass: packName = {}", packName);
+        if(logger.isDebugEnabled()){
+            logger.debug("MediatorClass: className = {}",className);
+            logger.debug("MediatorClass: packName = {}", packName);
+
+            logger.debug("MediatorClass has a method({}) with the return type -> {}", configs.mediator().methodSetColleagues, TypeName.VOID);
+            logger.debug("MediatorClass has a method({}) with the return type -> {}", configs.mediator().methodMediate, TypeName.VOID);
+            logger.debug("MediatorClass has a super class -> {}", ClassName.get(packName, configs.mediator().classMediator));
+        }
+
+        return concreteMediator;
 
-        logger.info("MediatorClass has a method({}) with the return type -> {}", Configs.methodSetColleagues, TypeName.VOID);
-        logger.info("MediatorClass has a method({}) with the return type -> {}", Configs.methodMediate, TypeName.VOID);
-        logger.info("MediatorClass has a super class -> {}", ClassName.get(packName, Configs.classMediator));
+    }
+
+    //Performance profile mediator: a ConcurrentHashMap from each colleague to the action its change triggers,
+    //so mediate() is one lock-free lookup instead of a chain of identity checks
+    private TypeSpec generateConcurrentMediatorClass(){
+        String colleague = configs.mediator().variableColleague;
+        String colleague1 = colleague + 1;
+        String colleague2 = colleague + 2;
+        ClassName colleagueClass = ClassName.get(packName, configs.mediator().classColleague);
+
+        TypeSpec concreteMediator = TypeSpec.classBuilder(className)
+                .addModifiers(Modifier.PUBLIC, Modifier.FINAL)
+                .addField(FieldSpec.builder(ParameterizedTypeName.get(ClassName.get(ConcurrentHashMap.class), colleagueClass, ClassName.get(Runnable.class)),
+                                ACTIONS_FIELD, Modifier.PRIVATE, Modifier.FINAL)
+                        .initializer("new $T<>()", ConcurrentHashMap.class)
+                        .build())
+                .addMethod(MethodSpec.methodBuilder(configs.mediator().methodSetColleagues)
+                        .returns(void.class)
+                        .addParameter(ClassName.get(packName, configs.mediator().classColleague+1), colleague1)
+                        .addParameter(ClassName.get(packName, configs.mediator().classColleague+2), colleague2)
+                        .addModifiers(Modifier.PUBLIC)
+                        .addComment("Performing an action on colleague2")
+                        .addStatement("$N.put($N, () -> $N.$N($N.$N()))", ACTIONS_FIELD, colleague1,
+                                colleague2, configs.mediator().methodAction + 2, colleague1, configs.mediator().methodGetState)
+                        .addComment("Performing an action on colleague1")
+                        .addStatement("$N.put($N, () -> $N.$N($N.$N()))", ACTIONS_FIELD, colleague2,
+                                colleague1, configs.mediator().methodAction + 1, colleague2, configs.mediator().methodGetState)
+                        .build())
+                .addMethod(MethodSpec.methodBuilder(configs.mediator().methodMediate)
+                        .returns(void.class)
+                        .addAnnotation(Override.class)
+                        .addParameter(colleagueClass, colleague)
+                        .addModifiers(Modifier.PUBLIC)
+                        .addStatement("$T action = $N.get($N)", Runnable.class, ACTIONS_FIELD, colleague)
+                        .beginControlFlow("if (action != null)")
+                        .addStatement("action.run()")
+                        .endControlFlow()
+                        .build())
+                .superclass(ClassName.get(packName, configs.mediator().classMediator))
+                .build();
 
-        buildJavaFile(packName, concreteMediator);
+        if(logger.isDebugEnabled()){
+            logger.debug("ConcurrentMediatorClass: className = {}", className);
+        }
 
+        return concreteMediator;
     }
 
-    private void generateAbstractColleague(){
+    private TypeSpec generateAbstractColleague(){
 
 
-        TypeSpec abstractColleague = TypeSpec.classBuilder(Configs.classColleague)
+        TypeSpec abstractColleague = TypeSpec.classBuilder(configs.mediator().classColleague)
                 .addModifiers(Modifier.PUBLIC, Modifier.ABSTRACT)
-                .addField( FieldSpec.builder(ClassName.get(packName, Configs.classMediator),Configs.variableMediator)
+                .addField( FieldSpec.builder(ClassName.get(packName, configs.mediator().classMediator),configs.mediator().variableMediator)
+                        .addModifiers(finalInPerformance())
                         .build())
                 .addMethod(MethodSpec.constructorBuilder()
-                        .addParameter(ClassName.get(packName, Configs.classMediator), Configs.variableMediator)
+                        .addParameter(ClassName.get(packName, configs.mediator().classMediator), configs.mediator().variableMediator)
                         .addModifiers(Modifier.PUBLIC)
-                        .addStatement("this.$N = $N", Configs.variableMediator,Configs.variableMediator)
+                        .addStatement("this.$N = $N", configs.mediator().variableMediator,configs.mediator().variableMediator)
                         .build())
                 .build();
 
-        logger.info("AbstractColleague name = {}", Configs.classColleague);
+        if(logger.isDebugEnabled()){
+            logger.debug("AbstractColleague name = {}", configs.mediator().classColleague);
+        }
 
-        buildJavaFile(packName, abstractColleague);
+        return abstractColleague;
 
     }
 
-    private void generateColleagueClass(){
+    private List<TypeSpec> generateColleagueClass(){
+        List<TypeSpec> colleagues = new ArrayList<>(2);
         //Creates two concrete Colleague classes
         for(int i = 1; i<3; i++) {
-            TypeSpec concreteColleague = TypeSpec.classBuilder(Configs.classColleague + i)
-                    .addModifiers(Modifier.PUBLIC)
-                    .addField(FieldSpec.builder(String.class, Configs.variableState)
-                            .addModifiers(Modifier.PRIVATE)
+            //In the performance profile the state is volatile, the mediator may run the actions on other threads
+            TypeSpec concreteColleague = TypeSpec.classBuilder(configs.mediator().classColleague + i)
+                    .addModifiers(finalInPerformance(Modifier.PUBLIC))
+                    .addField(FieldSpec.builder(String.class, configs.mediator().variableState)
+                            .addModifiers(performance() ? new Modifier[]{Modifier.PRIVATE, Modifier.VOLATILE} : new Modifier[]{Modifier.PRIVATE})
                             .build())
                     .addMethod(MethodSpec.constructorBuilder()
-                            .addParameter(ClassName.get(packName, Configs.classMediator), Configs.variableMediator)
+                            .addParameter(ClassName.get(packName, configs.mediator().classMediator), configs.mediator().variableMediator)
                             .addModifiers(Modifier.PUBLIC)
-                            .addStatement("super($N)", Configs.variableMediator)
+                            .addStatement("super($N)", configs.mediator().variableMediator)
                             .build())
-                    .addMethod(MethodSpec.methodBuilder(Configs.methodGetState)
+                    .addMethod(MethodSpec.methodBuilder(configs.mediator().methodGetState)
                             .returns(String.class)
                             .addModifiers(Modifier.PUBLIC)
-                            .addStatement("return $N", Configs.variableState)
+                            .addStatement("return $N", configs.mediator().variableState)
                             .build())
-                    .addMethod(MethodSpec.methodBuilder(Configs.methodSetState)
+                    .addMethod(MethodSpec.methodBuilder(configs.mediator().methodSetState)
                             .returns(void.class)
-                            .addParameter(String.class, Configs.variableState)
-                            .beginControlFlow("if ($N != this.$N)",Configs.variableState,Configs.variableState )
-                            .addStatement("this.$N = $N", Configs.variableState,Configs.variableState)
+                            .addParameter(String.class, configs.mediator().variableState)
+                            .beginControlFlow("if ($N != this.$N)",configs.mediator().variableState,configs.mediator().variableState )
+                            .addStatement("this.$N = $N", configs.mediator().variableState,configs.mediator().variableState)
                             .addComment("Implement your code here")
-                            .addStatement("$N.$N(this)",Configs.variableMediator, Configs.methodMediate)
+                            .addStatement("$N.$N(this)",configs.mediator().variableMediator, configs.mediator().methodMediate)
                             .endControlFlow()
                             .build())
-                    .addMethod(MethodSpec.methodBuilder(Configs.methodAction + i)
+                    .addMethod(MethodSpec.methodBuilder(configs.mediator().methodAction + i)
                             .returns(void.class)
-                            .addParameter(String.class, Configs.variableState)
+                            .addParameter(String.class, configs.mediator().variableState)
                             .addComment("For example, synchronizing and displaying state")
-                            .addStatement("this.$N = $N",  Configs.variableState,  Configs.variableState)
+                            .addStatement("this.$N = $N",  configs.mediator().variableState,  configs.mediator().variableState)
                             .addComment("Implement your code here")
                             .build())
-                    .superclass(ClassName.get(packName, Configs.classColleague))
+                    .superclass(ClassName.get(packName, configs.mediator().classColleague))
                     .build();
-            logger.debug("In generateColleagueClass function  i = {}",i);
+            if(logger.isDebugEnabled()){
+                logger.debug("In generateColleagueClass function  i = {}",i);
+            }
 
-            buildJavaFile(packName, concreteColleague);
+            colleagues.add(concreteColleague);
         }
+        return Collections.unmodifiableList(colleagues);
     }
 
     //-----------------------------------------------------------------------------------
@@ -686,94 +1136,168 @@ public class PatternBuilder implements PatternGenerator {
         Visitor separates an algorithm from an object structure by moving the hierarchy of methods into one object.
      */
 
-    //Builds public abstract class Element
-    private void generateAbstractElement(){
-        TypeSpec abstractElement = TypeSpec.classBuilder(Configs.elementName)
+    //Builds public abstract class Element, with type switch dispatch it also carries the element kind
+    private TypeSpec generateAbstractElement(){
+        TypeSpec.Builder abstractElement = TypeSpec.classBuilder(configs.visitor().elementName)
                 .addModifiers(Modifier.PUBLIC, Modifier.ABSTRACT)
-                .addMethod(MethodSpec.methodBuilder(Configs.methodAccept)
+                .addMethod(MethodSpec.methodBuilder(configs.visitor().methodAccept)
                         .returns(void.class)
-                        .addParameter(ClassName.get(packName, Configs.visitorName), Configs.variableVisitor)
+                        .addParameter(ClassName.get(packName, configs.visitor().visitorName), configs.visitor().variableVisitor)
                         .addModifiers(Modifier.PUBLIC, Modifier.ABSTRACT)
-                        .build())
-                .build();
-        buildJavaFile(packName, abstractElement);
+                        .build());
+        if(typeSwitch()){
+            abstractElement.addField(FieldSpec.builder(int.class, KIND_FIELD, Modifier.PUBLIC, Modifier.FINAL).build())
+                    .addMethod(MethodSpec.constructorBuilder()
+                            .addModifiers(Modifier.PROTECTED)
+                            .addParameter(int.class, KIND_FIELD)
+                            .addStatement("this.$N = $N", KIND_FIELD, KIND_FIELD)
+                            .build());
+        }
+        return abstractElement.build();
     }
 
-    //Builds 2 concrete (Element1 and Element2) classes that extend abstract Element class
-    private void generateElementClass(){
-        for(int i = 1; i < 3; i++){
-            TypeSpec concreteElement = TypeSpec.classBuilder(Configs.elementName + i)
-                    .addModifiers(Modifier.PUBLIC)
-                    .addMethod(MethodSpec.methodBuilder(Configs.methodAccept)
-                            .returns(void.class)
-                            .addAnnotation(Override.class)
-                            .addParameter(ClassName.get(packName, Configs.visitorName), Configs.variableVisitor)
-                            .addStatement("visitor.$N(this)",Configs.methodVisitElement + i)
-                            .addModifiers(Modifier.PUBLIC)
-                            .build())
-                    .addMethod(MethodSpec.methodBuilder(Configs.methodOperation + i)
-                            .returns(String.class)
-                            .addStatement("return \"Hello World from $N\"", Configs.elementName + i )
-                            .addModifiers(Modifier.PUBLIC)
-                            .build())
-                    .superclass(ClassName.get(packName,Configs.elementName))
-                    .build();
+    //Type switch dispatch is on when configured and always in the performance profile
+    private boolean typeSwitch(){
+        return configs.visitor().typeSwitch || performance();
+    }
 
-            buildJavaFile(packName, concreteElement);
+    //A concrete element class with its abstract and concrete visit methods
+    private static final class VisitorElement {
+        private final TypeSpec element;
+        private final MethodSpec abstractVisit;
+        private final MethodSpec concreteVisit;
+
+        private VisitorElement(TypeSpec element, MethodSpec abstractVisit, MethodSpec concreteVisit){
+            this.element = element;
+            this.abstractVisit = abstractVisit;
+            this.concreteVisit = concreteVisit;
         }
+    }
 
+    //Builds every concrete element(Element1..N or the listed elementTypes) together with its visit methods,
+    //large hierarchies in parallel. The list is in elementTypes order
+    private List<VisitorElement> generateVisitorElements(){
+        List<String> types = configs.visitor().elementTypes;
+        IntStream indexes = IntStream.range(0, types.size());
+        if(types.size() >= PARALLEL_TYPES){
+            indexes = indexes.parallel();
+        }
+        return Collections.unmodifiableList(indexes.mapToObj(this::generateVisitorElement).collect(Collectors.toList()));
     }
 
-    // Builds public abstract class Visitor with two abstract void methods
-    private void generateAbstractVistor(){
+    //Builds the concrete element class that extends abstract Element class, and its visit methods
+    private VisitorElement generateVisitorElement(int index){
+        String type = configs.visitor().elementTypes.get(index);
+        String visit = configs.visitor().visitMethods.get(index);
+        ClassName elementClass = ClassName.get(packName, type);
+
+        TypeSpec.Builder concreteElement = TypeSpec.classBuilder(type)
+                .addModifiers(finalInPerformance(Modifier.PUBLIC));
+        if(typeSwitch()){
+            concreteElement.addField(FieldSpec.builder(int.class, KIND_CONSTANT, Modifier.PUBLIC, Modifier.STATIC, Modifier.FINAL)
+                            .initializer("$L", index)
+                            .build())
+                    .addMethod(MethodSpec.constructorBuilder()
+                            .addModifiers(Modifier.PUBLIC)
+                            .addStatement("super($N)", KIND_CONSTANT)
+                            .build());
+        }
+        concreteElement.addMethod(MethodSpec.methodBuilder(configs.visitor().methodAccept)
+                        .returns(void.class)
+                        .addAnnotation(Override.class)
+                        .addParameter(ClassName.get(packName, configs.visitor().visitorName), configs.visitor().variableVisitor)
+                        .addStatement("$N.$N(this)", configs.visitor().variableVisitor, visit)
+                        .addModifiers(Modifier.PUBLIC)
+                        .build())
+                .addMethod(MethodSpec.methodBuilder(configs.visitor().methodOperation + (index + 1))
+                        .returns(String.class)
+                        .addStatement("return \"Hello World from $N\"", type)
+                        .addModifiers(Modifier.PUBLIC)
+                        .build())
+                .superclass(ClassName.get(packName, configs.visitor().elementName));
 
-        TypeSpec abstractVisitor = TypeSpec.classBuilder(Configs.visitorName)
+        MethodSpec abstractVisit = MethodSpec.methodBuilder(visit)
+                .returns(void.class)
+                .addParameter(elementClass, configs.visitor().variableElement)
                 .addModifiers(Modifier.PUBLIC, Modifier.ABSTRACT)
-                //Calling giveMeAbstractMethods to get two methods in a ArrayList<MethodSpec>
-                .addMethods(giveMeAbstractMethods(Configs.methodVisitElement, Configs.numberOfVisitorMethods))
                 .build();
-        buildJavaFile(packName, abstractVisitor);
+        MethodSpec concreteVisit = MethodSpec.methodBuilder(visit)
+                .returns(void.class)
+                .addAnnotation(Override.class)
+                .addParameter(elementClass, configs.visitor().variableElement)
+                .addModifiers(Modifier.PUBLIC)
+                .build();
+        return new VisitorElement(concreteElement.build(), abstractVisit, concreteVisit);
     }
 
-    //Builds abstract methods giving by a name and a number to specify how many methods should be created.
-    private List<MethodSpec> giveMeAbstractMethods(String name, int count){
-        List<MethodSpec> m1 = new ArrayList<>();
-        for(int i = 1; i <= count; i++){
-            MethodSpec methodSpec = MethodSpec.methodBuilder(name+i)
-                    .returns(void.class)
-                    .addParameter(ClassName.get(packName,  Configs.elementName+i),Configs.variableElement)
-                    .addModifiers(Modifier.PUBLIC, Modifier.ABSTRACT)
-                    .build();
-            m1.add(methodSpec);
+    //Builds public abstract class Visitor with an abstract visit method per element,
+    //and with type switch dispatch a final dispatch(Element) method
+    private TypeSpec generateAbstractVistor(List<VisitorElement> elements){
+        TypeSpec.Builder abstractVisitor = TypeSpec.classBuilder(configs.visitor().visitorName)
+                .addModifiers(Modifier.PUBLIC, Modifier.ABSTRACT);
+        for(VisitorElement element : elements){
+            abstractVisitor.addMethod(element.abstractVisit);
         }
-        return m1;
+        if(typeSwitch()){
+            addTypeSwitch(abstractVisitor, elements);
+        }
+        return abstractVisitor.build();
     }
 
-    //Builds concrete methods that was created in giveMeAbstractMethods
-    private List<MethodSpec> giveMeConcreteMethods(String name, int count){
-        List<MethodSpec> m2 = new ArrayList<>();
-        for(int i = 1; i <= count; i++){
-            MethodSpec methodSpec = MethodSpec.methodBuilder(name+i)
-                    .returns(void.class)
-                    .addAnnotation(Override.class)
-                    .addParameter(ClassName.get(packName, Configs.elementName+i), Configs.variableElement)
-                    .addModifiers(Modifier.PUBLIC)
-                    .build();
-            m2.add(methodSpec);
+    //switch(element.kind) calling the visit method directly, the default falls back to accept.
+    //Past CASES_PER_METHOD elements the cases are split over helper methods, selected by kind / CASES_PER_METHOD,
+    //so no method gets too big for the JIT
+    private void addTypeSwitch(TypeSpec.Builder abstractVisitor, List<VisitorElement> elements){
+        ClassName element = ClassName.get(packName, configs.visitor().elementName);
+        String variable = configs.visitor().variableElement;
+
+        MethodSpec.Builder dispatch = MethodSpec.methodBuilder(DISPATCH_METHOD)
+                .addModifiers(Modifier.PUBLIC, Modifier.FINAL)
+                .returns(void.class)
+                .addParameter(element, variable);
+        if(elements.size() <= CASES_PER_METHOD){
+            addCases(dispatch, elements, 0, elements.size());
         }
-        return m2;
+        else {
+            dispatch.beginControlFlow("switch ($N.$N / $L)", variable, KIND_FIELD, CASES_PER_METHOD);
+            for(int chunk = 0; chunk * CASES_PER_METHOD < elements.size(); chunk++){
+                String helper = DISPATCH_METHOD + chunk;
+                MethodSpec.Builder helperMethod = MethodSpec.methodBuilder(helper)
+                        .addModifiers(Modifier.PRIVATE)
+                        .returns(void.class)
+                        .addParameter(element, variable);
+                addCases(helperMethod, elements, chunk * CASES_PER_METHOD,
+                        Math.min(elements.size(), (chunk + 1) * CASES_PER_METHOD));
+                abstractVisitor.addMethod(helperMethod.build());
+                dispatch.addStatement("case $L: $N($N); break", chunk, helper, variable);
+            }
+            dispatch.addStatement("default: $N.$N(this)", variable, configs.visitor().methodAccept)
+                    .endControlFlow();
+        }
+        abstractVisitor.addMethod(dispatch.build());
     }
 
-    private void generateConcreteVisitor(){
-
-        TypeSpec concreteVisitor = TypeSpec.classBuilder(className)
-                .addModifiers(Modifier.PUBLIC)
-                //Calling giveMeConcreteMethods to get two methods in a ArrayList<MethodSpec>
-                .addMethods(giveMeConcreteMethods(Configs.methodVisitElement, Configs.numberOfVisitorMethods))
-                .superclass(ClassName.get(packName,Configs.visitorName))
-                .build();
-        buildJavaFile(packName, concreteVisitor);
+    //case Element1.KIND: visitElement1((Element1) element); break; ...
+    private void addCases(MethodSpec.Builder method, List<VisitorElement> elements, int from, int to){
+        String variable = configs.visitor().variableElement;
+        method.beginControlFlow("switch ($N.$N)", variable, KIND_FIELD);
+        for(int i = from; i < to; i++){
+            ClassName type = ClassName.get(packName, elements.get(i).element.name);
+            method.addStatement("case $T.$N: $N(($T) $N); break", type, KIND_CONSTANT,
+                    elements.get(i).abstractVisit.name, type, variable);
+        }
+        method.addStatement("default: $N.$N(this)", variable, configs.visitor().methodAccept)
+                .endControlFlow();
+    }
 
+    private TypeSpec generateConcreteVisitor(List<VisitorElement> elements){
+        TypeSpec.Builder concreteVisitor = TypeSpec.classBuilder(className)
+                .addModifiers(finalInPerformance(Modifier.PUBLIC))
+                .superclass(ClassName.get(packName,configs.visitor().visitorName));
+        for(VisitorElement element : elements){
+            concreteVisitor.addMethod(element.concreteVisit);
+        }
+        return concreteVisitor.build();
     }
 
     //-----------------------------------------------------------------------------------
@@ -782,169 +1306,243 @@ public class PatternBuilder implements PatternGenerator {
         allowing its subclasses to provide concrete behavior.
      */
 
-    private void generateAbstractTemplate(){
+    private TypeSpec generateAbstractTemplate(){
 
-        TypeSpec abstractTemplate = TypeSpec.classBuilder(Configs.templateName)
+        TypeSpec abstractTemplate = TypeSpec.classBuilder(configs.template().templateName)
                 .addModifiers(Modifier.PUBLIC, Modifier.ABSTRACT)
-                .addMethod(MethodSpec.methodBuilder(Configs.methodName1)
+                .addMethod(MethodSpec.methodBuilder(configs.template().methodName1)
                         .returns(void.class)
                         .addModifiers(Modifier.PROTECTED, Modifier.ABSTRACT)
                         .build())
-                .addMethod(MethodSpec.methodBuilder(Configs.methodName2)
+                .addMethod(MethodSpec.methodBuilder(configs.template().methodName2)
                         .returns(void.class)
                         .addModifiers(Modifier.PROTECTED, Modifier.ABSTRACT)
                         .build())
                 //Calling giveMeAbstractMethods to get two methods in a ArrayList<MethodSpec>
                 .build();
-        logger.debug("generateAbstractTemplate()-> Abstract Template templateName = {}", Configs.templateName);
+        if(logger.isDebugEnabled()){
+            logger.debug("generateAbstractTemplate()-> Abstract Template templateName = {}", configs.template().templateName);
+        }
 
-        buildJavaFile(packName, abstractTemplate);
+        return abstractTemplate;
 
     }
 
-    private void generateConcreteTemplate(){
+    private TypeSpec generateConcreteTemplate(){
         TypeSpec abstractTemplate = TypeSpec.classBuilder(className)
-                .addModifiers(Modifier.PUBLIC)
-                .addMethod(MethodSpec.methodBuilder(Configs.methodName1)
+                .addModifiers(finalInPerformance(Modifier.PUBLIC))
+                .addMethod(MethodSpec.methodBuilder(configs.template().methodName1)
                         .returns(void.class)
                         .addAnnotation(Override.class)
                         .addModifiers(Modifier.PROTECTED)
                         .build())
-                .addMethod(MethodSpec.methodBuilder(Configs.methodName2)
+                .addMethod(MethodSpec.methodBuilder(configs.template().methodName2)
                         .returns(void.class)
                         .addAnnotation(Override.class)
                         .addModifiers(Modifier.PROTECTED)
                         .build())
-                .superclass(ClassName.get(packName, Configs.templateName))
+                .superclass(ClassName.get(packName, configs.template().templateName))
                 //Calling giveMeAbstractMethods to get two methods in a ArrayList<MethodSpec>
                 .build();
 
-        logger.debug("generateConcreteTemplate()-> Template className = {}", className);
+        if(logger.isDebugEnabled()){
+            logger.debug("generateConcreteTemplate()-> Template className = {}", className);
+        }
 
-        buildJavaFile(packName, abstractTemplate);
+        return abstractTemplate;
     }
 
 
 
     //-----------------------------------------------------------------------------------
     //Builds a java file
-    private void buildJavaFile(String packName, TypeSpec typeSpec){
-       try{
-            JavaFile javaFile = JavaFile.builder(packName, typeSpec)
+    private JavaFile buildJavaFile(String packName, TypeSpec typeSpec){
+        try{
+            return JavaFile.builder(packName, typeSpec)
                     .addFileComment("AUTO_GENERATED BY Caglar Kurtkaya")
                     .build();
-
-            javaFile.writeTo(Paths.get("./src/main/java"));//root maven source
         } catch (NullPointerException ex1){
-           System.out.println("Please enter a valid package " + ex1.getMessage());
-           logger.error("packName is null! ", ex1.getMessage() );
-       }catch (IOException ex2) {
-            System.out.println("Cannot write the file to path" + ex2.getMessage());
-            logger.debug("Cannot write the file to path", ex2.getMessage());
+            throw new GenerationException("Please enter a valid package for " + typeSpec.name, ex1);
+        }
+    }
+
+    //Writes a rendered file to the sink
+    private void writeSource(OutputSink sink, GeneratedSource source){
+        try{
+            sink.write(source);
+        } catch (IOException ex2) {
+            throw new GenerationException("Cannot write " + source.getQualifiedName(), ex2);
         }
     }
 
     //-----------------------------------------------------------------------------------
+    //Writes the pattern to the root maven source ./src/main/java
     @Override
     public void generateCode() {
-        //Generate Abstract Factory Design Pattern
-        if(this.patternName.equalsIgnoreCase("AFDP")){
-            generateAFDP();
-        }
-        //Generate Builder Design Pattern
-        else if(this.patternName.equalsIgnoreCase("BDP")){
-            generateBDP();
-        }
-        //Generate Factory Design Pattern
-        else if(this.patternName.equalsIgnoreCase("FDP")){
-            generateFDP();
-        }
-        //Generate Facade Design Pattern
-        else if(this.patternName.equalsIgnoreCase("FCDP")){
-            generateFCDP();
+        generateCode(DirectorySink.defaultSink());
+    }
+
+    @Override
+    public void generateCode(OutputSink sink) {
+        for(GeneratedSource source : generateSources()){
+            writeSource(sink, source);
         }
-        //Generate Chain Design Pattern
-        else if(this.patternName.equalsIgnoreCase("CDP")){
-            generateCDP();
+    }
+
+    @Override
+    public List<JavaFile> generateFiles() {
+        if(packName == null){
+            throw new GenerationException("packName is null for " + patternName + " " + className);
         }
-        //Generate Mediator Design Pattern
-        else if(this.patternName.equalsIgnoreCase("MDP")){
-            generateMDP();
+        List<TypeSpec> types = generateTypes();
+        List<JavaFile> files = new ArrayList<>(types.size());
+        for(TypeSpec typeSpec : types){
+            files.add(buildJavaFile(packName, typeSpec));
         }
-        //Generate Visitor Design Pattern
-        else if(this.patternName.equalsIgnoreCase("VDP")){
-            generateVDP();
+        return files;
+    }
+
+    //With the TEMPLATE emitter the Facade and Template patterns skip JavaPoet, see SourceTemplates
+    @Override
+    public List<GeneratedSource> generateSources() {
+        List<GeneratedSource> sources = emitSources();
+        return sources != null ? sources : PatternGenerator.super.generateSources();
+    }
+
+    //The files rendered without JavaPoet by the emitter, null when this request renders through JavaPoet.
+    //Lets DePaCoG plan emitted files as text and keep the JavaFiles of every other request
+    List<GeneratedSource> emitSources(){
+        return emitter == SourceEmitter.TEMPLATE && packName != null ? emitTemplates() : null;
+    }
+
+    //null when the pattern is not a fixed-shape one or its names need JavaPoet
+    private List<GeneratedSource> emitTemplates(){
+        if(patternType == PatternType.FCDP && SourceTemplates.canEmitFacade(configs.facade(), packName, className)){
+            return Arrays.asList(
+                    fragment("abstractFacadeSource", configs.facade(),
+                            () -> SourceTemplates.abstractFacade(packName, configs.facade())),
+                    fragment("facadeClassSource", configs.facade(),
+                            () -> SourceTemplates.facadeClass(packName, className, performance(), configs.facade()), className));
         }
-        //Generate Template Design Pattern
-        else if(this.patternName.equalsIgnoreCase("TDP")){
-            generateTDP();
+        if(patternType == PatternType.TDP && SourceTemplates.canEmitTemplate(configs.template(), packName, className)){
+            return Arrays.asList(
+                    fragment("abstractTemplateSource", configs.template(),
+                            () -> SourceTemplates.abstractTemplate(packName, configs.template())),
+                    fragment("concreteTemplateSource", configs.template(),
+                            () -> SourceTemplates.concreteTemplate(packName, className, performance(), configs.template()), className));
         }
+        return null;
+    }
 
-        else{
-
-            System.out.println("I am not generating!");
+    //patternType is resolved once in the constructor and never null, build() rejects unknown patterns
+    private List<TypeSpec> generateTypes() {
+        switch (patternType){
+            case AFDP: return generateAFDP();   //Generate Abstract Factory Design Pattern
+            case BDP:  return generateBDP();    //Generate Builder Design Pattern
+            case FDP:  return generateFDP();    //Generate Factory Design Pattern
+            case FCDP: return generateFCDP();   //Generate Facade Design Pattern
+            case CDP:  return generateCDP();    //Generate Chain Design Pattern
+            case MDP:  return generateMDP();    //Generate Mediator Design Pattern
+            case VDP:  return generateVDP();    //Generate Visitor Design Pattern
+            case TDP:  return generateTDP();    //Generate Template Design Pattern
+            default:   return Collections.emptyList();
         }
+    }
 
+    //-----------------------------------------------------------------------------------
+    //Returns the cached fragment for the role or builds it.
+    //The key is the role, the package, the profile, the role's config section values and the request values the role uses
+    private <T> T fragment(String role, Configs.Section section, Supplier<T> builder, Object... inputs){
+        if(fragmentCache == null){
+            return builder.get();
+        }
+        List<Object> key = new ArrayList<>(inputs.length + 4);
+        key.add(role);
+        key.add(packName);
+        key.add(profile);
+        key.add(section);
+        key.addAll(Arrays.asList(inputs));
+        return fragmentCache.get(key, builder);
     }
 
     //-----------------------------------------------------------------------------------
     //Abstract Factory Design Pattern
-    private void generateAFDP(){
-        generateProductInterface();
-        generateProduct();
-        generateAbstractFactoryInterface();
-        generateFactory();
+    private List<TypeSpec> generateAFDP(){
+        return Arrays.asList(
+                fragment("productInterface", configs.abstractFactory(), this::generateProductInterface, productType),
+                fragment("product", configs.abstractFactory(), this::generateProduct, productType, productName),
+                fragment("abstractFactoryInterface", configs.abstractFactory(), this::generateAbstractFactoryInterface, productType),
+                fragment("factory", configs.abstractFactory(), this::generateFactory, className, productType, productName));
     }
     //Builder Design Pattern
-    private void generateBDP(){
-        generateComplexObject();
-        generateBuilderInterface();
-        generateBuilderClass();
-        generateProductInterface();
-        generateProduct();
+    private List<TypeSpec> generateBDP(){
+        return Arrays.asList(
+                fragment("complexObject", configs.builder(), this::generateComplexObject, className, productType),
+                fragment("builderInterface", configs.builder(), this::generateBuilderInterface, className),
+                fragment("builderClass", configs.builder(), this::generateBuilderClass, className, productType, productName),
+                fragment("productInterface", configs.abstractFactory(), this::generateProductInterface, productType),
+                fragment("product", configs.abstractFactory(), this::generateProduct, productType, productName));
     }
 
     //Factory Design Pattern
-    private void generateFDP(){
-        generateProductInterface();
-        generateProduct();
-        generateFactoryAbstractClass();
-        generateFactoryClass();
+    private List<TypeSpec> generateFDP(){
+        return Arrays.asList(
+                fragment("productInterface", configs.abstractFactory(), this::generateProductInterface, productType),
+                fragment("product", configs.abstractFactory(), this::generateProduct, productType, productName),
+                fragment("factoryAbstractClass", configs.factory(), this::generateFactoryAbstractClass, productType),
+                fragment("factoryClass", configs.factory(), this::generateFactoryClass, className, productType, productName));
     }
 
     //Facade Design Pattern
-    private void generateFCDP(){
-        generateAbstractFacade();
-        generateFacadeClass();
+    private List<TypeSpec> generateFCDP(){
+        return Arrays.asList(
+                fragment("abstractFacade", configs.facade(), this::generateAbstractFacade),
+                fragment("facadeClass", configs.facade(), this::generateFacadeClass, className));
     }
 
     //Chain Design Pattern
-    private void generateCDP(){
-        generateReceiverClasses(Configs.numberOfClass, Configs.classReceiver);
-        generateAbstractHandler();
+    private List<TypeSpec> generateCDP(){
+        int length = configs.chain().numberOfClass;
+        if(length < 1){
+            throw new GenerationException("Chain.numberOfClass must be at least 1, was " + length);
+        }
+        List<TypeSpec> types = new ArrayList<>(length + 2);
+        types.addAll(fragment("receiverClasses", configs.chain(),
+                () -> generateReceiverClasses(length, configs.chain().classReceiver), className));
+        types.add(fragment("abstractHandler", configs.chain(), this::generateAbstractHandler, className));
+        types.add(fragment("chainFactory", configs.chain(),
+                () -> generateChainFactory(length, configs.chain().classReceiver), className));
+        return types;
     }
 
     //Mediator Design Pattern
-    private void generateMDP(){
-        generateAbstractMediator();
-        generateMediatorClass();
-        generateAbstractColleague();
-        generateColleagueClass();
+    private List<TypeSpec> generateMDP(){
+        List<TypeSpec> types = new ArrayList<>();
+        types.add(fragment("abstractMediator", configs.mediator(), this::generateAbstractMediator));
+        types.add(fragment("mediatorClass", configs.mediator(), this::generateMediatorClass, className));
+        types.add(fragment("abstractColleague", configs.mediator(), this::generateAbstractColleague));
+        types.addAll(fragment("colleagueClasses", configs.mediator(), this::generateColleagueClass));
+        return types;
     }
 
     //Visitor Design Pattern
-    private void generateVDP(){
-        generateAbstractElement();
-        generateElementClass();
-        generateAbstractVistor();
-        generateConcreteVisitor();
+    private List<TypeSpec> generateVDP(){
+        List<VisitorElement> elements = fragment("visitorElements", configs.visitor(), this::generateVisitorElements);
+        List<TypeSpec> types = new ArrayList<>(elements.size() + 3);
+        types.add(fragment("abstractElement", configs.visitor(), this::generateAbstractElement));
+        for(VisitorElement element : elements){
+            types.add(element.element);
+        }
+        types.add(fragment("abstractVisitor", configs.visitor(), () -> generateAbstractVistor(elements)));
+        types.add(fragment("concreteVisitor", configs.visitor(), () -> generateConcreteVisitor(elements), className));
+        return types;
     }
 
     //Template Design Pattern
-    private void generateTDP(){
-        generateAbstractTemplate();
-        generateConcreteTemplate();
-
+    private List<TypeSpec> generateTDP(){
+        return Arrays.asList(
+                fragment("abstractTemplate", configs.template(), this::generateAbstractTemplate),
+                fragment("concreteTemplate", configs.template(), this::generateConcreteTemplate, className));
     }
 
 
@@ -1,39 +1,43 @@
 package com.DesignPatternGenerator.DPG;
 
-import java.util.Map;
+import java.util.List;
+import java.util.TreeSet;
 
+//Stateless: every call builds a fresh generator from the request, so one factory can be shared across threads
 public class PatternFactory implements AbstractFactory {
-    private PatternGenerator p;
+    private final PatternRegistry registry;
 
+    public PatternFactory() {
+        this(PatternRegistry.getDefault());
+    }
 
+    public PatternFactory(PatternRegistry registry) {
+        this.registry = registry;
+    }
 
     @Override
-    public PatternGenerator getPattern(String patternName, Map<String,String> args)
+    public PatternGenerator getPattern(PatternRequest request)
     {
+        PatternProvider provider = registry.lookup(request.getPatternName());
+        if(provider != null){
+            return provider.create(request);
+        }
+        //Unknown pattern, PatternBuilder.fromRequest throws an InvalidRequestException naming it
+        return PatternBuilder.fromRequest(request);
+    }
 
-        //Factory Design Pattern(FCDP)
-        //Chain Design Pattern(CDP)
-        //Mediator Design Pattern(MDP)
-        //Visitor Design Pattern(VDP)
-        //Template Design Pattern(TDP)
-        if((patternName.equalsIgnoreCase("FCDP"))
-            || (patternName.equalsIgnoreCase("CDP"))
-                || (patternName.equalsIgnoreCase("MDP"))
-                    || (patternName.equalsIgnoreCase("VDP"))
-                        || (patternName.equalsIgnoreCase("TDP"))){
-            return p = new PatternBuilder.pBuilder(patternName,args.get("desiredClassName"))
-                    .withPackName(args.get("packName"))
-                    .build();
+    //The problems of the request's provider, an id no provider is registered for is a problem too
+    @Override
+    public List<String> getProblems(PatternRequest request) {
+        PatternProvider provider = registry.lookup(request.getPatternName());
+        if(provider != null){
+            return provider.getProblems(request);
         }
-        else {
-            // Abstract Factory Design Pattern(AFDP)
-            // Builder Design Pattern(BDP)
-            // Factory Design Pattern(FDP)
-            return p = new PatternBuilder.pBuilder(patternName, args.get("desiredClassName"))
-                    .withProductType(args.get("productType"))
-                    .withProductName(args.get("productName"))
-                    .withPackName(args.get("packName"))
-                    .build();
+        List<String> problems = request.getProblems();
+        String patternName = request.getPatternName();
+        if(patternName != null && !patternName.trim().isEmpty()){
+            problems.add("unknown pattern '" + patternName + "', known patterns are " + new TreeSet<>(registry.getIds()));
         }
+        return problems;
     }
 }
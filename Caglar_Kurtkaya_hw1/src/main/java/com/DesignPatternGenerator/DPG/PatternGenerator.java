@@ -1,5 +1,27 @@
 package com.DesignPatternGenerator.DPG;
 
+import com.squareup.javapoet.JavaFile;
+
+import java.util.ArrayList;
+import java.util.List;
+
 public interface PatternGenerator {
+    //Writes the pattern to ./src/main/java
     void generateCode();
+
+    //Writes the pattern to the given sink
+    void generateCode(OutputSink sink);
+
+    //Builds the pattern's files without writing them anywhere
+    List<JavaFile> generateFiles();
+
+    //The pattern's files rendered to text, without writing them anywhere
+    default List<GeneratedSource> generateSources(){
+        List<JavaFile> files = generateFiles();
+        List<GeneratedSource> sources = new ArrayList<>(files.size());
+        for(JavaFile javaFile : files){
+            sources.add(GeneratedSource.of(javaFile));
+        }
+        return sources;
+    }
 }
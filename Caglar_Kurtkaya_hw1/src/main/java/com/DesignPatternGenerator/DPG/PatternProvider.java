@@ -0,0 +1,21 @@
+package com.DesignPatternGenerator.DPG;
+
+import java.util.List;
+
+//Service provider interface for adding new patterns without touching PatternBuilder.
+//Implementations are discovered with java.util.ServiceLoader, list them in
+//META-INF/services/com.DesignPatternGenerator.DPG.PatternProvider
+public interface PatternProvider {
+
+    //Pattern id used in requests, e.g. "AFDP". Matched case-insensitively
+    String getId();
+
+    //Creates a generator for one request
+    PatternGenerator create(PatternRequest request);
+
+    //Every problem of the request for this provider, empty when create can generate it.
+    //Checked before any generation work, the request's own values only by default(see PatternRequest.getProblems())
+    default List<String> getProblems(PatternRequest request){
+        return request.getProblems();
+    }
+}
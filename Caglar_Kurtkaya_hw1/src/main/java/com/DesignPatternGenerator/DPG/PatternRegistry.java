@@ -0,0 +1,94 @@
+package com.DesignPatternGenerator.DPG;
+
+import com.DesignPatternGenerator.Utils.Configs;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.ServiceLoader;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+//Maps a normalized pattern id to the provider that generates it, dispatch is a single map lookup
+public class PatternRegistry {
+
+    private final Map<String, PatternProvider> providers = new ConcurrentHashMap<>();
+    private static final Logger logger = LoggerFactory.getLogger("PatternRegistry");
+
+    //Lazy holder, the default registry is created on first use
+    private static class Holder {
+        private static final PatternRegistry DEFAULT = withBuiltins().loadServices(PatternRegistry.class.getClassLoader());
+    }
+
+    public static PatternRegistry getDefault() {
+        return Holder.DEFAULT;
+    }
+
+    //A registry holding only the eight PatternBuilder patterns
+    public static PatternRegistry withBuiltins() {
+        return withBuiltins(FragmentCache.shared(), null);
+    }
+
+    //Same as withBuiltins() with the built-in patterns generated from the given fragment cache and config snapshot.
+    //configs null means Configs.current() at the time of each request
+    public static PatternRegistry withBuiltins(FragmentCache fragmentCache, Configs configs) {
+        PatternRegistry registry = new PatternRegistry();
+        for(PatternType type : PatternType.values()){
+            registry.register(new BuiltinProvider(type, fragmentCache, configs));
+        }
+        return registry;
+    }
+
+    //Adds every PatternProvider found by ServiceLoader, a provider may replace a built-in id
+    public PatternRegistry loadServices(ClassLoader classLoader) {
+        for(PatternProvider provider : ServiceLoader.load(PatternProvider.class, classLoader)){
+            logger.info("Registering pattern provider {} -> {}", provider.getId(), provider.getClass().getName());
+            register(provider);
+        }
+        return this;
+    }
+
+    public void register(PatternProvider provider) {
+        providers.put(PatternType.normalize(provider.getId()), provider);
+    }
+
+    //Returns null when no provider is registered for the id
+    public PatternProvider lookup(String patternName) {
+        return patternName == null ? null : providers.get(PatternType.normalize(patternName));
+    }
+
+    public Set<String> getIds() {
+        return Collections.unmodifiableSet(providers.keySet());
+    }
+
+    //Creates PatternBuilder generators for the built-in patterns
+    private static class BuiltinProvider implements PatternProvider {
+        private final PatternType type;
+        private final FragmentCache fragmentCache;
+        private final Configs configs;
+
+        BuiltinProvider(PatternType type, FragmentCache fragmentCache, Configs configs){
+            this.type = type;
+            this.fragmentCache = fragmentCache;
+            this.configs = configs;
+        }
+
+        @Override
+        public String getId() {
+            return type.name();
+        }
+
+        @Override
+        public PatternGenerator create(PatternRequest request) {
+            return PatternBuilder.fromRequest(request, fragmentCache, configs != null ? configs : Configs.current());
+        }
+
+        //Also checks the request against the type names of the config it will be generated with
+        @Override
+        public List<String> getProblems(PatternRequest request) {
+            return request.getProblems(configs != null ? configs : Configs.current());
+        }
+    }
+}
@@ -0,0 +1,295 @@
+package com.DesignPatternGenerator.DPG;
+
+import com.DesignPatternGenerator.Utils.Configs;
+import com.typesafe.config.Config;
+import com.typesafe.config.ConfigException;
+import com.typesafe.config.ConfigValue;
+
+import javax.lang.model.SourceVersion;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+//Immutable description of a single pattern generation request
+//Every DePaCoG call carries its own request, so nothing is shared between concurrent callers
+public final class PatternRequest {
+
+    private final String patternName;
+    private final String className;
+    private final String productType;
+    private final String productName;
+    private final String packName;
+    private final Map<String, String> configOverrides;
+
+    private static final String CHAIN_LENGTH = "Chain.numberOfClass";
+    private static final String VISITOR_ELEMENTS = "Visitor.elementTypes";
+    private static final String VISITOR_TYPE_SWITCH = "Visitor.typeSwitch";
+    private static final String PROFILE = "profile";
+
+    //Facade, Chain, Mediator, Visitor and Template patterns do not need a product
+    public PatternRequest(String patternName, String className, String packName){
+        this(patternName, className, null, null, packName);
+    }
+
+    //Abstract Factory, Builder and Factory patterns
+    public PatternRequest(String patternName, String className, String productType, String productName, String packName){
+        this.patternName = patternName;
+        this.className = className;
+        this.productType = productType;
+        this.productName = productName;
+        this.packName = packName;
+        this.configOverrides = Collections.emptyMap();
+    }
+
+    private PatternRequest(PatternRequest request, Map<String, String> configOverrides){
+        this.patternName = request.patternName;
+        this.className = request.className;
+        this.productType = request.productType;
+        this.productName = request.productName;
+        this.packName = request.packName;
+        this.configOverrides = Collections.unmodifiableMap(new LinkedHashMap<>(configOverrides));
+    }
+
+    //Reads a request from a parsed JSON/HOCON object:
+    //{ pattern: AFDP, className: MyFactory, productType: Bank, productName: Chase, packName: Outputs,
+    //  overrides: { "AbstractFactory.interfaceName": "Factory" } }
+    //productType, productName, chainLength, elementTypes: [...], typeSwitch, profile and overrides are optional
+    public static PatternRequest fromConfig(Config c){
+        PatternRequest request = new PatternRequest(c.getString("pattern"), c.getString("className"),
+                c.hasPath("productType") ? c.getString("productType") : null,
+                c.hasPath("productName") ? c.getString("productName") : null,
+                c.getString("packName"));
+        if(c.hasPath("overrides")){
+            Map<String, String> overrides = new LinkedHashMap<>();
+            for(Map.Entry<String, ConfigValue> entry : c.getConfig("overrides").entrySet()){
+                overrides.put(entry.getKey(), String.valueOf(entry.getValue().unwrapped()));
+            }
+            request = request.withConfigOverrides(overrides);
+        }
+        if(c.hasPath("chainLength")){
+            request = request.withChainLength(c.getInt("chainLength"));
+        }
+        if(c.hasPath("elementTypes")){
+            request = request.withVisitorElements(c.getStringList("elementTypes"));
+        }
+        if(c.hasPath("typeSwitch") && c.getBoolean("typeSwitch")){
+            request = request.withTypeSwitchDispatch();
+        }
+        if(c.hasPath("profile")){
+            GenerationProfile profile = GenerationProfile.fromId(c.getString("profile"));
+            if(profile == null){
+                throw new IllegalArgumentException("Unknown profile '" + c.getString("profile") + "'");
+            }
+            request = request.withProfile(profile);
+        }
+        return request;
+    }
+
+    //Copy of this request generating a chain of the given number of receivers(CDP),
+    //instead of Chain.numberOfClass from application.conf
+    public PatternRequest withChainLength(int receivers){
+        if(receivers < 1){
+            throw new IllegalArgumentException("a chain needs at least one receiver, was " + receivers);
+        }
+        Map<String, String> overrides = new LinkedHashMap<>(configOverrides);
+        overrides.put(CHAIN_LENGTH, String.valueOf(receivers));
+        return new PatternRequest(this, overrides);
+    }
+
+    //Copy of this request generating one concrete element and visit method per type(VDP), in order,
+    //e.g. BinaryExpr -> visitBinaryExpr, instead of Element1..N
+    public PatternRequest withVisitorElements(List<String> elementTypes){
+        if(elementTypes.isEmpty()){
+            throw new IllegalArgumentException("a visitor needs at least one element type");
+        }
+        Map<String, String> overrides = new LinkedHashMap<>(configOverrides);
+        overrides.put(VISITOR_ELEMENTS, String.join(",", elementTypes));
+        return new PatternRequest(this, overrides);
+    }
+
+    //Copy of this request whose visitor also gets a dispatch(Element) switch on the element kind(VDP)
+    public PatternRequest withTypeSwitchDispatch(){
+        Map<String, String> overrides = new LinkedHashMap<>(configOverrides);
+        overrides.put(VISITOR_TYPE_SWITCH, "true");
+        return new PatternRequest(this, overrides);
+    }
+
+    //Copy of this request generated for the given profile, e.g. GenerationProfile.PERFORMANCE
+    public PatternRequest withProfile(GenerationProfile profile){
+        Map<String, String> overrides = new LinkedHashMap<>(configOverrides);
+        overrides.put(PROFILE, profile.name());
+        return new PatternRequest(this, overrides);
+    }
+
+    //Copy of this request with application.conf values overridden for this request only,
+    //keyed by path, e.g. "Chain.className" -> "Handler"
+    public PatternRequest withConfigOverrides(Map<String, String> configOverrides){
+        return new PatternRequest(this, configOverrides);
+    }
+
+    //--------------------------------------------------------------------------------------
+    //Validation. Only looks at the request's own values, so a bad request is rejected in microseconds
+    //before any spec is built or file written
+
+    //Every problem of the request, empty when it is valid
+    public List<String> getProblems(){
+        List<String> problems = problems(patternName, className, productType, productName, packName);
+        String chainLength = configOverrides.get(CHAIN_LENGTH);
+        if(chainLength != null && !isPositive(chainLength)){
+            problems.add("chain length '" + chainLength + "' is not a positive number");
+        }
+        String profile = configOverrides.get(PROFILE);
+        if(profile != null && GenerationProfile.fromId(profile) == null){
+            problems.add("profile '" + profile + "' is not a known profile");
+        }
+        String elementTypes = configOverrides.get(VISITOR_ELEMENTS);
+        if(elementTypes != null){
+            Set<String> seen = new HashSet<>();
+            for(String type : elementTypes.split(",", -1)){
+                checkIdentifier(problems, "element type", type.trim());
+                if(!seen.add(type.trim())){
+                    problems.add("element type '" + type.trim() + "' is listed twice");
+                } else if(type.trim().equals(className)){
+                    problems.add("element type '" + type.trim() + "' is also the className");
+                }
+            }
+        }
+        return problems;
+    }
+
+    //Same as getProblems(), plus the names configs(with this request's overrides) gives the generated types:
+    //a visitor's className and element types must differ from the configured Visitor and Element names
+    public List<String> getProblems(Configs configs){
+        List<String> problems = getProblems();
+        if(!problems.isEmpty() || PatternType.fromId(patternName) != PatternType.VDP){
+            return problems;
+        }
+        Configs.VisitorConfig visitor;
+        try {
+            visitor = configs.withOverrides(configOverrides).visitor();
+        } catch (ConfigException ex){
+            problems.add("the Visitor configuration is invalid: " + ex.getMessage());
+            return problems;
+        }
+        Map<String, String> owners = new HashMap<>();
+        owners.put(visitor.visitorName, "the configured Visitor name");
+        owners.putIfAbsent(visitor.elementName, "the configured Element name");
+        claim(problems, owners, "className", className);
+        for(String type : visitor.elementTypes){
+            claim(problems, owners, "element type", type);
+        }
+        return problems;
+    }
+
+    //Reports name when another generated type already has it
+    private static void claim(List<String> problems, Map<String, String> owners, String field, String name){
+        String owner = owners.putIfAbsent(name, field + " '" + name + "'");
+        if(owner != null){
+            problems.add(field + " '" + name + "' is also " + owner);
+        }
+    }
+
+    private static boolean isPositive(String number){
+        try {
+            return Integer.parseInt(number.trim()) > 0;
+        } catch (NumberFormatException ex){
+            return false;
+        }
+    }
+
+    //Returns this request, or throws InvalidRequestException listing every problem
+    public PatternRequest validate(){
+        List<String> problems = getProblems();
+        if(!problems.isEmpty()){
+            throw new InvalidRequestException(toString(), problems);
+        }
+        return this;
+    }
+
+    //Pattern ids that are not built in may come from a PatternProvider, only their names are checked here.
+    //PatternFactory.getProblems also rejects ids no provider is registered for
+    static List<String> problems(String patternName, String className, String productType, String productName, String packName){
+        List<String> problems = new ArrayList<>(2);
+        if(patternName == null || patternName.trim().isEmpty()){
+            problems.add("pattern is missing");
+        }
+        checkIdentifier(problems, "className", className);
+
+        PatternType type = PatternType.fromId(patternName);
+        if(type != null && type.requiresProduct()){
+            checkIdentifier(problems, "productType", productType);
+            checkIdentifier(problems, "productName", productName);
+            if(productType != null && (productType.equals(productName) || productType.equals(className))){
+                problems.add("productType '" + productType + "' must differ from className and productName");
+            } else if(productName != null && productName.equals(className)){
+                problems.add("productName '" + productName + "' must differ from className");
+            }
+        } else {
+            if(productType != null){
+                checkIdentifier(problems, "productType", productType);
+            }
+            if(productName != null){
+                checkIdentifier(problems, "productName", productName);
+            }
+        }
+
+        //the empty package is the default package
+        if(packName == null){
+            problems.add("packName is missing");
+        } else if(!packName.isEmpty()){
+            for(String part : packName.split("\\.", -1)){
+                if(part.isEmpty() || !SourceVersion.isIdentifier(part) || SourceVersion.isKeyword(part)){
+                    problems.add("packName '" + packName + "' is not a valid package name");
+                    break;
+                }
+            }
+        }
+        return problems;
+    }
+
+    private static void checkIdentifier(List<String> problems, String field, String value){
+        if(value == null || value.isEmpty()){
+            problems.add(field + " is missing");
+        } else if(SourceVersion.isKeyword(value)){
+            problems.add(field + " '" + value + "' is a reserved word");
+        } else if(!SourceVersion.isIdentifier(value)){
+            problems.add(field + " '" + value + "' is not a valid Java identifier");
+        }
+    }
+
+    //--------------------------------------------------------------------------------------
+    //Getters
+    public String getPatternName() {
+        return patternName;
+    }
+
+    public String getClassName() {
+        return className;
+    }
+
+    public String getProductType() {
+        return productType;
+    }
+
+    public String getProductName() {
+        return productName;
+    }
+
+    public String getPackName() {
+        return packName;
+    }
+
+    public Map<String, String> getConfigOverrides() {
+        return configOverrides;
+    }
+
+    @Override
+    public String toString() {
+        return patternName + "(" + packName + "." + className + ")";
+    }
+}
@@ -0,0 +1,68 @@
+package com.DesignPatternGenerator.DPG;
+
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+//Outcome of one PatternRequest inside a batch run
+public final class PatternResult {
+
+    private final PatternRequest request;
+    private final long elapsedNanos;
+    private final long bytes;
+    private final Throwable error;
+    private final List<String> files;
+    private final List<String> conflicts;
+
+    PatternResult(PatternRequest request, long elapsedNanos, long bytes, Throwable error, List<String> files, List<String> conflicts){
+        this.request = request;
+        this.elapsedNanos = elapsedNanos;
+        this.bytes = bytes;
+        this.error = error;
+        this.files = Collections.unmodifiableList(files);
+        this.conflicts = Collections.unmodifiableList(conflicts);
+    }
+
+    public PatternRequest getRequest() {
+        return request;
+    }
+
+    //A request with conflicting types is not a success, its conflicting files were not written
+    public boolean isSuccess() {
+        return error == null && conflicts.isEmpty();
+    }
+
+    //null when the request was generated successfully
+    public Throwable getError() {
+        return error;
+    }
+
+    //Qualified names of every type the request generated, shared types included
+    public List<String> getFiles() {
+        return files;
+    }
+
+    //Types this request defines differently from an earlier request of the batch
+    public List<String> getConflicts() {
+        return conflicts;
+    }
+
+    //Bytes this request wrote, shared files are charged to the request that wrote them
+    public long getBytes() {
+        return bytes;
+    }
+
+    public long getElapsedNanos() {
+        return elapsedNanos;
+    }
+
+    public long getElapsedMillis() {
+        return TimeUnit.NANOSECONDS.toMillis(elapsedNanos);
+    }
+
+    @Override
+    public String toString() {
+        return request + (isSuccess() ? " OK " : " FAILED ") + files.size() + " files, " + bytes + " bytes, "
+                + conflicts.size() + " conflicts, " + getElapsedMillis() + "ms";
+    }
+}
@@ -0,0 +1,45 @@
+package com.DesignPatternGenerator.DPG;
+
+import java.util.HashMap;
+import java.util.Locale;
+import java.util.Map;
+
+//The design patterns PatternBuilder knows how to generate
+public enum PatternType {
+    AFDP(true),   //Abstract Factory Design Pattern
+    BDP(true),    //Builder Design Pattern
+    FDP(true),    //Factory Design Pattern
+    FCDP(false),  //Facade Design Pattern
+    CDP(false),   //Chain Design Pattern
+    MDP(false),   //Mediator Design Pattern
+    VDP(false),   //Visitor Design Pattern
+    TDP(false);   //Template Design Pattern
+
+    private static final Map<String, PatternType> BY_ID = new HashMap<>();
+    static {
+        for(PatternType type : values()){
+            BY_ID.put(type.name(), type);
+        }
+    }
+
+    private final boolean requiresProduct;
+
+    PatternType(boolean requiresProduct){
+        this.requiresProduct = requiresProduct;
+    }
+
+    //True for patterns that take a productType and a productName
+    public boolean requiresProduct() {
+        return requiresProduct;
+    }
+
+    //Trims and upper-cases a pattern id, "afdp " and "AFDP" are the same pattern
+    public static String normalize(String id){
+        return id == null ? null : id.trim().toUpperCase(Locale.ROOT);
+    }
+
+    //Returns null when the id is not a built-in pattern
+    public static PatternType fromId(String id){
+        return id == null ? null : BY_ID.get(normalize(id));
+    }
+}
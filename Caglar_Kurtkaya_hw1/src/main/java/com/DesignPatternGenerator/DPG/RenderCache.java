@@ -0,0 +1,390 @@
+package com.DesignPatternGenerator.DPG;
+
+import com.DesignPatternGenerator.Utils.Configs;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.attribute.FileTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+import java.util.zip.CRC32;
+
+//On-disk cache of rendered patterns that survives restarts, so a cold CLI run or a restarted daemon
+//serves repeated requests from disk instead of generating them again.
+//Entries are content-addressed: the key is a SHA-256 of the normalized request(pattern, names, package, profile)
+//and the values of the config sections the pattern reads, see keyOf. One file per key, <root>/<ab>/<key>.dpg,
+//holding every rendered file of the request and a CRC32 of the entry. Entries are written to a temporary file
+//and moved into place, a torn or corrupted entry fails the checksum, is deleted and counts as a miss.
+//The total size is bounded, the least recently used entries are deleted first. The order survives restarts
+//through the entries' modification times, which a hit refreshes.
+//Several processes may share a root, each one only evicts the entries it knows about.
+public class RenderCache {
+
+    public static final long DEFAULT_MAX_BYTES = 256L * 1024 * 1024;
+
+    //Bump when the generated code changes for the same inputs, older entries are then never looked up again
+    static final int FORMAT_VERSION = 1;
+
+    private static final int MAGIC = 0x44504743;    //"DPGC"
+    private static final String SUFFIX = ".dpg";
+    private static final long STALE_TMP_MILLIS = 60L * 60 * 1000;
+
+    private static final Logger logger = LoggerFactory.getLogger("RenderCache");
+
+    private final Path root;
+    private final long maxBytes;
+    //key -> entry size, in access order. Guarded by itself
+    private final LinkedHashMap<String, Long> index = new LinkedHashMap<>(64, 0.75f, true);
+    private long totalBytes;
+
+    private final AtomicLong hits = new AtomicLong();
+    private final AtomicLong misses = new AtomicLong();
+    private final AtomicLong evictions = new AtomicLong();
+    private final AtomicLong corrupted = new AtomicLong();
+
+    public RenderCache(Path root) throws IOException {
+        this(root, DEFAULT_MAX_BYTES);
+    }
+
+    //Indexes the entries already under root, oldest first, and removes temporary files an old crash left behind
+    public RenderCache(Path root, long maxBytes) throws IOException {
+        if(maxBytes < 1){
+            throw new IllegalArgumentException("maxBytes must be at least 1, was " + maxBytes);
+        }
+        this.root = root;
+        this.maxBytes = maxBytes;
+        Files.createDirectories(root);
+
+        List<Path> entries = new ArrayList<>();
+        try(Stream<Path> paths = Files.walk(root, 2)){
+            for(Path path : paths.filter(Files::isRegularFile).collect(Collectors.toList())){
+                if(path.getFileName().toString().endsWith(SUFFIX)){
+                    entries.add(path);
+                } else if(path.getFileName().toString().contains(SUFFIX + ".tmp")
+                        && lastModified(path).toMillis() < System.currentTimeMillis() - STALE_TMP_MILLIS){
+                    //old enough not to be another process's write in progress
+                    Files.deleteIfExists(path);
+                }
+            }
+        }
+        entries.sort(Comparator.comparing(RenderCache::lastModified));
+        synchronized (index){
+            for(Path entry : entries){
+                String name = entry.getFileName().toString();
+                long size = Files.size(entry);
+                index.put(name.substring(0, name.length() - SUFFIX.length()), size);
+                totalBytes += size;
+            }
+            evict();
+        }
+    }
+
+    //--------------------------------------------------------------------------------------
+    //Keys
+
+    //Cache key of what the generator would render, null when it cannot be cached(an unknown pattern or no package)
+    public static String keyOf(PatternBuilder generator){
+        if(generator.getPatternType() == null || generator.getPackName() == null){
+            return null;
+        }
+        StringBuilder key = new StringBuilder(512);
+        key.append("dpg-render-v").append(FORMAT_VERSION).append('\n');
+        key.append("pattern=").append(generator.getPatternType().name()).append('\n');
+        key.append("className=").append(generator.getClassName()).append('\n');
+        key.append("productType=").append(generator.getProductType()).append('\n');
+        key.append("productName=").append(generator.getProductName()).append('\n');
+        key.append("packName=").append(generator.getPackName()).append('\n');
+        key.append("profile=").append(generator.getProfile().name()).append('\n');
+        for(Configs.Section section : sections(generator.getPatternType(), generator.getConfigs())){
+            key.append(section.getClass().getSimpleName()).append('=').append(section.canonical()).append('\n');
+        }
+        return IncrementalSink.sha256(key.toString().getBytes(StandardCharsets.UTF_8));
+    }
+
+    //The config sections a pattern reads, a change anywhere else does not invalidate its entries
+    private static List<Configs.Section> sections(PatternType type, Configs configs){
+        switch (type){
+            case AFDP: return Collections.singletonList(configs.abstractFactory());
+            case BDP:  return Arrays.asList(configs.builder(), configs.abstractFactory());
+            case FDP:  return Arrays.asList(configs.factory(), configs.abstractFactory());
+            case FCDP: return Collections.singletonList(configs.facade());
+            case CDP:  return Collections.singletonList(configs.chain());
+            case MDP:  return Collections.singletonList(configs.mediator());
+            case VDP:  return Collections.singletonList(configs.visitor());
+            case TDP:  return Collections.singletonList(configs.template());
+            default:   throw new IllegalArgumentException("No config sections for " + type);
+        }
+    }
+
+    //--------------------------------------------------------------------------------------
+    //Lookups
+
+    //The generator's sources from the cache, or rendered and cached.
+    //Only PatternBuilder generators are cached, the output of other providers is not described by the key
+    public List<GeneratedSource> generateSources(PatternGenerator generator){
+        String key = generator instanceof PatternBuilder ? keyOf((PatternBuilder) generator) : null;
+        if(key == null){
+            return generator.generateSources();
+        }
+        List<GeneratedSource> sources = get(key);
+        if(sources == null){
+            sources = generator.generateSources();
+            put(key, sources);
+        }
+        return sources;
+    }
+
+    //The cached sources, null on a miss. A corrupted entry is deleted and reported as a miss
+    public List<GeneratedSource> get(String key){
+        Path entry = entryPath(key);
+        byte[] bytes;
+        try {
+            bytes = Files.readAllBytes(entry);
+        } catch (NoSuchFileException ex){
+            forget(key);
+            misses.incrementAndGet();
+            return null;
+        } catch (IOException ex){
+            logger.warn("Cannot read cache entry {}", entry, ex);
+            misses.incrementAndGet();
+            return null;
+        }
+
+        List<GeneratedSource> sources = decode(bytes);
+        if(sources == null){
+            logger.warn("Deleting corrupted cache entry {}", entry);
+            corrupted.incrementAndGet();
+            misses.incrementAndGet();
+            delete(key);
+            return null;
+        }
+        hits.incrementAndGet();
+        synchronized (index){
+            //also picks up entries another process wrote since this cache was opened
+            Long previous = index.put(key, (long) bytes.length);
+            totalBytes += bytes.length - (previous != null ? previous : 0);
+        }
+        try {
+            Files.setLastModifiedTime(entry, FileTime.fromMillis(System.currentTimeMillis()));
+        } catch (IOException ex){
+            //only the order after a restart is affected
+            logger.debug("Cannot touch cache entry {}", entry, ex);
+        }
+        return sources;
+    }
+
+    //Stores the sources under the key. Failures are logged, the cache is only an optimization
+    public void put(String key, List<GeneratedSource> sources){
+        byte[] bytes = encode(sources);
+        if(bytes.length > maxBytes){
+            return;
+        }
+        Path entry = entryPath(key);
+        Path tmp = null;
+        try {
+            Files.createDirectories(entry.getParent());
+            tmp = Files.createTempFile(entry.getParent(), key + SUFFIX + ".tmp", null);
+            Files.write(tmp, bytes);
+            Files.move(tmp, entry, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } catch (IOException ex){
+            logger.warn("Cannot write cache entry {}", entry, ex);
+            try {
+                if(tmp != null){
+                    Files.deleteIfExists(tmp);
+                }
+            } catch (IOException ignored){
+                //left for the next start to clean up
+            }
+            return;
+        }
+        synchronized (index){
+            Long previous = index.put(key, (long) bytes.length);
+            totalBytes += bytes.length - (previous != null ? previous : 0);
+            evict();
+        }
+    }
+
+    //Deletes every entry
+    public void clear(){
+        List<String> keys;
+        synchronized (index){
+            keys = new ArrayList<>(index.keySet());
+        }
+        for(String key : keys){
+            delete(key);
+        }
+    }
+
+    //--------------------------------------------------------------------------------------
+    //Index
+
+    //Deletes least recently used entries until the cache fits, caller holds the index lock
+    private void evict(){
+        Iterator<Map.Entry<String, Long>> eldest = index.entrySet().iterator();
+        while(totalBytes > maxBytes && eldest.hasNext()){
+            Map.Entry<String, Long> entry = eldest.next();
+            eldest.remove();
+            totalBytes -= entry.getValue();
+            evictions.incrementAndGet();
+            try {
+                Files.deleteIfExists(entryPath(entry.getKey()));
+            } catch (IOException ex){
+                logger.warn("Cannot delete cache entry {}", entry.getKey(), ex);
+            }
+        }
+    }
+
+    private void delete(String key){
+        forget(key);
+        try {
+            Files.deleteIfExists(entryPath(key));
+        } catch (IOException ex){
+            logger.warn("Cannot delete cache entry {}", key, ex);
+        }
+    }
+
+    //Drops the key from the index, e.g. after another process evicted it
+    private void forget(String key){
+        synchronized (index){
+            Long size = index.remove(key);
+            if(size != null){
+                totalBytes -= size;
+            }
+        }
+    }
+
+    private Path entryPath(String key){
+        return root.resolve(key.substring(0, 2)).resolve(key + SUFFIX);
+    }
+
+    private static FileTime lastModified(Path path){
+        try {
+            return Files.getLastModifiedTime(path);
+        } catch (IOException ex){
+            return FileTime.fromMillis(0);
+        }
+    }
+
+    //--------------------------------------------------------------------------------------
+    //Entry format: magic, version, file count, then package, type name and UTF-8 source of every file,
+    //followed by the CRC32 of everything before it
+
+    static byte[] encode(List<GeneratedSource> sources){
+        try {
+            ByteArrayOutputStream buffer = new ByteArrayOutputStream(1024);
+            DataOutputStream out = new DataOutputStream(buffer);
+            out.writeInt(MAGIC);
+            out.writeInt(FORMAT_VERSION);
+            out.writeInt(sources.size());
+            for(GeneratedSource source : sources){
+                out.writeUTF(source.getPackageName());
+                out.writeUTF(source.getTypeName());
+                byte[] text = source.getSource().getBytes(StandardCharsets.UTF_8);
+                out.writeInt(text.length);
+                out.write(text);
+            }
+            CRC32 crc = new CRC32();
+            crc.update(buffer.toByteArray());
+            out.writeLong(crc.getValue());
+            return buffer.toByteArray();
+        } catch (IOException ex){
+            throw new IllegalStateException("Cannot encode to memory", ex);
+        }
+    }
+
+    //null when the bytes are not a complete, intact entry
+    static List<GeneratedSource> decode(byte[] bytes){
+        if(bytes.length < 20){
+            return null;
+        }
+        CRC32 crc = new CRC32();
+        crc.update(bytes, 0, bytes.length - 8);
+        DataInputStream in = new DataInputStream(new ByteArrayInputStream(bytes));
+        try {
+            in.skipBytes(bytes.length - 8);
+            if(in.readLong() != crc.getValue()){
+                return null;
+            }
+            in = new DataInputStream(new ByteArrayInputStream(bytes, 0, bytes.length - 8));
+            if(in.readInt() != MAGIC || in.readInt() != FORMAT_VERSION){
+                return null;
+            }
+            int count = in.readInt();
+            List<GeneratedSource> sources = new ArrayList<>(Math.max(count, 0));
+            for(int i = 0; i < count; i++){
+                String packageName = in.readUTF();
+                String typeName = in.readUTF();
+                byte[] text = new byte[in.readInt()];
+                in.readFully(text);
+                sources.add(new GeneratedSource(packageName, typeName, new String(text, StandardCharsets.UTF_8)));
+            }
+            return in.available() == 0 ? sources : null;
+        } catch (IOException | RuntimeException ex){
+            return null;
+        }
+    }
+
+    //--------------------------------------------------------------------------------------
+
+    public long getHits() {
+        return hits.get();
+    }
+
+    public long getMisses() {
+        return misses.get();
+    }
+
+    public long getEvictions() {
+        return evictions.get();
+    }
+
+    public long getCorrupted() {
+        return corrupted.get();
+    }
+
+    //Entries this process knows about
+    public int size() {
+        synchronized (index){
+            return index.size();
+        }
+    }
+
+    public long getSizeBytes() {
+        synchronized (index){
+            return totalBytes;
+        }
+    }
+
+    public long getMaxBytes() {
+        return maxBytes;
+    }
+
+    public Path getRoot() {
+        return root;
+    }
+
+    @Override
+    public String toString() {
+        return "hits=" + getHits() + " misses=" + getMisses() + " evictions=" + getEvictions()
+                + " corrupted=" + getCorrupted() + " size=" + size() + " bytes=" + getSizeBytes();
+    }
+}
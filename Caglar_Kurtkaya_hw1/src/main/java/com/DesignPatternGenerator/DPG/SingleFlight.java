@@ -0,0 +1,56 @@
+package com.DesignPatternGenerator.DPG;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.function.Supplier;
+
+//Coalesces concurrent calls with equal keys: the first caller runs the work, callers arriving while it runs
+//wait for it and get the same result, or the same exception. Nothing is kept once the run is over,
+//a later call with the key runs the work again.
+public final class SingleFlight<K, V> {
+
+    private final ConcurrentMap<K, CompletableFuture<V>> inFlight = new ConcurrentHashMap<>();
+
+    //Runs work, or waits for the run of an equal key already in flight. shared is called when the result is another caller's
+    public V execute(K key, Supplier<V> work, Runnable shared){
+        CompletableFuture<V> mine = new CompletableFuture<>();
+        CompletableFuture<V> running = inFlight.putIfAbsent(key, mine);
+        if(running != null){
+            shared.run();
+            return await(running);
+        }
+        try {
+            V value = work.get();
+            mine.complete(value);
+            return value;
+        } catch (RuntimeException | Error ex){
+            mine.completeExceptionally(ex);
+            throw ex;
+        } finally {
+            inFlight.remove(key, mine);
+        }
+    }
+
+    //Number of keys running right now
+    public int size(){
+        return inFlight.size();
+    }
+
+    private static <V> V await(CompletableFuture<V> running){
+        try {
+            return running.join();
+        } catch (CompletionException ex){
+            //the same exception the running caller got
+            Throwable cause = ex.getCause();
+            if(cause instanceof RuntimeException){
+                throw (RuntimeException) cause;
+            }
+            if(cause instanceof Error){
+                throw (Error) cause;
+            }
+            throw ex;
+        }
+    }
+}
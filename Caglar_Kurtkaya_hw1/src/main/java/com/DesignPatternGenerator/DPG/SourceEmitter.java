@@ -0,0 +1,24 @@
+package com.DesignPatternGenerator.DPG;
+
+import java.util.Locale;
+
+//How generated types are turned into source text, set by "emitter" in application.conf or per generator
+public enum SourceEmitter {
+    //TypeSpecs rendered by JavaPoet, for every pattern. The default
+    JAVAPOET,
+    //Opt-in. Fixed-shape patterns(Facade and Template) are rendered straight from precompiled templates
+    //into the same text JavaPoet would produce, every other pattern still goes through JavaPoet
+    TEMPLATE;
+
+    //Case-insensitive, returns null when the id is not an emitter
+    public static SourceEmitter fromId(String id){
+        if(id == null){
+            return null;
+        }
+        try {
+            return valueOf(id.trim().toUpperCase(Locale.ROOT));
+        } catch (IllegalArgumentException ex){
+            return null;
+        }
+    }
+}
@@ -0,0 +1,182 @@
+package com.DesignPatternGenerator.DPG;
+
+import com.DesignPatternGenerator.Utils.Configs;
+
+import javax.lang.model.SourceVersion;
+import java.util.ArrayList;
+import java.util.List;
+
+//The TEMPLATE emitter: renders the fixed-shape types of the Facade and Template patterns without JavaPoet.
+//Every template is split into literal text and slots once, rendering appends them to a per-thread StringBuilder,
+//so a file costs one StringBuilder pass and one String copy instead of a TypeSpec tree and a JavaFile rendering.
+//The text is the same JavaPoet 1.12.1 writes for these types, SourceEmitterTest compares the two
+final class SourceTemplates {
+
+    private static final String FILE_COMMENT = "// AUTO_GENERATED BY Caglar Kurtkaya\n";
+    private static final String OVERRIDE_IMPORT = "import java.lang.Override;\n\n";
+
+    //Facade Design Pattern
+    private static final Template ABSTRACT_FACADE = Template.compile(
+            "public abstract class {facade} {\n" +
+            "  /**\n" +
+            "   * To be implemented by the user.\n" +
+            "   */\n" +
+            "  public abstract void {operation}();\n" +
+            "}\n", "facade", "operation");
+
+    private static final Template FACADE_CLASS = Template.compile(
+            "{modifiers} class {className} extends {facade} {\n" +
+            "  /**\n" +
+            "   * To be implemented by the user.\n" +
+            "   */\n" +
+            "  @Override\n" +
+            "  public void {operation}() {\n" +
+            "  }\n" +
+            "}\n", "modifiers", "className", "facade", "operation");
+
+    //Template Design Pattern
+    private static final Template ABSTRACT_TEMPLATE = Template.compile(
+            "public abstract class {template} {\n" +
+            "  protected abstract void {method1}();\n" +
+            "\n" +
+            "  protected abstract void {method2}();\n" +
+            "}\n", "template", "method1", "method2");
+
+    private static final Template CONCRETE_TEMPLATE = Template.compile(
+            "{modifiers} class {className} extends {template} {\n" +
+            "  @Override\n" +
+            "  protected void {method1}() {\n" +
+            "  }\n" +
+            "\n" +
+            "  @Override\n" +
+            "  protected void {method2}() {\n" +
+            "  }\n" +
+            "}\n", "modifiers", "className", "template", "method1", "method2");
+
+    private static final ThreadLocal<StringBuilder> BUFFER = ThreadLocal.withInitial(() -> new StringBuilder(512));
+
+    private SourceTemplates(){
+    }
+
+    //Every name is a simple identifier(isName would also accept dotted names), none of the types is called Override,
+    //which JavaPoet would write as @java.lang.Override without the import, and the package is not java.lang,
+    //where JavaPoet leaves out the import of Override. Anything else is left to JavaPoet
+    static boolean canEmit(String packName, String className, String superclass, String... methods){
+        if("java.lang".equals(packName) || !emittable(className) || !emittable(superclass)){
+            return false;
+        }
+        for(String method : methods){
+            if(!identifier(method)){
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static boolean emittable(String typeName){
+        return identifier(typeName) && !typeName.equals("Override");
+    }
+
+    private static boolean identifier(String name){
+        return name != null && SourceVersion.isIdentifier(name) && !SourceVersion.isKeyword(name);
+    }
+
+    static boolean canEmitFacade(Configs.FacadeConfig facade, String packName, String className){
+        return canEmit(packName, className, facade.classFacade, facade.methodFacadeOperation);
+    }
+
+    static boolean canEmitTemplate(Configs.TemplateConfig template, String packName, String className){
+        return canEmit(packName, className, template.templateName, template.methodName1, template.methodName2);
+    }
+
+    static GeneratedSource abstractFacade(String packName, Configs.FacadeConfig facade){
+        return render(packName, facade.classFacade, false, ABSTRACT_FACADE, facade.classFacade, facade.methodFacadeOperation);
+    }
+
+    static GeneratedSource facadeClass(String packName, String className, boolean finalClass, Configs.FacadeConfig facade){
+        return render(packName, className, true, FACADE_CLASS, modifiers(finalClass), className,
+                facade.classFacade, facade.methodFacadeOperation);
+    }
+
+    static GeneratedSource abstractTemplate(String packName, Configs.TemplateConfig template){
+        return render(packName, template.templateName, false, ABSTRACT_TEMPLATE,
+                template.templateName, template.methodName1, template.methodName2);
+    }
+
+    static GeneratedSource concreteTemplate(String packName, String className, boolean finalClass, Configs.TemplateConfig template){
+        return render(packName, className, true, CONCRETE_TEMPLATE, modifiers(finalClass), className,
+                template.templateName, template.methodName1, template.methodName2);
+    }
+
+    private static String modifiers(boolean finalClass){
+        return finalClass ? "public final" : "public";
+    }
+
+    //File comment, package(none for the default package), imports and the type, as JavaFile writes them
+    private static GeneratedSource render(String packName, String typeName, boolean importsOverride,
+                                          Template template, String... values){
+        StringBuilder sb = BUFFER.get();
+        sb.setLength(0);
+        sb.append(FILE_COMMENT);
+        if(!packName.isEmpty()){
+            sb.append("package ").append(packName).append(";\n\n");
+        }
+        if(importsOverride){
+            sb.append(OVERRIDE_IMPORT);
+        }
+        template.render(sb, values);
+        return new GeneratedSource(packName, typeName, sb.toString());
+    }
+
+    //A template compiled into literal text and slots, "{name}" marks a slot
+    private static final class Template {
+        private final String[] literals;
+        private final int[] slots;
+
+        private Template(String[] literals, int[] slots){
+            this.literals = literals;
+            this.slots = slots;
+        }
+
+        //The slots are numbered in the order of the names, a slot may be used more than once
+        private static Template compile(String text, String... names){
+            List<String> literals = new ArrayList<>();
+            List<Integer> slots = new ArrayList<>();
+            int from = 0;
+            for(int open = text.indexOf('{'); open >= 0; open = text.indexOf('{', open + 1)){
+                int close = text.indexOf('}', open);
+                int slot = close < 0 ? -1 : indexOf(names, text.substring(open + 1, close));
+                if(slot < 0){
+                    continue;   //a brace of the generated code
+                }
+                literals.add(text.substring(from, open));
+                slots.add(slot);
+                from = close + 1;
+                open = close;
+            }
+            literals.add(text.substring(from));
+
+            int[] slotArray = new int[slots.size()];
+            for(int i = 0; i < slotArray.length; i++){
+                slotArray[i] = slots.get(i);
+            }
+            return new Template(literals.toArray(new String[0]), slotArray);
+        }
+
+        private static int indexOf(String[] names, String name){
+            for(int i = 0; i < names.length; i++){
+                if(names[i].equals(name)){
+                    return i;
+                }
+            }
+            return -1;
+        }
+
+        private void render(StringBuilder sb, String... values){
+            for(int i = 0; i < slots.length; i++){
+                sb.append(literals[i]).append(values[slots[i]]);
+            }
+            sb.append(literals[slots.length]);
+        }
+    }
+}
@@ -0,0 +1,204 @@
+package com.DesignPatternGenerator.DPG;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.channels.FileChannel;
+import java.nio.channels.FileLock;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+//Transactional output: files are written to a staging directory next to the source root
+//and only moved into place by commit(). Every file is replaced with an atomic rename, so readers
+//never see a half-written file, and if a move fails the files already moved are rolled back.
+//Closing a sink that was not committed discards everything it staged.
+//Commits to the same root are serialized, across threads by an in-process lock and across processes
+//by a lock file, so their backups and restores never interleave. Lock files live in LOCK_DIR
+//(<java.io.tmpdir>/dpg-locks-<user>), one per root named after the SHA-256 of its real path, never next to the root.
+//They are kept after a commit, deleting one would let a process that is waiting on it lock a file nobody else sees.
+//
+//  try(StagedSink sink = new StagedSink(root)){
+//      ...write...
+//      sink.commit();
+//  }
+public class StagedSink implements OutputSink {
+
+    private static final Logger logger = LoggerFactory.getLogger("StagedSink");
+
+    //Where the lock files of every root are kept
+    public static final Path LOCK_DIR = Paths.get(System.getProperty("java.io.tmpdir"), "dpg-locks-" + System.getProperty("user.name"));
+
+    //One lock per real root path, held by the commit running in this JVM
+    private static final ConcurrentMap<Path, ReentrantLock> commitLocks = new ConcurrentHashMap<>();
+
+    private final Path root;
+    private final Path realRoot;
+    private final Path lockFile;
+    private final Path stagingDir;
+    private final Path staged;
+    private final Path backup;
+    private final DirectorySink target;
+    private volatile boolean done;
+
+    public StagedSink(Path root) throws IOException {
+        this.root = root.toAbsolutePath().normalize();
+        Path parent = this.root.getParent();
+        if(parent == null){
+            throw new IllegalArgumentException("Cannot stage output for " + this.root + ", it has no parent directory");
+        }
+        Files.createDirectories(this.root);
+        this.realRoot = this.root.toRealPath();
+        this.lockFile = LOCK_DIR.resolve(IncrementalSink.sha256(realRoot.toString().getBytes(StandardCharsets.UTF_8)) + ".lock");
+        //Next to the root so the renames stay on one file system, and outside it so builds never compile it
+        this.stagingDir = Files.createTempDirectory(parent, ".dpg-staging-");
+        this.staged = stagingDir.resolve("files");
+        this.backup = stagingDir.resolve("backup");
+        this.target = new DirectorySink(staged);
+    }
+
+    public Path getRoot() {
+        return root;
+    }
+
+    @Override
+    public void write(GeneratedSource source) throws IOException {
+        if(done){
+            throw new IllegalStateException("StagedSink is already committed or rolled back");
+        }
+        target.write(source);
+    }
+
+    //Moves every staged file under the root. If a move fails, the files moved so far are restored
+    //to their previous content(or deleted when they are new) and the exception is rethrown.
+    //Waits for a commit to the same root that is already running, in this or another process
+    public synchronized void commit() throws IOException {
+        if(done){
+            throw new IllegalStateException("StagedSink is already committed or rolled back");
+        }
+        done = true;
+        try {
+            ReentrantLock lock = commitLocks.computeIfAbsent(realRoot, path -> new ReentrantLock());
+            lock.lock();
+            try {
+                Files.createDirectories(LOCK_DIR);
+                try(FileChannel channel = FileChannel.open(lockFile, StandardOpenOption.CREATE, StandardOpenOption.WRITE)){
+                    FileLock fileLock = channel.lock();
+                    try {
+                        moveStaged();
+                    } finally {
+                        fileLock.release();
+                    }
+                }
+            } finally {
+                lock.unlock();
+            }
+        } finally {
+            deleteRecursively(stagingDir);
+        }
+    }
+
+    private void moveStaged() throws IOException {
+        List<Path> committed = new ArrayList<>();
+        try {
+            if(Files.isDirectory(staged)){
+                for(Path file : stagedFiles()){
+                    Path relative = staged.relativize(file);
+                    Path destination = root.resolve(relative.toString());
+                    Files.createDirectories(destination.getParent());
+                    if(Files.isRegularFile(destination)){
+                        keepBackup(destination, backup.resolve(relative.toString()));
+                    }
+                    moveAtomically(file, destination);
+                    committed.add(relative);
+                }
+            }
+        } catch (IOException | RuntimeException ex){
+            logger.error("Commit to {} failed, rolling back {} files", root, committed.size(), ex);
+            restore(committed);
+            throw ex;
+        }
+    }
+
+    //Discards the staged files, the root is left as it was
+    public synchronized void rollback() throws IOException {
+        if(!done){
+            done = true;
+            deleteRecursively(stagingDir);
+        }
+    }
+
+    @Override
+    public void close() throws IOException {
+        rollback();
+    }
+
+    private List<Path> stagedFiles() throws IOException {
+        try(Stream<Path> files = Files.walk(staged)){
+            return files.filter(Files::isRegularFile).sorted().collect(Collectors.toList());
+        }
+    }
+
+    //A hard link keeps the old file in place until it is replaced, copies are the fallback
+    private static void keepBackup(Path file, Path copy) throws IOException {
+        Files.createDirectories(copy.getParent());
+        try {
+            Files.createLink(copy, file);
+        } catch (IOException | UnsupportedOperationException ex){
+            Files.copy(file, copy, StandardCopyOption.REPLACE_EXISTING);
+        }
+    }
+
+    //Atomic rename, or an atomic rename of a copy next to the destination when the file systems differ
+    private static void moveAtomically(Path source, Path destination) throws IOException {
+        try {
+            Files.move(source, destination, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+        } catch (AtomicMoveNotSupportedException ex){
+            Path copy = destination.resolveSibling(destination.getFileName() + ".dpg-tmp");
+            Files.copy(source, copy, StandardCopyOption.REPLACE_EXISTING);
+            Files.move(copy, destination, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+            Files.delete(source);
+        }
+    }
+
+    private void restore(List<Path> committed){
+        for(int i = committed.size() - 1; i >= 0; i--){
+            Path relative = committed.get(i);
+            Path destination = root.resolve(relative.toString());
+            Path old = backup.resolve(relative.toString());
+            try {
+                if(Files.exists(old)){
+                    moveAtomically(old, destination);
+                } else {
+                    Files.deleteIfExists(destination);
+                }
+            } catch (IOException ex){
+                logger.error("Cannot roll back {}", destination, ex);
+            }
+        }
+    }
+
+    private static void deleteRecursively(Path dir) throws IOException {
+        if(!Files.exists(dir)){
+            return;
+        }
+        try(Stream<Path> paths = Files.walk(dir)){
+            for(Path path : paths.sorted(Comparator.reverseOrder()).collect(Collectors.toList())){
+                Files.deleteIfExists(path);
+            }
+        }
+    }
+}
@@ -0,0 +1,65 @@
+package com.DesignPatternGenerator.DPG;
+
+import java.io.BufferedOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.jar.Attributes;
+import java.util.jar.JarOutputStream;
+import java.util.jar.Manifest;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipOutputStream;
+
+//Packs the generated files into a zip, or a sources jar when the file name ends with .jar.
+//The archive is complete only after close()
+public class ZipSink implements OutputSink {
+
+    private final ZipOutputStream zip;
+    //SHA-256 of every entry written, by path
+    private final Map<String, String> entries = new HashMap<>();
+
+    public ZipSink(Path archive) throws IOException {
+        OutputStream out = new BufferedOutputStream(Files.newOutputStream(archive));
+        if(archive.getFileName().toString().endsWith(".jar")){
+            Manifest manifest = new Manifest();
+            manifest.getMainAttributes().put(Attributes.Name.MANIFEST_VERSION, "1.0");
+            this.zip = new JarOutputStream(out, manifest);
+        } else {
+            this.zip = new ZipOutputStream(out);
+        }
+    }
+
+    //A zip cannot hold the same entry twice: a repeated file with the same content is skipped,
+    //one with different content fails instead of silently losing it
+    @Override
+    public void write(GeneratedSource source) throws IOException {
+        writeCounted(source);
+    }
+
+    //Returns the bytes added to the archive, 0 for a skipped repeat
+    @Override
+    public synchronized long writeCounted(GeneratedSource source) throws IOException {
+        byte[] bytes = source.getSource().getBytes(StandardCharsets.UTF_8);
+        String hash = IncrementalSink.sha256(bytes);
+        String written = entries.putIfAbsent(source.getRelativePath(), hash);
+        if(written != null){
+            if(written.equals(hash)){
+                return 0;
+            }
+            throw new IOException(source.getRelativePath() + " is already in the archive with different content");
+        }
+        zip.putNextEntry(new ZipEntry(source.getRelativePath()));
+        zip.write(bytes);
+        zip.closeEntry();
+        return bytes.length;
+    }
+
+    @Override
+    public synchronized void close() throws IOException {
+        zip.close();
+    }
+}
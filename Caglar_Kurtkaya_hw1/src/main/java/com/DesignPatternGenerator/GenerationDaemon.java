@@ -0,0 +1,286 @@
+package com.DesignPatternGenerator;
+
+import com.DesignPatternGenerator.DPG.DePaCoG;
+import com.DesignPatternGenerator.DPG.DirectorySink;
+import com.DesignPatternGenerator.DPG.GenerationMetrics;
+import com.DesignPatternGenerator.DPG.InMemorySink;
+import com.DesignPatternGenerator.DPG.OutputSink;
+import com.DesignPatternGenerator.DPG.PatternRequest;
+import com.DesignPatternGenerator.DPG.PatternResult;
+import com.DesignPatternGenerator.DPG.RenderCache;
+import com.DesignPatternGenerator.Utils.Json;
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+import com.typesafe.config.Config;
+import com.typesafe.config.ConfigFactory;
+import com.typesafe.config.ConfigParseOptions;
+import com.typesafe.config.ConfigSyntax;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.ByteArrayOutputStream;
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.FileSystems;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.nio.file.attribute.FileAttribute;
+import java.nio.file.attribute.PosixFilePermissions;
+import java.security.MessageDigest;
+import java.security.SecureRandom;
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+//Long-running generator listening on a loopback HTTP port, so build tools talk to a warm JVM.
+//  POST /generate  body: one request object, or { requests: [ ... ] } for a batch, optionally with
+//                  outputDir: "path" to write files there and reply with paths instead of sources
+//  GET  /health    replies ok
+//Request objects are the ones PatternRequest.fromConfig reads. The reply looks like
+//  { "results": [ { "request": "...", "success": true, "elapsedMillis": 3, "conflicts": [],
+//                   "sources": { "Outputs.Bank": "..." } } ] }     (or "paths": [ ... ] with outputDir)
+//Any local process and any web page open in a browser can reach a loopback port, so /generate only accepts
+//  - the daemon's token in an "Authorization: Bearer <token>" header, see getToken() and writeToken(file)
+//  - Content-Type application/json and no Origin header, which rules out requests sent by browsers
+//  - an outputDir inside the daemon's output root, without one the daemon never writes files
+public class GenerationDaemon implements Closeable {
+
+    public static final int DEFAULT_PORT = 8437;
+
+    private static final ConfigParseOptions JSON = ConfigParseOptions.defaults().setSyntax(ConfigSyntax.JSON);
+    private static final Logger logger = LoggerFactory.getLogger("GenerationDaemon");
+
+    private final DePaCoG generator;
+    private final GenerationMetrics metrics;
+    private final HttpServer server;
+    private final ExecutorService executor;
+    private final String token = newToken();
+    //Absolute and real path of the directory outputDir is resolved against, null when outputDir is not allowed
+    private final Path outputRoot;
+    private final Path realOutputRoot;
+
+    //port 0 picks a free port, see getPort(). Replies with sources only, outputDir is rejected
+    public GenerationDaemon(int port, int threads) throws IOException {
+        this(port, threads, null, null);
+    }
+
+    //renderCache keeps rendered requests across restarts of the daemon, null turns it off.
+    //outputDir of a request is resolved under outputRoot and must stay inside it, null rejects every outputDir
+    public GenerationDaemon(int port, int threads, RenderCache renderCache, Path outputRoot) throws IOException {
+        if(outputRoot != null){
+            this.outputRoot = outputRoot.toAbsolutePath().normalize();
+            this.realOutputRoot = Files.createDirectories(this.outputRoot).toRealPath();
+        } else {
+            this.outputRoot = null;
+            this.realOutputRoot = null;
+        }
+        this.server = HttpServer.create(new InetSocketAddress(InetAddress.getLoopbackAddress(), port), 0);
+        //registered once the port is bound, so a daemon that fails to start leaves no MBean behind
+        this.metrics = new GenerationMetrics().registerMBean();
+        this.generator = new DePaCoG(threads, metrics, renderCache);
+        this.executor = Executors.newFixedThreadPool(threads);
+        server.setExecutor(executor);
+        server.createContext("/generate", this::handleGenerate);
+        server.createContext("/health", exchange -> reply(exchange, 200, "text/plain", "ok"));
+    }
+
+    public GenerationDaemon start(){
+        server.start();
+        logger.info("Generation daemon listening on {}", server.getAddress());
+        return this;
+    }
+
+    public int getPort(){
+        return server.getAddress().getPort();
+    }
+
+    //Secret a client must send as "Authorization: Bearer <token>", new for every daemon
+    public String getToken(){
+        return token;
+    }
+
+    //Writes the token to file, readable and writable by the owner only where the file system supports it
+    public Path writeToken(Path file) throws IOException {
+        Path dir = file.toAbsolutePath().getParent();
+        if(dir != null){
+            Files.createDirectories(dir);
+        }
+        Files.deleteIfExists(file);
+        boolean posix = FileSystems.getDefault().supportedFileAttributeViews().contains("posix");
+        FileAttribute<?>[] ownerOnly = posix
+                ? new FileAttribute<?>[]{PosixFilePermissions.asFileAttribute(PosixFilePermissions.fromString("rw-------"))}
+                : new FileAttribute<?>[0];
+        Files.createFile(file, ownerOnly);
+        Files.write(file, token.getBytes(StandardCharsets.US_ASCII), StandardOpenOption.TRUNCATE_EXISTING);
+        return file;
+    }
+
+    @Override
+    public void close(){
+        server.stop(0);
+        executor.shutdown();
+        generator.close();
+        metrics.unregisterMBean();
+    }
+
+    private void handleGenerate(HttpExchange exchange) throws IOException {
+        if(!"POST".equals(exchange.getRequestMethod())){
+            reply(exchange, 405, "application/json", "{\"error\":\"use POST\"}");
+            return;
+        }
+        //browsers always send Origin on cross-origin POSTs, build tools never do
+        if(exchange.getRequestHeaders().containsKey("Origin")){
+            reply(exchange, 403, "application/json", "{\"error\":\"requests from browsers are not accepted\"}");
+            return;
+        }
+        if(!isAuthorized(exchange.getRequestHeaders().getFirst("Authorization"))){
+            reply(exchange, 401, "application/json", "{\"error\":\"missing or wrong token\"}");
+            return;
+        }
+        String contentType = exchange.getRequestHeaders().getFirst("Content-Type");
+        if(contentType == null || !contentType.split(";")[0].trim().equalsIgnoreCase("application/json")){
+            reply(exchange, 415, "application/json", "{\"error\":\"use Content-Type application/json\"}");
+            return;
+        }
+        try {
+            Config body = ConfigFactory.parseString(readBody(exchange.getRequestBody()), JSON);
+            List<PatternRequest> requests = new ArrayList<>();
+            if(body.hasPath("requests")){
+                for(Config c : body.getConfigList("requests")){
+                    requests.add(PatternRequest.fromConfig(c));
+                }
+            } else {
+                requests.add(PatternRequest.fromConfig(body));
+            }
+
+            String outputDir = body.hasPath("outputDir") ? body.getString("outputDir") : null;
+            DirectorySink directory = outputDir != null ? new DirectorySink(resolveOutputDir(outputDir)) : null;
+            InMemorySink memory = outputDir == null ? new InMemorySink() : null;
+            OutputSink sink = directory != null ? directory : memory;
+
+            List<PatternResult> results = requests.size() == 1
+                    ? Collections.singletonList(generator.generatePattern(requests.get(0), sink))
+                    : generator.generateAll(requests, sink);
+            reply(exchange, 200, "application/json", toJson(results, directory, memory));
+        } catch (RuntimeException ex){
+            logger.warn("Bad generation request", ex);
+            reply(exchange, 400, "application/json", Json.quote(new StringBuilder("{\"error\":"), String.valueOf(ex.getMessage())).append('}').toString());
+        }
+    }
+
+    private boolean isAuthorized(String authorization){
+        if(authorization == null || !authorization.startsWith("Bearer ")){
+            return false;
+        }
+        //constant time, so the token cannot be guessed from response times
+        return MessageDigest.isEqual(token.getBytes(StandardCharsets.US_ASCII),
+                authorization.substring("Bearer ".length()).trim().getBytes(StandardCharsets.US_ASCII));
+    }
+
+    //outputDir relative to the output root, rejected when it leaves the root, also through a symbolic link
+    private Path resolveOutputDir(String outputDir){
+        if(outputRoot == null){
+            throw new IllegalArgumentException("outputDir is not allowed, the daemon has no output root");
+        }
+        Path dir = outputRoot.resolve(outputDir).normalize();
+        Path existing = dir;
+        while(existing != null && !Files.exists(existing)){
+            existing = existing.getParent();
+        }
+        try {
+            if(!dir.startsWith(outputRoot) || existing == null || !existing.toRealPath().startsWith(realOutputRoot)){
+                throw new IllegalArgumentException("outputDir " + outputDir + " is outside the output root");
+            }
+        } catch (IOException ex){
+            throw new UncheckedIOException("Cannot resolve outputDir " + outputDir, ex);
+        }
+        return dir;
+    }
+
+    private static String newToken(){
+        byte[] bytes = new byte[32];
+        new SecureRandom().nextBytes(bytes);
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(bytes);
+    }
+
+    private static String toJson(List<PatternResult> results, DirectorySink directory, InMemorySink memory){
+        Map<String, String> sources = memory != null ? memory.getSources() : null;
+        StringBuilder out = new StringBuilder("{\"results\":[");
+        for(int i = 0; i < results.size(); i++){
+            PatternResult result = results.get(i);
+            if(i > 0){
+                out.append(',');
+            }
+            Json.quote(out.append("{\"request\":"), result.getRequest().toString());
+            out.append(",\"success\":").append(result.isSuccess());
+            out.append(",\"elapsedMillis\":").append(result.getElapsedMillis());
+            if(result.getError() != null){
+                Json.quote(out.append(",\"error\":"), String.valueOf(result.getError()));
+            }
+            out.append(",\"conflicts\":[");
+            appendStrings(out, result.getConflicts());
+            out.append(']');
+            if(sources != null){
+                out.append(",\"sources\":{");
+                boolean first = true;
+                for(String name : result.getFiles()){
+                    if(!first){
+                        out.append(',');
+                    }
+                    first = false;
+                    Json.quote(out, name).append(':');
+                    Json.quote(out, sources.get(name));
+                }
+                out.append('}');
+            } else {
+                List<String> paths = new ArrayList<>();
+                for(String name : result.getFiles()){
+                    paths.add(directory.getRoot().resolve(name.replace('.', '/') + ".java").toString());
+                }
+                out.append(",\"paths\":[");
+                appendStrings(out, paths);
+                out.append(']');
+            }
+            out.append('}');
+        }
+        return out.append("]}").toString();
+    }
+
+    private static void appendStrings(StringBuilder out, List<String> values){
+        for(int i = 0; i < values.size(); i++){
+            if(i > 0){
+                out.append(',');
+            }
+            Json.quote(out, values.get(i));
+        }
+    }
+
+    private static String readBody(InputStream in) throws IOException {
+        ByteArrayOutputStream body = new ByteArrayOutputStream();
+        byte[] buffer = new byte[8192];
+        for(int n = in.read(buffer); n != -1; n = in.read(buffer)){
+            body.write(buffer, 0, n);
+        }
+        return new String(body.toByteArray(), StandardCharsets.UTF_8);
+    }
+
+    private static void reply(HttpExchange exchange, int status, String contentType, String body) throws IOException {
+        byte[] bytes = body.getBytes(StandardCharsets.UTF_8);
+        exchange.getResponseHeaders().set("Content-Type", contentType);
+        exchange.sendResponseHeaders(status, bytes.length);
+        try(OutputStream out = exchange.getResponseBody()){
+            out.write(bytes);
+        }
+    }
+}
@@ -0,0 +1,340 @@
+package com.DesignPatternGenerator;
+
+import com.DesignPatternGenerator.DPG.AbstractFactory;
+import com.DesignPatternGenerator.DPG.DePaCoG;
+import com.DesignPatternGenerator.DPG.DirectorySink;
+import com.DesignPatternGenerator.DPG.FragmentCache;
+import com.DesignPatternGenerator.DPG.GeneratedSource;
+import com.DesignPatternGenerator.DPG.IncrementalSink;
+import com.DesignPatternGenerator.DPG.MetricsRecorder;
+import com.DesignPatternGenerator.DPG.OutputSink;
+import com.DesignPatternGenerator.DPG.PatternFactory;
+import com.DesignPatternGenerator.DPG.PatternGenerator;
+import com.DesignPatternGenerator.DPG.PatternRegistry;
+import com.DesignPatternGenerator.DPG.PatternRequest;
+import com.DesignPatternGenerator.DPG.PatternResult;
+import com.DesignPatternGenerator.DPG.RenderCache;
+import com.DesignPatternGenerator.DPG.StagedSink;
+import com.DesignPatternGenerator.Utils.Configs;
+import com.typesafe.config.ConfigFactory;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.PrintStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+//Bulk generation from a request manifest, one JSON or single-line HOCON request per line
+//(the objects PatternRequest.fromConfig reads). Blank lines and lines starting with # are skipped,
+//lines that do not parse or fail validation(AbstractFactory.validate) are logged and counted as failed.
+//
+//  GeneratorCli <manifest|-> <outputDir> [--threads N] [--queue N] [--incremental|--atomic] [--cache dir [--cache-size MB]]
+//
+//A missing or bad option value, an unknown option or --incremental with --atomic prints the usage and exits with 2.
+//The manifest is streamed through a pipeline with bounded queues between the stages:
+//  reader(parse) -> N workers(build specs, render) -> writer(write)
+//so memory stays constant whatever the manifest size. With --atomic the run is staged and only moved
+//into outputDir when no request failed. Requests are not merged across the manifest,
+//a type generated twice is written twice and the last one wins.
+//With --cache requests rendered by an earlier run are read from that RenderCache directory instead of generated.
+//generateBatch is the merged alternative for callers that need the same output whatever the thread count.
+public class GeneratorCli {
+
+    private static final PatternRequest END_OF_REQUESTS = new PatternRequest("", "", "");
+    private static final List<GeneratedSource> END_OF_FILES = new ArrayList<>();
+
+    private static final Logger logger = LoggerFactory.getLogger("GeneratorCli");
+
+    //Counters of a run
+    public static final class Summary {
+        private final AtomicLong requests = new AtomicLong();
+        private final AtomicLong failed = new AtomicLong();
+        private final AtomicLong files = new AtomicLong();
+        private final long start = System.nanoTime();
+        private volatile long end;
+
+        public long getRequests() {
+            return requests.get();
+        }
+
+        public long getFailed() {
+            return failed.get();
+        }
+
+        public long getFiles() {
+            return files.get();
+        }
+
+        public long getElapsedMillis() {
+            return TimeUnit.NANOSECONDS.toMillis((end != 0 ? end : System.nanoTime()) - start);
+        }
+
+        @Override
+        public String toString() {
+            long millis = Math.max(getElapsedMillis(), 1);
+            return getRequests() + " requests, " + getFailed() + " failed, " + getFiles() + " files in " + millis + " ms ("
+                    + (getFiles() * 1000 / millis) + " files/s)";
+        }
+    }
+
+    private static final String USAGE = "Usage: GeneratorCli <manifest|-> <outputDir> [--threads N] [--queue N] [--incremental|--atomic]"
+            + " [--cache dir [--cache-size MB]]";
+
+    //The parsed command line, parse throws IllegalArgumentException for anything main should answer with the usage
+    static final class Options {
+        String manifest;
+        String outputDir;
+        int threads = Runtime.getRuntime().availableProcessors();
+        int queue = 1024;
+        boolean incremental;
+        boolean atomic;
+        String cacheDir;
+        long cacheBytes = RenderCache.DEFAULT_MAX_BYTES;
+
+        static Options parse(String[] args){
+            if(args.length < 2){
+                throw new IllegalArgumentException("A manifest and an output directory are required");
+            }
+            Options options = new Options();
+            options.manifest = args[0];
+            options.outputDir = args[1];
+            for(int i = 2; i < args.length; i++){
+                switch (args[i]){
+                    case "--threads": options.threads = positive(args[i], value(args, ++i)); break;
+                    case "--queue": options.queue = positive(args[i], value(args, ++i)); break;
+                    case "--incremental": options.incremental = true; break;
+                    case "--atomic": options.atomic = true; break;
+                    case "--cache": options.cacheDir = value(args, ++i); break;
+                    case "--cache-size": options.cacheBytes = positive(args[i], value(args, ++i)) * 1024L * 1024; break;
+                    default: throw new IllegalArgumentException("Unknown option " + args[i]);
+                }
+            }
+            //An incremental run writes in place, an atomic one stages everything, they cannot be combined
+            if(options.incremental && options.atomic){
+                throw new IllegalArgumentException("--incremental and --atomic cannot be combined");
+            }
+            return options;
+        }
+
+        //The value of the option at i - 1
+        private static String value(String[] args, int i){
+            if(i >= args.length){
+                throw new IllegalArgumentException(args[i - 1] + " needs a value");
+            }
+            return args[i];
+        }
+
+        private static int positive(String option, String value){
+            try {
+                int number = Integer.parseInt(value);
+                if(number > 0){
+                    return number;
+                }
+            } catch (NumberFormatException ex){
+                //reported below
+            }
+            throw new IllegalArgumentException(option + " needs a positive number, was '" + value + "'");
+        }
+    }
+
+    public static void main(String[] args) throws IOException, InterruptedException {
+        Options options;
+        try {
+            options = Options.parse(args);
+        } catch (IllegalArgumentException ex){
+            System.err.println(ex.getMessage());
+            System.err.println(USAGE);
+            System.exit(2);
+            return;
+        }
+        BufferedReader manifest = options.manifest.equals("-")
+                ? new BufferedReader(new InputStreamReader(System.in, StandardCharsets.UTF_8))
+                : Files.newBufferedReader(Paths.get(options.manifest), StandardCharsets.UTF_8);
+        RenderCache cache = options.cacheDir != null ? new RenderCache(Paths.get(options.cacheDir), options.cacheBytes) : null;
+        Summary summary;
+        Path outputDir = Paths.get(options.outputDir);
+        try(OutputSink sink = options.atomic ? new StagedSink(outputDir)
+                : options.incremental ? new IncrementalSink(outputDir) : new DirectorySink(outputDir)){
+            summary = generate(manifest, sink, options.threads, options.queue, System.out, cache);
+            //A staged run is only moved into place when every request succeeded
+            if(options.atomic && summary.getFailed() == 0){
+                ((StagedSink) sink).commit();
+            }
+        } finally {
+            manifest.close();
+        }
+        System.out.println("Done: " + summary);
+        if(cache != null){
+            System.out.println("Render cache: " + cache);
+        }
+        if(summary.getFailed() > 0){
+            System.exit(1);
+        }
+    }
+
+    //Runs the pipeline until the manifest is exhausted, progress is printed every second when progress is not null
+    public static Summary generate(BufferedReader manifest, OutputSink sink, int workers, int queueCapacity, PrintStream progress)
+            throws IOException, InterruptedException {
+        return generate(manifest, sink, workers, queueCapacity, progress, null);
+    }
+
+    //Same as generate(manifest, sink, workers, queueCapacity, progress) serving repeated requests from cache, when not null
+    public static Summary generate(BufferedReader manifest, OutputSink sink, int workers, int queueCapacity, PrintStream progress,
+                                   RenderCache cache) throws IOException, InterruptedException {
+        Summary summary = new Summary();
+        BlockingQueue<PatternRequest> requests = new ArrayBlockingQueue<>(queueCapacity);
+        BlockingQueue<List<GeneratedSource>> rendered = new ArrayBlockingQueue<>(queueCapacity);
+        AbstractFactory af = new PatternFactory();
+
+        ExecutorService pool = Executors.newFixedThreadPool(workers + 1);
+        ScheduledExecutorService reporter = Executors.newSingleThreadScheduledExecutor();
+        if(progress != null){
+            reporter.scheduleAtFixedRate(() -> progress.println("Progress: " + summary), 1, 1, TimeUnit.SECONDS);
+        }
+        try {
+            AtomicInteger running = new AtomicInteger(workers);
+            for(int i = 0; i < workers; i++){
+                pool.execute(() -> render(af, cache, requests, rendered, running, summary));
+            }
+            pool.execute(() -> write(rendered, sink, summary));
+
+            //Stage 1, on the calling thread: parse
+            long lineNumber = 0;
+            for(String line = manifest.readLine(); line != null; line = manifest.readLine()){
+                lineNumber++;
+                String trimmed = line.trim();
+                if(trimmed.isEmpty() || trimmed.startsWith("#")){
+                    continue;
+                }
+                try {
+                    requests.put(af.validate(PatternRequest.fromConfig(ConfigFactory.parseString(trimmed))));
+                } catch (RuntimeException ex){
+                    summary.requests.incrementAndGet();
+                    summary.failed.incrementAndGet();
+                    logger.warn("Skipping line {}: {}", lineNumber, ex.getMessage());
+                }
+            }
+            for(int i = 0; i < workers; i++){
+                requests.put(END_OF_REQUESTS);
+            }
+            pool.shutdown();
+            pool.awaitTermination(Long.MAX_VALUE, TimeUnit.DAYS);
+        } finally {
+            pool.shutdownNow();
+            reporter.shutdownNow();
+            summary.end = System.nanoTime();
+        }
+        return summary;
+    }
+
+    //Generates the whole manifest as one DePaCoG batch with the given config snapshot instead of streaming it:
+    //every request is planned first, a type generated by several requests is written once and a type generated
+    //differently is a conflict that fails the later request(see GenerationPlan), so the files written never depend
+    //on the order the workers finish in. Used by the generatePatterns Gradle task
+    public static Summary generateBatch(BufferedReader manifest, OutputSink sink, int workers, Configs configs) throws IOException {
+        Summary summary = new Summary();
+        List<PatternRequest> requests = new ArrayList<>();
+        long lineNumber = 0;
+        for(String line = manifest.readLine(); line != null; line = manifest.readLine()){
+            lineNumber++;
+            String trimmed = line.trim();
+            if(trimmed.isEmpty() || trimmed.startsWith("#")){
+                continue;
+            }
+            try {
+                requests.add(PatternRequest.fromConfig(ConfigFactory.parseString(trimmed)));
+            } catch (RuntimeException ex){
+                summary.requests.incrementAndGet();
+                summary.failed.incrementAndGet();
+                logger.warn("Skipping line {}: {}", lineNumber, ex.getMessage());
+            }
+        }
+
+        AbstractFactory af = new PatternFactory(PatternRegistry.withBuiltins(FragmentCache.shared(), configs)
+                .loadServices(GeneratorCli.class.getClassLoader()));
+        Set<String> files = new HashSet<>();
+        try(DePaCoG generator = new DePaCoG(workers, MetricsRecorder.NOOP, null, af)){
+            for(PatternResult result : generator.generateAll(requests, sink)){
+                summary.requests.incrementAndGet();
+                if(result.isSuccess()){
+                    files.addAll(result.getFiles());
+                } else {
+                    summary.failed.incrementAndGet();
+                    logger.warn("Generation failed for {}: {}", result.getRequest(),
+                            result.getError() != null ? result.getError().getMessage() : result.getConflicts());
+                }
+            }
+        } finally {
+            summary.end = System.nanoTime();
+        }
+        summary.files.addAndGet(files.size());
+        return summary;
+    }
+
+    //Stage 2: build specs and render. Failures of a request, errors included, are counted and the worker goes on,
+    //so the queues keep draining. The last worker to stop tells the writer to stop, however it stopped
+    private static void render(AbstractFactory af, RenderCache cache, BlockingQueue<PatternRequest> requests,
+                               BlockingQueue<List<GeneratedSource>> rendered, AtomicInteger running, Summary summary){
+        try {
+            for(PatternRequest request = requests.take(); request != END_OF_REQUESTS; request = requests.take()){
+                summary.requests.incrementAndGet();
+                List<GeneratedSource> sources;
+                try {
+                    PatternGenerator generator = af.getPattern(request);
+                    sources = cache != null ? cache.generateSources(generator) : generator.generateSources();
+                } catch (Throwable ex){
+                    summary.failed.incrementAndGet();
+                    logger.warn("Generation failed for {}", request, ex);
+                    continue;
+                }
+                rendered.put(sources);
+            }
+        } catch (InterruptedException ex){
+            Thread.currentThread().interrupt();
+        } finally {
+            if(running.decrementAndGet() == 0){
+                try {
+                    rendered.put(END_OF_FILES);
+                } catch (InterruptedException ex){
+                    Thread.currentThread().interrupt();
+                }
+            }
+        }
+    }
+
+    //Stage 3: write. A file that cannot be written, whatever the reason, is counted as failed and the writer goes on
+    private static void write(BlockingQueue<List<GeneratedSource>> rendered, OutputSink sink, Summary summary){
+        try {
+            for(List<GeneratedSource> sources = rendered.take(); sources != END_OF_FILES; sources = rendered.take()){
+                for(GeneratedSource source : sources){
+                    try {
+                        sink.write(source);
+                        summary.files.incrementAndGet();
+                    } catch (Throwable ex){
+                        summary.failed.incrementAndGet();
+                        logger.error("Cannot write {}", source, ex);
+                    }
+                }
+            }
+        } catch (InterruptedException ex){
+            Thread.currentThread().interrupt();
+        }
+    }
+}
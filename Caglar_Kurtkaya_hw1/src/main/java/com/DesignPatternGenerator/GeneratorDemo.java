@@ -1,11 +1,38 @@
 package com.DesignPatternGenerator;
 
 import com.DesignPatternGenerator.DPG.DePaCoG;
+import com.DesignPatternGenerator.DPG.RenderCache;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
 
 public class GeneratorDemo {
 
 
-    public static void main(String[] args) {
+    //Run with --daemon [port] [--cache dir] [--output-root dir] [--token-file file] to keep a warm generator listening
+    //on localhost, see GenerationDaemon. With --cache the daemon keeps rendered requests in that RenderCache directory
+    //across restarts. Requests may only write under --output-root(default: the working directory). Clients read the
+    //daemon's token from --token-file(default: ~/.dpg/daemon.token), which only the user can read
+    public static void main(String[] args) throws IOException {
+        if(args.length > 0 && args[0].equals("--daemon")){
+            List<String> options = new ArrayList<>(Arrays.asList(args).subList(1, args.length));
+            String cache = takeOption(options, "--cache");
+            String outputRoot = takeOption(options, "--output-root");
+            String tokenFile = takeOption(options, "--token-file");
+            RenderCache renderCache = cache != null ? new RenderCache(Paths.get(cache)) : null;
+            int port = !options.isEmpty() ? Integer.parseInt(options.get(0)) : GenerationDaemon.DEFAULT_PORT;
+            GenerationDaemon daemon = new GenerationDaemon(port, Runtime.getRuntime().availableProcessors(), renderCache,
+                    Paths.get(outputRoot != null ? outputRoot : ""));
+            Path token = daemon.writeToken(tokenFile != null ? Paths.get(tokenFile)
+                    : Paths.get(System.getProperty("user.home"), ".dpg", "daemon.token"));
+            daemon.start();
+            System.out.println("Daemon token written to " + token);
+            return;
+        }
 
         DePaCoG mygenerator = new DePaCoG();
         //mygenerator.generateAbstractFactoryPattern("MyFactory","Bank","Chase", "Outputs");
@@ -18,7 +45,16 @@ public class GeneratorDemo {
         //mygenerator.generateTemplatePattern("MyTemplate", "Outputs");
     }
 
-
+    //Removes "name value" from options and returns the value, null when the option is not there
+    private static String takeOption(List<String> options, String name){
+        int index = options.indexOf(name);
+        if(index < 0){
+            return null;
+        }
+        String value = options.get(index + 1);
+        options.subList(index, index + 2).clear();
+        return value;
+    }
 
 
 }
@@ -0,0 +1,56 @@
+package com.DesignPatternGenerator.Utils;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.FileTime;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+//Polls a config file and calls Configs.reload(file) when its modification time changes,
+//so a long-running generator picks up new names without a restart
+public class ConfigWatcher implements Closeable {
+
+    private final Path file;
+    private final ScheduledExecutorService scheduler;
+    private FileTime lastModified;
+
+    private static final Logger logger = LoggerFactory.getLogger("ConfigWatcher");
+
+    //Loads the file right away, then checks it every intervalMillis
+    public ConfigWatcher(Path file, long intervalMillis) throws IOException {
+        this.file = file;
+        this.lastModified = Files.getLastModifiedTime(file);
+        Configs.reload(file);
+        this.scheduler = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "config-watcher");
+            thread.setDaemon(true);
+            return thread;
+        });
+        scheduler.scheduleWithFixedDelay(this::check, intervalMillis, intervalMillis, TimeUnit.MILLISECONDS);
+    }
+
+    private void check(){
+        try {
+            FileTime modified = Files.getLastModifiedTime(file);
+            if(!modified.equals(lastModified)){
+                lastModified = modified;
+                Configs.reload(file);
+                logger.info("Reloaded config from {}", file);
+            }
+        } catch (IOException | RuntimeException ex){
+            //Keep the current snapshot, a half-saved file is retried on the next check
+            logger.warn("Cannot reload config from {}", file, ex);
+        }
+    }
+
+    @Override
+    public void close() {
+        scheduler.shutdownNow();
+    }
+}
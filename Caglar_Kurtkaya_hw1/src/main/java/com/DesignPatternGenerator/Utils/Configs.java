@@ -2,72 +2,396 @@ package com.DesignPatternGenerator.Utils;
 
 import com.typesafe.config.Config;
 import com.typesafe.config.ConfigFactory;
+import com.typesafe.config.ConfigList;
+import com.typesafe.config.ConfigObject;
+import com.typesafe.config.ConfigRenderOptions;
+import com.typesafe.config.ConfigUtil;
+import com.typesafe.config.ConfigValue;
+import com.typesafe.config.ConfigValueType;
 
-public class Configs {
-    public static Config config = ConfigFactory.load();
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
 
+//Immutable snapshot of application.conf.
+//Nothing is parsed until a pattern asks for its section, and every section is resolved on its own,
+//so a bad key in one pattern's section only breaks that pattern.
+//Configs.current() is swapped by reload(), a generator keeps the snapshot it started with.
+public final class Configs {
+
+    private static volatile Configs current = new Configs((Path) null);
+
+    //Where the snapshot comes from: null file means application.conf on the classpath
+    private final Path file;
+    private volatile Config config;
+
+    //Sections, resolved on first use
+    private volatile AbstractFactoryConfig abstractFactory;
+    private volatile BuilderConfig builder;
+    private volatile FactoryConfig factory;
+    private volatile FacadeConfig facade;
+    private volatile ChainConfig chain;
+    private volatile MediatorConfig mediator;
+    private volatile VisitorConfig visitor;
+    private volatile TemplateConfig template;
+
+    private Configs(Path file){
+        this.file = file;
+    }
+
+    private Configs(Config config){
+        this.file = null;
+        this.config = config;
+    }
+
+    //The snapshot new generators use
+    public static Configs current(){
+        return current;
+    }
+
+    //Re-reads application.conf from the classpath, running generations keep their old snapshot.
+    //The file is parsed right away, a file that does not parse leaves the current snapshot in place
+    public static Configs reload(){
+        return reload(null);
+    }
+
+    //Reads the given file, keys missing from it fall back to application.conf on the classpath
+    public static Configs reload(Path file){
+        ConfigFactory.invalidateCaches();
+        Configs configs = new Configs(file);
+        configs.config();
+        return current = configs;
+    }
+
+    //Snapshot of the given file parsed right away, keys missing from it fall back to application.conf of classLoader
+    //(only application.conf when file is null). Unlike reload it leaves Configs.current() alone,
+    //e.g. for a build that runs the generator in a class loader shared with other builds
+    public static Configs load(Path file, ClassLoader classLoader){
+        Config loaded = ConfigFactory.load(classLoader);
+        if(file != null){
+            loaded = ConfigFactory.parseFile(file.toFile()).withFallback(loaded).resolve();
+        }
+        return new Configs(loaded);
+    }
+
+    //Snapshot of an already parsed config, e.g. for tests
+    public static Configs of(Config config){
+        return new Configs(config);
+    }
+
+    //Per-request overrides keyed by path, e.g. "Chain.numberOfClass" -> "5".
+    //Returns this snapshot when there is nothing to override, so its resolved sections are shared
+    public Configs withOverrides(Map<String, ?> overrides){
+        if(overrides == null || overrides.isEmpty()){
+            return this;
+        }
+        return new Configs(ConfigFactory.parseMap(overrides).withFallback(config()));
+    }
+
+    //The whole parsed config, parsed on first use
+    public Config config(){
+        Config c = config;
+        if(c == null){
+            Config loaded = ConfigFactory.load();
+            if(file != null){
+                loaded = ConfigFactory.parseFile(file.toFile()).withFallback(loaded).resolve();
+            }
+            config = c = loaded;
+        }
+        return c;
+    }
+
+    //Generation profile id, "default" when not set
+    public String profile(){
+        Config c = config();
+        return c.hasPath("profile") ? c.getString("profile") : "default";
+    }
+
+    //Source emitter id, "javapoet" when not set
+    public String emitter(){
+        Config c = config();
+        return c.hasPath("emitter") ? c.getString("emitter") : "javapoet";
+    }
+
+    //--------------------------------------------------------------------------------------
+    //Sections. A racing first access may resolve a section twice, both results are equal
+
+    public AbstractFactoryConfig abstractFactory(){
+        AbstractFactoryConfig s = abstractFactory;
+        return s != null ? s : (abstractFactory = new AbstractFactoryConfig(config().getConfig("AbstractFactory")));
+    }
+
+    public BuilderConfig builder(){
+        BuilderConfig s = builder;
+        return s != null ? s : (builder = new BuilderConfig(config().getConfig("Builder")));
+    }
+
+    public FactoryConfig factory(){
+        FactoryConfig s = factory;
+        return s != null ? s : (factory = new FactoryConfig(config().getConfig("Factory")));
+    }
+
+    public FacadeConfig facade(){
+        FacadeConfig s = facade;
+        return s != null ? s : (facade = new FacadeConfig(config().getConfig("Facade")));
+    }
+
+    public ChainConfig chain(){
+        ChainConfig s = chain;
+        return s != null ? s : (chain = new ChainConfig(config().getConfig("Chain")));
+    }
+
+    public MediatorConfig mediator(){
+        MediatorConfig s = mediator;
+        return s != null ? s : (mediator = new MediatorConfig(config().getConfig("Mediator")));
+    }
+
+    public VisitorConfig visitor(){
+        VisitorConfig s = visitor;
+        return s != null ? s : (visitor = new VisitorConfig(config().getConfig("Visitor")));
+    }
+
+    public TemplateConfig template(){
+        TemplateConfig s = template;
+        return s != null ? s : (template = new TemplateConfig(config().getConfig("Template")));
+    }
+
+    //--------------------------------------------------------------------------------------
+    //Base of every section, two sections are equal when their values are equal
+    public abstract static class Section {
+        private final ConfigObject values;
+
+        Section(Config section){
+            this.values = section.root();
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            return o != null && o.getClass() == getClass() && values.equals(((Section) o).values);
+        }
+
+        @Override
+        public int hashCode() {
+            return values.hashCode();
+        }
+
+        @Override
+        public String toString() {
+            return values.render();
+        }
+
+        //The values as compact JSON with sorted keys, the same text for equal sections whatever their origin
+        public String canonical() {
+            StringBuilder sb = new StringBuilder(256);
+            canonical(values, sb);
+            return sb.toString();
+        }
+
+        private static void canonical(ConfigValue value, StringBuilder sb){
+            if(value instanceof ConfigObject){
+                sb.append('{');
+                boolean first = true;
+                for(Map.Entry<String, ConfigValue> entry : new TreeMap<>((ConfigObject) value).entrySet()){
+                    sb.append(first ? "" : ",").append(ConfigUtil.quoteString(entry.getKey())).append(':');
+                    canonical(entry.getValue(), sb);
+                    first = false;
+                }
+                sb.append('}');
+            } else if(value instanceof ConfigList){
+                sb.append('[');
+                boolean first = true;
+                for(ConfigValue element : (ConfigList) value){
+                    sb.append(first ? "" : ",");
+                    canonical(element, sb);
+                    first = false;
+                }
+                sb.append(']');
+            } else {
+                sb.append(value.render(ConfigRenderOptions.concise()));
+            }
+        }
+    }
 
     //Abstract Factory Pattern
-    public static String abstractInterfaceName = config.getString("AbstractFactory.interfaceName");
-    public static String methodGetName = config.getString("AbstractFactory.methodName1");
-    public static String methodCreate= config.getString("AbstractFactory.methodName2");
+    public static final class AbstractFactoryConfig extends Section {
+        public final String abstractInterfaceName;
+        public final String methodGetName;
+        public final String methodCreate;
+
+        AbstractFactoryConfig(Config c){
+            super(c);
+            abstractInterfaceName = c.getString("interfaceName");
+            methodGetName = c.getString("methodName1");
+            methodCreate = c.getString("methodName2");
+        }
+    }
 
     //Builder Design Pattern
-    public static String variableChildren = config.getString("Builder.variableName1");
-    public static String variableChild = config.getString("Builder.variableName2");
-    public static String methodAdd = config.getString("Builder.methodName1");
-    public static String methodIterator = config.getString("Builder.methodName2");
-    public static String methodBuildPartA = config.getString("Builder.methodName3");
-    public static String methodGetResult = config.getString("Builder.methodName4");
-    public static String interfaceBuilder = config.getString("Builder.interfaceName");
-    public static String fieldCo = config.getString("Builder.fieldName");
-    public static String classBuilder1 = config.getString("Builder.classBuilder1");
+    public static final class BuilderConfig extends Section {
+        public final String variableChildren;
+        public final String variableChild;
+        public final String methodAdd;
+        public final String methodIterator;
+        public final String methodBuildPartA;
+        public final String methodGetResult;
+        public final String interfaceBuilder;
+        public final String fieldCo;
+        public final String classBuilder1;
+
+        BuilderConfig(Config c){
+            super(c);
+            variableChildren = c.getString("variableName1");
+            variableChild = c.getString("variableName2");
+            methodAdd = c.getString("methodName1");
+            methodIterator = c.getString("methodName2");
+            methodBuildPartA = c.getString("methodName3");
+            methodGetResult = c.getString("methodName4");
+            interfaceBuilder = c.getString("interfaceName");
+            fieldCo = c.getString("fieldName");
+            classBuilder1 = c.getString("classBuilder1");
+        }
+    }
 
     //Factory
-    public static String classCreator = config.getString("Factory.factoryAbstractClassName");
-    public static String fieldProduct = config.getString("Factory.fieldProduct");
-    public static String methodFactoryMethod = config.getString("Factory.methodName1");
-    public static String methodFoperation = config.getString("Factory.methodName2");
+    public static final class FactoryConfig extends Section {
+        public final String classCreator;
+        public final String fieldProduct;
+        public final String methodFactoryMethod;
+        public final String methodFoperation;
+
+        FactoryConfig(Config c){
+            super(c);
+            classCreator = c.getString("factoryAbstractClassName");
+            fieldProduct = c.getString("fieldProduct");
+            methodFactoryMethod = c.getString("methodName1");
+            methodFoperation = c.getString("methodName2");
+        }
+    }
 
     //Facade
-    public static String classFacade = config.getString("Facade.facadeAbstractClassName");
-    public static String methodFacadeOperation = config.getString("Facade.methodName1");
+    public static final class FacadeConfig extends Section {
+        public final String classFacade;
+        public final String methodFacadeOperation;
+
+        FacadeConfig(Config c){
+            super(c);
+            classFacade = c.getString("facadeAbstractClassName");
+            methodFacadeOperation = c.getString("methodName1");
+        }
+    }
 
     //Chain
-    public static String classReceiver = config.getString("Chain.className");
-    public static int numberOfClass = config.getInt("Chain.numberOfClass");
-    public static String fieldSuccessor = config.getString("Chain.field1");
-    public static String methodHandleRequest = config.getString("Chain.methodName1");
-    public static String methodCanHandle = config.getString("Chain.methodName2");
+    public static final class ChainConfig extends Section {
+        public final String classReceiver;
+        public final int numberOfClass;
+        public final String fieldSuccessor;
+        public final String methodHandleRequest;
+        public final String methodCanHandle;
 
+        ChainConfig(Config c){
+            super(c);
+            classReceiver = c.getString("className");
+            numberOfClass = c.getInt("numberOfClass");
+            fieldSuccessor = c.getString("field1");
+            methodHandleRequest = c.getString("methodName1");
+            methodCanHandle = c.getString("methodName2");
+        }
+    }
 
     //Mediator
-    public static String classMediator = config.getString("Mediator.className");
-    public static String classColleague = config.getString("Mediator.className2");
+    public static final class MediatorConfig extends Section {
+        public final String classMediator;
+        public final String classColleague;
 
-    public static String variableColleague = config.getString("Mediator.variableName");
-    public static String variableState = config.getString("Mediator.variableName2");
-    public static String variableMediator = config.getString("Mediator.variableName3");
-    public static String methodMediate = config.getString("Mediator.methodName");
-    public static String methodSetColleagues = config.getString("Mediator.methodName2");
-    public static String methodGetState = config.getString("Mediator.methodName3");
-    public static String methodSetState = config.getString("Mediator.methodName4");
-    public static String methodAction = config.getString("Mediator.methodName5");
+        public final String variableColleague;
+        public final String variableState;
+        public final String variableMediator;
+        public final String methodMediate;
+        public final String methodSetColleagues;
+        public final String methodGetState;
+        public final String methodSetState;
+        public final String methodAction;
 
+        MediatorConfig(Config c){
+            super(c);
+            classMediator = c.getString("className");
+            classColleague = c.getString("className2");
+            variableColleague = c.getString("variableName");
+            variableState = c.getString("variableName2");
+            variableMediator = c.getString("variableName3");
+            methodMediate = c.getString("methodName");
+            methodSetColleagues = c.getString("methodName2");
+            methodGetState = c.getString("methodName3");
+            methodSetState = c.getString("methodName4");
+            methodAction = c.getString("methodName5");
+        }
+    }
 
     //Visitor Pattern
-    public static String visitorName = config.getString("Visitor.abstractVisitorName");
-    public static String elementName = config.getString("Visitor.abstractElementName");
-    public static String variableVisitor = config.getString("Visitor.variableName");
-    public static String variableElement = config.getString("Visitor.variableName2");
-    public static String methodAccept = config.getString("Visitor.methodName1");
-    public static String methodOperation = config.getString("Visitor.methodName2");
-    public static String methodVisitElement = config.getString("Visitor.methodName3");
-    public static int numberOfVisitorMethods = config.getInt("Visitor.numberOfVisitorMethods");
+    public static final class VisitorConfig extends Section {
+        public final String visitorName;
+        public final String elementName;
+        public final String variableVisitor;
+        public final String variableElement;
+        public final String methodAccept;
+        public final String methodOperation;
+        public final String methodVisitElement;
+        public final int numberOfVisitorMethods;
+        //Concrete element types and their visit methods, in order.
+        //Element1..N with visitElement1..N unless elementTypes lists the types, then visit<Type>
+        public final List<String> elementTypes;
+        public final List<String> visitMethods;
+        //Also generate a switch on the element kind, dispatching without the accept/visit double call
+        public final boolean typeSwitch;
 
+        VisitorConfig(Config c){
+            super(c);
+            visitorName = c.getString("abstractVisitorName");
+            elementName = c.getString("abstractElementName");
+            variableVisitor = c.getString("variableName");
+            variableElement = c.getString("variableName2");
+            methodAccept = c.getString("methodName1");
+            methodOperation = c.getString("methodName2");
+            methodVisitElement = c.getString("methodName3");
+            numberOfVisitorMethods = c.getInt("numberOfVisitorMethods");
+            typeSwitch = c.hasPath("typeSwitch") && c.getBoolean("typeSwitch");
+
+            List<String> types = new ArrayList<>();
+            List<String> methods = new ArrayList<>();
+            if(c.hasPath("elementTypes")){
+                //a HOCON list, or a comma separated string from a per-request override
+                List<String> listed = c.getValue("elementTypes").valueType() == ConfigValueType.LIST
+                        ? c.getStringList("elementTypes") : Arrays.asList(c.getString("elementTypes").split(","));
+                for(String type : listed){
+                    types.add(type.trim());
+                    methods.add("visit" + type.trim());
+                }
+            } else {
+                for(int i = 1; i <= numberOfVisitorMethods; i++){
+                    types.add(elementName + i);
+                    methods.add(methodVisitElement + i);
+                }
+            }
+            elementTypes = Collections.unmodifiableList(types);
+            visitMethods = Collections.unmodifiableList(methods);
+        }
+    }
 
     //Template Pattern
-    public static String templateName = config.getString("Template.abstractTemplateName");
-    public static String methodName1 = config.getString("Template.methodName1");
-    public static String methodName2 = config.getString("Template.methodName2");
+    public static final class TemplateConfig extends Section {
+        public final String templateName;
+        public final String methodName1;
+        public final String methodName2;
+
+        TemplateConfig(Config c){
+            super(c);
+            templateName = c.getString("abstractTemplateName");
+            methodName1 = c.getString("methodName1");
+            methodName2 = c.getString("methodName2");
+        }
+    }
 }
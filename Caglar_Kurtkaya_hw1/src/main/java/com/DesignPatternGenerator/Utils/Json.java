@@ -0,0 +1,33 @@
+package com.DesignPatternGenerator.Utils;
+
+//Minimal JSON output helpers, parsing is done with Typesafe Config(ConfigSyntax.JSON)
+public final class Json {
+
+    private Json(){
+    }
+
+    //Appends the value as a JSON string literal, null becomes null
+    public static StringBuilder quote(StringBuilder out, String value){
+        if(value == null){
+            return out.append("null");
+        }
+        out.append('"');
+        for(int i = 0; i < value.length(); i++){
+            char c = value.charAt(i);
+            switch (c){
+                case '"':  out.append("\\\""); break;
+                case '\\': out.append("\\\\"); break;
+                case '\n': out.append("\\n"); break;
+                case '\r': out.append("\\r"); break;
+                case '\t': out.append("\\t"); break;
+                default:
+                    if(c < 0x20){
+                        out.append(String.format("\\u%04x", (int) c));
+                    } else {
+                        out.append(c);
+                    }
+            }
+        }
+        return out.append('"');
+    }
+}
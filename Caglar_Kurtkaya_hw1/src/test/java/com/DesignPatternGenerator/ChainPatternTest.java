@@ -0,0 +1,44 @@
+package com.DesignPatternGenerator;
+
+import com.DesignPatternGenerator.DPG.DePaCoG;
+import com.DesignPatternGenerator.DPG.InMemoryCompiler;
+import com.DesignPatternGenerator.DPG.InMemorySink;
+import com.DesignPatternGenerator.DPG.PatternRequest;
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.lang.reflect.Field;
+
+public class ChainPatternTest {
+
+    @Test
+    public void verifyOnlyTheLastReceiverEndsTheChain(){
+        InMemorySink sink = new InMemorySink();
+        new DePaCoG().generatePattern(new PatternRequest("CDP", "MyHandler", "Chains").withChainLength(5), sink);
+
+        Assert.assertEquals("receivers, handler and factory should be generated ", 7, sink.size());
+        Assert.assertTrue("Receiver4 should pass the request on ",
+                sink.getSources().get("Chains.Receiver4").contains("super.handleRequest()"));
+        Assert.assertTrue("Receiver5 should handle the request ",
+                sink.getSources().get("Chains.Receiver5").contains("Must handle the request unconditionally"));
+    }
+
+    @Test
+    public void verifyLongChainCompilesAndLinks() throws Exception {
+        int length = 1200;
+        InMemorySink sink = new InMemorySink();
+        new DePaCoG().generatePattern(new PatternRequest("CDP", "LongHandler", "LongChain").withChainLength(length), sink);
+
+        ClassLoader loader = new InMemoryCompiler().compileAndLoad(sink.toJavaFileObjects(), getClass().getClassLoader());
+        Object link = loader.loadClass("LongChain.LongHandlerFactory").getMethod("create").invoke(null);
+        Field successor = loader.loadClass("LongChain.LongHandler").getDeclaredField("successor");
+        successor.setAccessible(true);
+
+        int count = 0;
+        for(; link != null; link = successor.get(link)){
+            count++;
+            Assert.assertEquals("chain is out of order ", "LongChain.Receiver" + count, link.getClass().getName());
+        }
+        Assert.assertEquals("chain length is not correct ", length, count);
+    }
+}
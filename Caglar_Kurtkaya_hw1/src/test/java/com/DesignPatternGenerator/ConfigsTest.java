@@ -0,0 +1,45 @@
+package com.DesignPatternGenerator;
+
+import com.DesignPatternGenerator.DPG.InMemorySink;
+import com.DesignPatternGenerator.DPG.PatternBuilder;
+import com.DesignPatternGenerator.DPG.PatternRequest;
+import com.DesignPatternGenerator.Utils.Configs;
+import com.typesafe.config.ConfigFactory;
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.util.Collections;
+
+public class ConfigsTest {
+
+    @Test
+    public void verifySectionsAreResolvedOnTheirOwn(){
+        //The Chain section is broken, the Template section still works
+        Configs configs = Configs.of(ConfigFactory.parseString("Chain { className = Receiver }")
+                .withFallback(ConfigFactory.parseString("Template { abstractTemplateName = T, methodName1 = a, methodName2 = b }")));
+        Assert.assertEquals("templateName is not correct ", "T", configs.template().templateName);
+        try {
+            configs.chain();
+            Assert.fail("a broken Chain section must fail");
+        } catch (RuntimeException expected){
+            //expected
+        }
+    }
+
+    @Test
+    public void verifyRequestOverrides(){
+        PatternRequest request = new PatternRequest("TDP", "MyTemplate", "Outputs")
+                .withConfigOverrides(Collections.singletonMap("Template.abstractTemplateName", "Skeleton"));
+        InMemorySink sink = new InMemorySink();
+        PatternBuilder.fromRequest(request).generateCode(sink);
+
+        Assert.assertTrue("override is not applied ", sink.getSources().containsKey("Outputs.Skeleton"));
+        Assert.assertEquals("the current snapshot must not change ", "Template", Configs.current().template().templateName);
+    }
+
+    @Test
+    public void verifyNoOverridesSharesSnapshot(){
+        Configs configs = Configs.current();
+        Assert.assertSame("an empty override must reuse the snapshot ", configs, configs.withOverrides(Collections.<String, String>emptyMap()));
+    }
+}
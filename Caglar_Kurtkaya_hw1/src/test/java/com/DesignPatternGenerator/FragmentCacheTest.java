@@ -0,0 +1,40 @@
+package com.DesignPatternGenerator;
+
+import com.DesignPatternGenerator.DPG.FragmentCache;
+import com.DesignPatternGenerator.DPG.PatternBuilder;
+import com.squareup.javapoet.JavaFile;
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.util.List;
+
+public class FragmentCacheTest {
+
+    @Test
+    public void verifyLruEviction(){
+        FragmentCache cache = new FragmentCache(2);
+        cache.get("a", () -> "A");
+        cache.get("b", () -> "B");
+        cache.get("a", () -> "A");      //a is now the most recently used
+        cache.get("c", () -> "C");      //evicts b
+
+        Assert.assertEquals("hits are not correct ", 1, cache.getHits());
+        Assert.assertEquals("evictions are not correct ", 1, cache.getEvictions());
+        Assert.assertEquals("a must still be cached ", "A", cache.get("a", () -> "other"));
+        Assert.assertEquals("b must be rebuilt ", "other", cache.get("b", () -> "other"));
+    }
+
+    @Test
+    public void verifySharedFragmentIsReused(){
+        FragmentCache cache = new FragmentCache(16);
+        List<JavaFile> first = new PatternBuilder.pBuilder("TDP", "MyTemplate").withPackName("Outputs")
+                .withFragmentCache(cache).build().generateFiles();
+        List<JavaFile> second = new PatternBuilder.pBuilder("TDP", "OtherTemplate").withPackName("Outputs")
+                .withFragmentCache(cache).build().generateFiles();
+
+        Assert.assertSame("abstract Template spec is not reused ", first.get(0).typeSpec, second.get(0).typeSpec);
+        Assert.assertNotEquals("concrete templates must differ ", first.get(1).typeSpec, second.get(1).typeSpec);
+        Assert.assertEquals("hits are not correct ", 1, cache.getHits());
+        Assert.assertEquals("misses are not correct ", 3, cache.getMisses());
+    }
+}
@@ -0,0 +1,131 @@
+package com.DesignPatternGenerator;
+
+import com.DesignPatternGenerator.Utils.Json;
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.BufferedReader;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.OutputStream;
+import java.net.HttpURLConnection;
+import java.net.Socket;
+import java.net.URL;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.PosixFilePermissions;
+
+public class GenerationDaemonTest {
+    @Rule
+    public TemporaryFolder temp = new TemporaryFolder();
+    GenerationDaemon daemon;
+    Path outputRoot;
+
+    @Before
+    public void init() throws IOException {
+        outputRoot = temp.newFolder("root").toPath();
+        daemon = new GenerationDaemon(0, 2, null, outputRoot).start();
+    }
+
+    @After
+    public void cleanUp(){
+        daemon.close();
+    }
+
+    private String post(String body, int expectedStatus) throws IOException {
+        return post(body, daemon.getToken(), "application/json", expectedStatus);
+    }
+
+    private String post(String body, String token, String contentType, int expectedStatus) throws IOException {
+        HttpURLConnection connection = (HttpURLConnection) new URL("http://127.0.0.1:" + daemon.getPort() + "/generate").openConnection();
+        connection.setRequestMethod("POST");
+        connection.setDoOutput(true);
+        if(token != null){
+            connection.setRequestProperty("Authorization", "Bearer " + token);
+        }
+        connection.setRequestProperty("Content-Type", contentType);
+        try(OutputStream out = connection.getOutputStream()){
+            out.write(body.getBytes(StandardCharsets.UTF_8));
+        }
+        Assert.assertEquals("status is not correct ", expectedStatus, connection.getResponseCode());
+        try(InputStream in = expectedStatus == 200 ? connection.getInputStream() : connection.getErrorStream()){
+            ByteArrayOutputStream reply = new ByteArrayOutputStream();
+            byte[] buffer = new byte[4096];
+            for(int n = in.read(buffer); n != -1; n = in.read(buffer)){
+                reply.write(buffer, 0, n);
+            }
+            return new String(reply.toByteArray(), StandardCharsets.UTF_8);
+        }
+    }
+
+    @Test
+    public void verifySingleRequestReturnsSources() throws IOException {
+        String reply = post("{\"pattern\":\"TDP\",\"className\":\"MyTemplate\",\"packName\":\"Outputs\"}", 200);
+        Assert.assertTrue("request did not succeed " + reply, reply.contains("\"success\":true"));
+        Assert.assertTrue("source is missing " + reply, reply.contains("\"Outputs.MyTemplate\":\""));
+    }
+
+    @Test
+    public void verifyBatchRequest() throws IOException {
+        String reply = post("{\"requests\":[{\"pattern\":\"FCDP\",\"className\":\"MyFacade\",\"packName\":\"Outputs\"},"
+                + "{\"pattern\":\"AFDP\",\"className\":\"MyFactory\",\"productType\":\"Bank\",\"productName\":\"Chase\",\"packName\":\"Outputs\"}]}", 200);
+        Assert.assertTrue("facade is missing " + reply, reply.contains("\"Outputs.MyFacade\":\""));
+        Assert.assertTrue("product is missing " + reply, reply.contains("\"Outputs.Chase\":\""));
+    }
+
+    @Test
+    public void verifyBadRequest() throws IOException {
+        String reply = post("{\"className\":\"MyTemplate\"}", 400);
+        Assert.assertTrue("error is missing " + reply, reply.contains("\"error\""));
+    }
+
+    @Test
+    public void verifyUntrustedRequestsAreRejected() throws IOException {
+        String body = "{\"pattern\":\"TDP\",\"className\":\"MyTemplate\",\"packName\":\"Outputs\"}";
+        post(body, null, "application/json", 401);
+        post(body, "wrong", "application/json", 401);
+        post(body, daemon.getToken(), "text/plain", 415);
+        //HttpURLConnection does not send Origin, write the request by hand
+        try(Socket socket = new Socket("127.0.0.1", daemon.getPort())){
+            byte[] bytes = body.getBytes(StandardCharsets.UTF_8);
+            socket.getOutputStream().write(("POST /generate HTTP/1.1\r\nHost: 127.0.0.1\r\nOrigin: http://example.com\r\n"
+                    + "Authorization: Bearer " + daemon.getToken() + "\r\nContent-Type: application/json\r\n"
+                    + "Content-Length: " + bytes.length + "\r\nConnection: close\r\n\r\n").getBytes(StandardCharsets.US_ASCII));
+            socket.getOutputStream().write(bytes);
+            String status = new BufferedReader(new InputStreamReader(socket.getInputStream(), StandardCharsets.US_ASCII)).readLine();
+            Assert.assertTrue("browser request is not rejected " + status, status.startsWith("HTTP/1.1 403"));
+        }
+    }
+
+    @Test
+    public void verifyOutputDirStaysInsideRoot() throws IOException {
+        String request = "\"pattern\":\"TDP\",\"className\":\"MyTemplate\",\"packName\":\"Outputs\"";
+        String reply = post("{" + request + ",\"outputDir\":\"gen\"}", 200);
+        Assert.assertTrue("request did not succeed " + reply, reply.contains("\"success\":true"));
+        Assert.assertTrue("file is not under the root ", Files.exists(outputRoot.resolve("gen/Outputs/MyTemplate.java")));
+
+        post("{" + request + ",\"outputDir\":\"../escaped\"}", 400);
+        post("{" + request + ",\"outputDir\":" + Json.quote(new StringBuilder(), outputRoot.getParent().resolve("escaped").toString()) + "}", 400);
+        Assert.assertFalse("file escaped the root ", Files.exists(outputRoot.getParent().resolve("escaped")));
+
+        Path outside = temp.newFolder("outside").toPath();
+        Files.createSymbolicLink(outputRoot.resolve("link"), outside);
+        post("{" + request + ",\"outputDir\":\"link/gen\"}", 400);
+        Assert.assertFalse("file escaped through a link ", Files.exists(outside.resolve("gen")));
+    }
+
+    @Test
+    public void verifyTokenFileIsPrivate() throws IOException {
+        Path file = daemon.writeToken(outputRoot.resolve("daemon.token"));
+        Assert.assertEquals("token is not written ", daemon.getToken(), new String(Files.readAllBytes(file), StandardCharsets.US_ASCII));
+        Assert.assertEquals("token file is readable by others ", "rw-------",
+                PosixFilePermissions.toString(Files.getPosixFilePermissions(file)));
+    }
+}
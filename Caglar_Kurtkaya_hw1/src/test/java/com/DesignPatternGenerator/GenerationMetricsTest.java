@@ -0,0 +1,65 @@
+package com.DesignPatternGenerator;
+
+import com.DesignPatternGenerator.DPG.DePaCoG;
+import com.DesignPatternGenerator.DPG.GenerationMetrics;
+import com.DesignPatternGenerator.DPG.InMemorySink;
+import com.DesignPatternGenerator.DPG.LatencyHistogram;
+import com.DesignPatternGenerator.DPG.PatternRequest;
+import org.junit.Assert;
+import org.junit.Test;
+
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+import java.lang.management.ManagementFactory;
+import java.util.Arrays;
+
+public class GenerationMetricsTest {
+
+    @Test
+    public void verifyBatchIsRecorded(){
+        GenerationMetrics metrics = new GenerationMetrics();
+        InMemorySink sink = new InMemorySink();
+        new DePaCoG(2, metrics).generateAll(Arrays.asList(
+                new PatternRequest("AFDP", "MyFactory", "Bank", "Chase", "Outputs"),
+                new PatternRequest("tdp", "MyTemplate", "Outputs")), sink);
+
+        Assert.assertEquals("request count is not correct ", 2, metrics.getRequestCount());
+        Assert.assertEquals("file count is not correct ", 6, metrics.getFileCount());
+        Assert.assertEquals("TDP requests are not correct ", Long.valueOf(1), metrics.getRequestCountByPattern().get("TDP"));
+        Assert.assertEquals("AFDP renders are not correct ", 4, metrics.histogram("AFDP.RENDER").getCount());
+        Assert.assertEquals("AFDP writes are not correct ", 4, metrics.histogram("AFDP.WRITE").getCount());
+        Assert.assertTrue("bytes are not recorded ", metrics.getBytesWritten() > 0);
+        Assert.assertEquals("no request failed ", 0, metrics.getFailureCount());
+    }
+
+    @Test
+    public void verifyPercentile(){
+        LatencyHistogram histogram = new LatencyHistogram();
+        for(int i = 0; i < 99; i++){
+            histogram.record(1000);
+        }
+        histogram.record(1_000_000);
+        Assert.assertEquals("p50 is not correct ", 1023, histogram.getPercentileNanos(50));
+        Assert.assertEquals("p100 is not correct ", (1L << 20) - 1, histogram.getPercentileNanos(100));
+    }
+
+    @Test
+    public void verifyEveryInstanceIsRegistered() throws Exception {
+        MBeanServer server = ManagementFactory.getPlatformMBeanServer();
+        GenerationMetrics first = new GenerationMetrics().registerMBean();
+        GenerationMetrics second = new GenerationMetrics().registerMBean();
+        ObjectName firstName = first.getObjectName();
+        ObjectName secondName = second.getObjectName();
+        try {
+            Assert.assertNotEquals("instances must not share a name ", firstName, secondName);
+            first.recordRequest("TDP", 2, 100, 1000, true);
+            Assert.assertEquals("first instance is not exposed ", 1L, server.getAttribute(firstName, "RequestCount"));
+            Assert.assertEquals("second instance is not exposed ", 0L, server.getAttribute(secondName, "RequestCount"));
+        } finally {
+            first.unregisterMBean();
+            second.unregisterMBean();
+        }
+        Assert.assertFalse("first instance is still registered ", server.isRegistered(firstName));
+        Assert.assertFalse("second instance is still registered ", server.isRegistered(secondName));
+    }
+}
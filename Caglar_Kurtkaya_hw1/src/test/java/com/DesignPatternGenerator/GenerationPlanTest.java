@@ -0,0 +1,80 @@
+package com.DesignPatternGenerator;
+
+import com.DesignPatternGenerator.DPG.DePaCoG;
+import com.DesignPatternGenerator.DPG.GeneratedSource;
+import com.DesignPatternGenerator.DPG.OutputSink;
+import com.DesignPatternGenerator.DPG.PatternRequest;
+import com.DesignPatternGenerator.DPG.PatternResult;
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.atomic.AtomicInteger;
+
+public class GenerationPlanTest {
+
+    //Counts how many times each file is written
+    static class CountingSink implements OutputSink {
+        final Map<String, AtomicInteger> writes = new ConcurrentHashMap<>();
+
+        @Override
+        public void write(GeneratedSource source) {
+            writes.computeIfAbsent(source.getQualifiedName(), name -> new AtomicInteger()).incrementAndGet();
+        }
+    }
+
+    @Test
+    public void verifySharedProductIsWrittenOnce(){
+        CountingSink sink = new CountingSink();
+        List<PatternResult> results = new DePaCoG(4).generateAll(Arrays.asList(
+                new PatternRequest("AFDP", "MyFactory", "Bank", "Chase", "Outputs"),
+                new PatternRequest("FDP", "MyCreator", "Bank", "Chase", "Outputs"),
+                new PatternRequest("BDP", "ComplexObject", "Bank", "Chase", "Outputs")), sink);
+
+        for(PatternResult result : results){
+            Assert.assertTrue("request failed " + result, result.isSuccess());
+        }
+        Assert.assertEquals("Bank must be written once ", 1, sink.writes.get("Outputs.Bank").get());
+        Assert.assertEquals("Chase must be written once ", 1, sink.writes.get("Outputs.Chase").get());
+        Assert.assertTrue("shared files must still be reported ", results.get(1).getFiles().contains("Outputs.Bank"));
+    }
+
+    @Test
+    public void verifyConflictIsReported(){
+        CountingSink sink = new CountingSink();
+        List<PatternResult> results = new DePaCoG(4).generateAll(Arrays.asList(
+                new PatternRequest("AFDP", "MyFactory", "Bank", "Chase", "Outputs"),
+                new PatternRequest("FDP", "MyFactory", "Human", "Student", "Outputs")), sink);
+
+        Assert.assertTrue("first request must win ", results.get(0).isSuccess());
+        Assert.assertEquals("conflict is not reported ", 1, results.get(1).getConflicts().size());
+        Assert.assertEquals("MyFactory must be written once ", 1, sink.writes.get("Outputs.MyFactory").get());
+    }
+
+    @Test
+    public void verifyBatchesShareOnePool(){
+        Set<String> pools = ConcurrentHashMap.newKeySet();
+        //worker threads are named ForkJoinPool-<pool>-worker-<n>
+        OutputSink sink = source -> pools.add(Thread.currentThread().getName().replaceAll("-worker-.*", ""));
+        List<PatternRequest> requests = Arrays.asList(
+                new PatternRequest("AFDP", "MyFactory", "Bank", "Chase", "Outputs"),
+                new PatternRequest("CDP", "MyHandler", "Outputs"));
+
+        DePaCoG generator = new DePaCoG(2);
+        generator.generateAll(requests, sink);
+        generator.generateAll(requests, sink);
+        generator.close();
+        Assert.assertEquals("batches must run on the same pool ", 1, pools.size());
+        try {
+            generator.generateAll(requests, sink);
+            Assert.fail("a closed generator runs batches");
+        } catch (RejectedExecutionException ex){
+            //expected
+        }
+    }
+}
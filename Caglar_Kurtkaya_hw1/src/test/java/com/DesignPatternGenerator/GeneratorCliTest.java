@@ -0,0 +1,94 @@
+package com.DesignPatternGenerator;
+
+import com.DesignPatternGenerator.DPG.InMemorySink;
+import com.DesignPatternGenerator.DPG.OutputSink;
+import com.DesignPatternGenerator.Utils.Configs;
+import com.typesafe.config.ConfigFactory;
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.io.BufferedReader;
+import java.io.StringReader;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+public class GeneratorCliTest {
+
+    @Test
+    public void verifyManifestStreaming() throws Exception {
+        String manifest = "{\"pattern\":\"AFDP\",\"className\":\"MyFactory\",\"productType\":\"Bank\",\"productName\":\"Chase\",\"packName\":\"Outputs\"}\n"
+                + "# comment\n"
+                + "\n"
+                + "pattern = TDP, className = MyTemplate, packName = Templates\n"
+                + "{not a request\n";
+        InMemorySink sink = new InMemorySink();
+        GeneratorCli.Summary summary = GeneratorCli.generate(new BufferedReader(new StringReader(manifest)), sink, 2, 1, null);
+
+        Assert.assertEquals("requests are not counted ", 3, summary.getRequests());
+        Assert.assertEquals("the bad line is not counted as failed ", 1, summary.getFailed());
+        Assert.assertEquals("written files are not counted ", 6, summary.getFiles());
+        Assert.assertTrue("template is missing ", sink.getSources().containsKey("Templates.MyTemplate"));
+        Assert.assertTrue("factory is missing ", sink.getSources().containsKey("Outputs.MyFactory"));
+    }
+
+    @Test(timeout = 30000)
+    public void verifyFailingSinkDoesNotStallThePipeline() throws Exception {
+        StringBuilder manifest = new StringBuilder();
+        for(int i = 0; i < 50; i++){
+            manifest.append("pattern = TDP, className = MyTemplate").append(i).append(", packName = Templates\n");
+        }
+        Set<String> written = ConcurrentHashMap.newKeySet();
+        OutputSink sink = source -> {
+            if(source.getQualifiedName().equals("Templates.MyTemplate7")){
+                throw new IllegalStateException("disk full");
+            }
+            if(source.getQualifiedName().equals("Templates.MyTemplate8")){
+                throw new StackOverflowError();
+            }
+            written.add(source.getQualifiedName());
+        };
+        //queues of one fill up at once, a dead writer would block the workers and the reader for good
+        GeneratorCli.Summary summary = GeneratorCli.generate(new BufferedReader(new StringReader(manifest.toString())), sink, 2, 1, null);
+
+        Assert.assertEquals("requests are not counted ", 50, summary.getRequests());
+        Assert.assertEquals("failed writes are not counted ", 2, summary.getFailed());
+        Assert.assertEquals("written files are not counted ", 98, summary.getFiles());
+        Assert.assertTrue("files after the failures are missing ", written.contains("Templates.MyTemplate49"));
+    }
+
+    @Test
+    public void verifyBatchMergesTheManifest() throws Exception {
+        String manifest = "pattern = TDP, className = MyTemplate, packName = Templates\n"
+                + "pattern = TDP, className = MyTemplate, packName = Templates\n"
+                + "pattern = FCDP, className = MyTemplate, packName = Templates\n";
+        Configs configs = Configs.of(ConfigFactory.parseString("Template.abstractTemplateName = BatchTemplate")
+                .withFallback(ConfigFactory.load()));
+        InMemorySink sink = new InMemorySink();
+        GeneratorCli.Summary summary = GeneratorCli.generateBatch(new BufferedReader(new StringReader(manifest)), sink, 2, configs);
+
+        Assert.assertEquals("requests are not counted ", 3, summary.getRequests());
+        Assert.assertEquals("the conflicting request is not failed ", 1, summary.getFailed());
+        Assert.assertEquals("the duplicate request is written twice ", 2, summary.getFiles());
+        Assert.assertTrue("config snapshot is not used ", sink.getSources().containsKey("Templates.BatchTemplate"));
+        Assert.assertTrue("the first definition does not win ",
+                sink.getSources().get("Templates.MyTemplate").contains("extends BatchTemplate"));
+    }
+
+    @Test
+    public void verifyBadOptionsAreRejected(){
+        GeneratorCli.Options options = GeneratorCli.Options.parse(new String[]{"-", "out", "--threads", "4", "--atomic"});
+        Assert.assertEquals("threads are not parsed ", 4, options.threads);
+        Assert.assertTrue("atomic is not parsed ", options.atomic);
+
+        String[][] bad = {{"-"}, {"-", "out", "--threads"}, {"-", "out", "--cache"}, {"-", "out", "--queue", "0"},
+                {"-", "out", "--incremental", "--atomic"}, {"-", "out", "--fast"}};
+        for(String[] args : bad){
+            try {
+                GeneratorCli.Options.parse(args);
+                Assert.fail("options are not rejected " + String.join(" ", args));
+            } catch (IllegalArgumentException expected){
+                //main prints the usage and exits with 2
+            }
+        }
+    }
+}
@@ -0,0 +1,41 @@
+package com.DesignPatternGenerator;
+
+import com.DesignPatternGenerator.DPG.DePaCoG;
+import com.DesignPatternGenerator.DPG.GeneratedSource;
+import com.DesignPatternGenerator.DPG.GenerationException;
+import com.DesignPatternGenerator.DPG.InMemoryCompiler;
+import com.DesignPatternGenerator.DPG.InMemorySink;
+import com.DesignPatternGenerator.DPG.PatternRequest;
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.util.Arrays;
+import java.util.Map;
+
+public class InMemoryCompilerTest {
+
+    private final InMemoryCompiler compiler = new InMemoryCompiler();
+
+    @Test
+    public void verifyBatchCompilesToLoadableClasses() throws Exception {
+        InMemorySink sink = new InMemorySink();
+        new DePaCoG(2).generateAll(Arrays.asList(
+                new PatternRequest("AFDP", "MyFactory", "Bank", "Chase", "Outputs"),
+                new PatternRequest("TDP", "MyTemplate", "Templates")), sink);
+
+        Map<String, byte[]> classes = compiler.compile(sink);
+        Assert.assertEquals("every generated type should be compiled ", sink.size(), classes.size());
+
+        ClassLoader loader = compiler.compileAndLoad(sink.toJavaFileObjects(), getClass().getClassLoader());
+        Class<?> bank = loader.loadClass("Outputs.Bank");
+        Class<?> chase = loader.loadClass("Outputs.Chase");
+        Assert.assertTrue("Chase does not implement Bank ", bank.isAssignableFrom(chase));
+    }
+
+    @Test(expected = GenerationException.class)
+    public void verifyCompileErrorsAreReported(){
+        InMemorySink sink = new InMemorySink();
+        sink.write(new GeneratedSource("Broken", "Broken", "package Broken; class Broken { int x = ; }"));
+        compiler.compile(sink);
+    }
+}
@@ -0,0 +1,93 @@
+package com.DesignPatternGenerator;
+
+import com.DesignPatternGenerator.DPG.DePaCoG;
+import com.DesignPatternGenerator.DPG.IncrementalSink;
+import com.DesignPatternGenerator.DPG.PatternRequest;
+import com.DesignPatternGenerator.DPG.PatternResult;
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.stream.Stream;
+
+public class IncrementalSinkTest {
+    Path root;
+    DePaCoG generator;
+
+    @Before
+    public void init() throws IOException {
+        root = Files.createTempDirectory("incremental");
+        generator = new DePaCoG();
+    }
+
+    @After
+    public void cleanUp() throws IOException {
+        try(Stream<Path> paths = Files.walk(root)){
+            paths.sorted(Comparator.reverseOrder()).forEach(path -> path.toFile().delete());
+        }
+    }
+
+    private IncrementalSink run(boolean prune, PatternRequest request) throws IOException {
+        IncrementalSink sink = new IncrementalSink(root, prune);
+        try {
+            generator.generatePattern(request, sink);
+        } finally {
+            sink.close();
+        }
+        return sink;
+    }
+
+    @Test
+    public void verifyUnchangedFilesAreSkipped() throws IOException {
+        PatternRequest request = new PatternRequest("FDP", "MyFactory", "Human", "Student", "Outputs");
+        Assert.assertEquals("first run must write every file ", 4, run(false, request).getWritten());
+
+        IncrementalSink second = run(false, request);
+        Assert.assertEquals("second run must not write ", 0, second.getWritten());
+        Assert.assertEquals("second run must skip every file ", 4, second.getSkipped());
+    }
+
+    @Test
+    public void verifyChangedFileIsRewritten() throws IOException {
+        run(false, new PatternRequest("FCDP", "MyFacade", "Outputs"));
+        IncrementalSink second = run(false, new PatternRequest("FCDP", "OtherFacade", "Outputs"));
+        Assert.assertEquals("only the new facade class must be written ", 1, second.getWritten());
+        Assert.assertEquals("abstract Facade must be skipped ", 1, second.getSkipped());
+    }
+
+    @Test
+    public void verifyPruneDeletesStaleFiles() throws IOException {
+        run(true, new PatternRequest("FCDP", "MyFacade", "Outputs"));
+        IncrementalSink second = run(true, new PatternRequest("FCDP", "OtherFacade", "Outputs"));
+        Assert.assertEquals("stale facade must be deleted ", 1, second.getDeleted());
+        Assert.assertFalse("MyFacade.java still exists ", Files.exists(root.resolve("Outputs/MyFacade.java")));
+    }
+
+    @Test
+    public void verifyBytesAreTheUtf8BytesWritten() throws IOException {
+        //a non-ASCII method name, file names stay ASCII for file systems that cannot store others
+        PatternRequest request = new PatternRequest("TDP", "CafeTemplate", "Outputs")
+                .withConfigOverrides(Collections.singletonMap("Template.methodName1", "pr\u00e9parer"));
+        PatternResult first;
+        try(IncrementalSink sink = new IncrementalSink(root)){
+            first = generator.generatePattern(request, sink);
+        }
+        long onDisk = 0;
+        for(String file : first.getFiles()){
+            onDisk += Files.size(root.resolve(file.replace('.', '/') + ".java"));
+        }
+        Assert.assertEquals("bytes are not the UTF-8 bytes on disk ", onDisk, first.getBytes());
+
+        PatternResult second;
+        try(IncrementalSink sink = new IncrementalSink(root)){
+            second = generator.generatePattern(request, sink);
+        }
+        Assert.assertEquals("unchanged files are counted ", 0, second.getBytes());
+    }
+}
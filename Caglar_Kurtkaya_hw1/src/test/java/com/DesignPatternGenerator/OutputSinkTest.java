@@ -0,0 +1,74 @@
+package com.DesignPatternGenerator;
+
+import com.DesignPatternGenerator.DPG.DePaCoG;
+import com.DesignPatternGenerator.DPG.GeneratedSource;
+import com.DesignPatternGenerator.DPG.InMemorySink;
+import com.DesignPatternGenerator.DPG.PatternRequest;
+import com.DesignPatternGenerator.DPG.ZipSink;
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipInputStream;
+
+public class OutputSinkTest {
+
+    @Test
+    public void verifyInMemorySink(){
+        InMemorySink sink = new InMemorySink();
+        new DePaCoG().generatePattern(new PatternRequest("AFDP", "MyFactory", "Bank", "Chase", "Outputs"), sink);
+
+        Assert.assertEquals("generated files are not correct ",
+                Arrays.asList("Outputs.AbstractFactory", "Outputs.Bank", "Outputs.Chase", "Outputs.MyFactory"),
+                new ArrayList<>(sink.getSources().keySet()));
+        Assert.assertTrue("Chase does not implement Bank ",
+                sink.getSources().get("Outputs.Chase").contains("public class Chase implements Bank"));
+        Assert.assertEquals("java file objects are missing ", 4, sink.toJavaFileObjects().size());
+    }
+
+    @Test
+    public void verifyZipSink() throws IOException {
+        Path zip = Files.createTempFile("patterns", ".zip");
+        try {
+            try(ZipSink sink = new ZipSink(zip)){
+                new DePaCoG().generatePattern(new PatternRequest("TDP", "MyTemplate", "Outputs"), sink);
+            }
+
+            List<String> entries = new ArrayList<>();
+            try(ZipInputStream in = new ZipInputStream(Files.newInputStream(zip))){
+                for(ZipEntry entry = in.getNextEntry(); entry != null; entry = in.getNextEntry()){
+                    entries.add(entry.getName());
+                }
+            }
+            Assert.assertEquals("zip entries are not correct ",
+                    Arrays.asList("Outputs/Template.java", "Outputs/MyTemplate.java"), entries);
+        } finally {
+            Files.delete(zip);
+        }
+    }
+
+    @Test
+    public void verifyZipSinkRejectsConflictingEntries() throws IOException {
+        Path zip = Files.createTempFile("patterns", ".zip");
+        try(ZipSink sink = new ZipSink(zip)){
+            GeneratedSource source = new GeneratedSource("Outputs", "MyTemplate", "class MyTemplate {}");
+            Assert.assertTrue("first entry is not written ", sink.writeCounted(source) > 0);
+            Assert.assertEquals("identical entry is not skipped ", 0,
+                    sink.writeCounted(new GeneratedSource("Outputs", "MyTemplate", "class MyTemplate {}")));
+            try {
+                sink.write(new GeneratedSource("Outputs", "MyTemplate", "class MyTemplate { int changed; }"));
+                Assert.fail("different content is dropped silently");
+            } catch (IOException expected){
+                Assert.assertTrue("entry is not named " + expected.getMessage(), expected.getMessage().contains("Outputs/MyTemplate.java"));
+            }
+        } finally {
+            Files.delete(zip);
+        }
+    }
+}
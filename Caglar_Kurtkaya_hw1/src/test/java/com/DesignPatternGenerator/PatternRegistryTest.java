@@ -0,0 +1,69 @@
+package com.DesignPatternGenerator;
+
+import com.DesignPatternGenerator.DPG.InvalidRequestException;
+import com.DesignPatternGenerator.DPG.PatternBuilder;
+import com.DesignPatternGenerator.DPG.PatternFactory;
+import com.DesignPatternGenerator.DPG.PatternGenerator;
+import com.DesignPatternGenerator.DPG.PatternProvider;
+import com.DesignPatternGenerator.DPG.PatternRegistry;
+import com.DesignPatternGenerator.DPG.PatternRequest;
+import com.DesignPatternGenerator.DPG.PatternType;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+
+public class PatternRegistryTest {
+    PatternRegistry registry;
+
+    @Before
+    public void init(){
+        registry = PatternRegistry.withBuiltins();
+    }
+
+    @Test
+    public void verifyBuiltinsRegistered(){
+        for(PatternType type : PatternType.values()){
+            Assert.assertNotNull("built-in pattern is missing " + type, registry.lookup(type.name()));
+        }
+    }
+
+    @Test
+    public void verifyLookupIsCaseInsensitive(){
+        Assert.assertSame("lookup is not normalized ", registry.lookup("AFDP"), registry.lookup(" afdp "));
+    }
+
+    @Test
+    public void verifyBuiltinCreatesPatternBuilder(){
+        PatternGenerator pg = new PatternFactory(registry).getPattern(new PatternRequest("tdp", "MyTemplate", "Outputs"));
+        Assert.assertTrue("generator is not a PatternBuilder ", pg instanceof PatternBuilder);
+        Assert.assertEquals("patternType is not correct ", PatternType.TDP, ((PatternBuilder) pg).getPatternType());
+    }
+
+    @Test
+    public void verifyCustomProvider(){
+        PatternGenerator custom = PatternBuilder.fromRequest(new PatternRequest("TDP", "MyTemplate", "Outputs"));
+        registry.register(new PatternProvider() {
+            @Override
+            public String getId() {
+                return "SDP";
+            }
+
+            @Override
+            public PatternGenerator create(PatternRequest request) {
+                return custom;
+            }
+        });
+        Assert.assertSame("custom provider was not used ", custom,
+                new PatternFactory(registry).getPattern(new PatternRequest("SDP", "MySingleton", "Outputs")));
+    }
+
+    @Test
+    public void verifyUnknownPatternIsRejected(){
+        try {
+            new PatternFactory(registry).getPattern(new PatternRequest("XYZ", "MyClass", "Outputs"));
+            Assert.fail("unknown pattern is generated");
+        } catch (InvalidRequestException ex){
+            Assert.assertTrue("problem does not name the pattern " + ex.getMessage(), ex.getMessage().contains("unknown pattern 'XYZ'"));
+        }
+    }
+}
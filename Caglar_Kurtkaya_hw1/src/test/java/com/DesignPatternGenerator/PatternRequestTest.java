@@ -0,0 +1,80 @@
+package com.DesignPatternGenerator;
+
+import com.DesignPatternGenerator.DPG.DePaCoG;
+import com.DesignPatternGenerator.DPG.InMemorySink;
+import com.DesignPatternGenerator.DPG.InvalidRequestException;
+import com.DesignPatternGenerator.DPG.PatternBuilder;
+import com.DesignPatternGenerator.DPG.PatternRequest;
+import com.DesignPatternGenerator.DPG.PatternResult;
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.util.Arrays;
+import java.util.List;
+
+public class PatternRequestTest {
+
+    @Test
+    public void verifyValidRequests(){
+        Assert.assertTrue("valid request is rejected ",
+                new PatternRequest("AFDP", "MyFactory", "Bank", "Chase", "com.bank.Outputs").getProblems().isEmpty());
+        Assert.assertTrue("default package is rejected ",
+                new PatternRequest("TDP", "MyTemplate", "").getProblems().isEmpty());
+    }
+
+    @Test
+    public void verifyInvalidRequests(){
+        Assert.assertEquals("problems are not correct ",
+                Arrays.asList("className 'class' is a reserved word", "productType is missing",
+                        "productName 'My Bank' is not a valid Java identifier", "packName 'a..b' is not a valid package name"),
+                new PatternRequest("AFDP", "class", null, "My Bank", "a..b").getProblems());
+        Assert.assertEquals("missing package is not reported ", Arrays.asList("packName is missing"),
+                new PatternRequest("CDP", "MyChain", null).getProblems());
+    }
+
+    @Test(expected = InvalidRequestException.class)
+    public void verifyBuilderRejectsUnknownPattern(){
+        new PatternBuilder.pBuilder("XYZ", "MyClass").withPackName("Outputs").build();
+    }
+
+    @Test
+    public void verifyBatchRejectsBeforeGenerating(){
+        InMemorySink sink = new InMemorySink();
+        List<PatternResult> results = new DePaCoG(2).generateAll(Arrays.asList(
+                new PatternRequest("TDP", "MyTemplate", "Outputs"),
+                new PatternRequest("FDP", "MyFactory", "Bank", "Bank", "Outputs")), sink);
+
+        Assert.assertTrue("valid request should succeed ", results.get(0).isSuccess());
+        Assert.assertTrue("invalid request is not rejected ", results.get(1).getError() instanceof InvalidRequestException);
+        Assert.assertTrue("invalid request generated files ", results.get(1).getFiles().isEmpty());
+    }
+
+    @Test
+    public void verifyUnknownPatternIsRejectedUpFront(){
+        List<PatternResult> results = new DePaCoG(2).generateAll(Arrays.asList(
+                new PatternRequest("XYZ", "MyClass", "Outputs")), new InMemorySink());
+
+        Assert.assertTrue("unknown pattern is not rejected ", results.get(0).getError() instanceof InvalidRequestException);
+        Assert.assertTrue("problem does not name the pattern " + results.get(0).getError().getMessage(),
+                results.get(0).getError().getMessage().contains("unknown pattern 'XYZ', known patterns are [AFDP, "));
+    }
+
+    @Test
+    public void verifyVisitorTypeCollisions(){
+        PatternRequest visitor = new PatternRequest("VDP", "MyVisitor", "Outputs");
+        Assert.assertEquals("className collision is not reported ",
+                Arrays.asList("element type 'MyVisitor' is also the className"),
+                visitor.withVisitorElements(Arrays.asList("Literal", "MyVisitor")).getProblems());
+
+        InvalidRequestException ex = null;
+        try {
+            new DePaCoG(1).generatePattern(visitor.withVisitorElements(Arrays.asList("Literal", "Visitor", "Element")), new InMemorySink());
+        } catch (InvalidRequestException e){
+            ex = e;
+        }
+        Assert.assertNotNull("configured names are not checked ", ex);
+        Assert.assertEquals("problems are not correct ",
+                Arrays.asList("element type 'Visitor' is also the configured Visitor name",
+                        "element type 'Element' is also the configured Element name"), ex.getProblems());
+    }
+}
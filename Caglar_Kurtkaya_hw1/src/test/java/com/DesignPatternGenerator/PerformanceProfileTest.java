@@ -0,0 +1,116 @@
+package com.DesignPatternGenerator;
+
+import com.DesignPatternGenerator.DPG.DePaCoG;
+import com.DesignPatternGenerator.DPG.GenerationProfile;
+import com.DesignPatternGenerator.DPG.InMemoryCompiler;
+import com.DesignPatternGenerator.DPG.InMemorySink;
+import com.DesignPatternGenerator.DPG.PatternRequest;
+import com.DesignPatternGenerator.DPG.PatternResult;
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.lang.reflect.Field;
+import java.lang.reflect.Method;
+import java.lang.reflect.Modifier;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.List;
+
+public class PerformanceProfileTest {
+
+    @Test
+    public void verifyEveryPatternCompiles(){
+        List<PatternRequest> requests = new ArrayList<>();
+        for(PatternRequest request : Arrays.asList(
+                new PatternRequest("AFDP", "MyFactory", "Bank", "Chase", "PerfA"),
+                new PatternRequest("BDP", "ComplexObject", "Computer", "Processor", "PerfB"),
+                new PatternRequest("FDP", "MyFactory", "Human", "Student", "PerfF"),
+                new PatternRequest("FCDP", "MyFacade", "PerfFc"),
+                new PatternRequest("CDP", "MyHandler", "PerfC"),
+                new PatternRequest("MDP", "MyMediator", "PerfM"),
+                new PatternRequest("VDP", "MyVisitor", "PerfV"),
+                new PatternRequest("TDP", "MyTemplate", "PerfT"))){
+            requests.add(request.withProfile(GenerationProfile.PERFORMANCE));
+        }
+        InMemorySink sink = new InMemorySink();
+        for(PatternResult result : new DePaCoG(2).generateAll(requests, sink)){
+            Assert.assertTrue("generation failed " + result, result.isSuccess());
+        }
+
+        Assert.assertTrue("product is not shared ",
+                sink.getSources().get("PerfA.MyFactory").contains("private static final Bank PRODUCT = new Chase();"));
+        Assert.assertTrue("mediator does not use a ConcurrentHashMap ",
+                sink.getSources().get("PerfM.MyMediator").contains("ConcurrentHashMap<Colleague, Runnable> actions"));
+        Assert.assertTrue("visitor has no type switch ", sink.getSources().get("PerfV.Visitor").contains("dispatch(Element element)"));
+        Assert.assertEquals("every generated type should be compiled ", sink.size(), new InMemoryCompiler().compile(sink).size());
+    }
+
+    @Test
+    public void verifyIterativeChainReachesTheLastReceiver() throws Exception {
+        InMemorySink sink = new InMemorySink();
+        new DePaCoG().generatePattern(new PatternRequest("CDP", "LoopHandler", "PerfLoop")
+                .withChainLength(1000).withProfile(GenerationProfile.PERFORMANCE), sink);
+        Assert.assertFalse("receivers should not recurse ", sink.getSources().get("PerfLoop.Receiver1").contains("super.handleRequest()"));
+
+        ClassLoader loader = new InMemoryCompiler().compileAndLoad(sink.toJavaFileObjects(), getClass().getClassLoader());
+        Object chain = loader.loadClass("PerfLoop.LoopHandlerFactory").getMethod("create").invoke(null);
+        //only the last receiver can handle the request, the loop has to walk the whole chain
+        chain.getClass().getMethod("handleRequest").invoke(chain);
+    }
+
+    @Test
+    public void verifyBuiltObjectIsImmutable() throws Exception {
+        InMemorySink sink = new InMemorySink();
+        new DePaCoG().generatePattern(new PatternRequest("BDP", "ComplexObject", "Computer", "Processor", "PerfImm")
+                .withProfile(GenerationProfile.PERFORMANCE), sink);
+        ClassLoader loader = new InMemoryCompiler().compileAndLoad(sink.toJavaFileObjects(), getClass().getClassLoader());
+
+        Class<?> complexObject = loader.loadClass("PerfImm.ComplexObject");
+        for(Field field : complexObject.getDeclaredFields()){
+            Assert.assertTrue(field.getName() + " is not final ", Modifier.isFinal(field.getModifiers()));
+        }
+        for(Method method : complexObject.getDeclaredMethods()){
+            Assert.assertNotEquals("ComplexObject can still be changed ", "add", method.getName());
+        }
+
+        Object builder = loader.loadClass("PerfImm.Builder1").getConstructor().newInstance();
+        builder.getClass().getMethod("buildPartA").invoke(builder);
+        Object first = builder.getClass().getMethod("getResult").invoke(builder);
+        builder.getClass().getMethod("buildPartA").invoke(builder);
+        Iterator<?> parts = (Iterator<?>) complexObject.getMethod("iterator").invoke(first);
+        parts.next();
+        Assert.assertFalse("a built object changed when the builder went on ", parts.hasNext());
+        try {
+            parts.remove();
+            Assert.fail("parts of a built object can be removed");
+        } catch (UnsupportedOperationException ex){
+            //expected
+        }
+    }
+
+    @Test
+    public void verifyUnknownProfileIsRejected(){
+        Assert.assertEquals("unknown profile is not reported ", Arrays.asList("profile 'fast' is not a known profile"),
+                new PatternRequest("TDP", "MyTemplate", "Outputs")
+                        .withConfigOverrides(Collections.singletonMap("profile", "fast")).getProblems());
+    }
+
+    @Test
+    public void verifyBuilderClassIsCachedPerProductType(){
+        //same package, className and productName, only the product type differs
+        for(String productType : new String[]{"Computer", "Laptop"}){
+            InMemorySink sink = new InMemorySink();
+            PatternResult result = new DePaCoG(1).generatePattern(new PatternRequest("BDP", "Assembly", productType, "Part", "PerfBt")
+                    .withProfile(GenerationProfile.PERFORMANCE), sink);
+            Assert.assertTrue("generation failed " + result, result.isSuccess());
+
+            String other = productType.equals("Computer") ? "Laptop" : "Computer";
+            for(String source : sink.getSources().values()){
+                Assert.assertFalse(productType + " request got the " + other + " spec ", source.contains(other));
+            }
+            Assert.assertEquals(productType + " request does not compile ", sink.size(), new InMemoryCompiler().compile(sink).size());
+        }
+    }
+}
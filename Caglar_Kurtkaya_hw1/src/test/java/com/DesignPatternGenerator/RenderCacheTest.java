@@ -0,0 +1,115 @@
+package com.DesignPatternGenerator;
+
+import com.DesignPatternGenerator.DPG.DePaCoG;
+import com.DesignPatternGenerator.DPG.GeneratedSource;
+import com.DesignPatternGenerator.DPG.InMemorySink;
+import com.DesignPatternGenerator.DPG.MetricsRecorder;
+import com.DesignPatternGenerator.DPG.PatternBuilder;
+import com.DesignPatternGenerator.DPG.PatternRequest;
+import com.DesignPatternGenerator.DPG.PatternResult;
+import com.DesignPatternGenerator.DPG.RenderCache;
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+public class RenderCacheTest {
+
+    private static List<Path> entries(Path root) throws IOException {
+        try(Stream<Path> paths = Files.walk(root)){
+            return paths.filter(p -> p.toString().endsWith(".dpg")).collect(Collectors.toList());
+        }
+    }
+
+    @Test
+    public void verifyRestartedGeneratorIsServedFromDisk() throws IOException {
+        Path root = Files.createTempDirectory("render-cache");
+        List<PatternRequest> requests = Arrays.asList(
+                new PatternRequest("AFDP", "MyFactory", "Bank", "Chase", "Outputs"),
+                new PatternRequest("FDP", "MyCreator", "Bank", "Chase", "Outputs"),
+                new PatternRequest("CDP", "MyHandler", "Outputs").withChainLength(5));
+
+        InMemorySink cold = new InMemorySink();
+        RenderCache first = new RenderCache(root);
+        for(PatternResult result : new DePaCoG(2, MetricsRecorder.NOOP, first).generateAll(requests, cold)){
+            Assert.assertTrue("generation failed " + result, result.isSuccess());
+        }
+        Assert.assertEquals("every request should be stored ", 3, entries(root).size());
+
+        //a new cache on the same directory, as after a restart
+        InMemorySink warm = new InMemorySink();
+        RenderCache second = new RenderCache(root);
+        for(PatternResult result : new DePaCoG(2, MetricsRecorder.NOOP, second).generateAll(requests, warm)){
+            Assert.assertTrue("generation failed " + result, result.isSuccess());
+        }
+        Assert.assertEquals("every request should hit ", 3, second.getHits());
+        Assert.assertEquals("cached output differs ", cold.getSources(), warm.getSources());
+
+        InMemorySink single = new InMemorySink();
+        new DePaCoG(1, MetricsRecorder.NOOP, second).generatePattern(requests.get(0), single);
+        Assert.assertEquals("single request should hit ", 4, second.getHits());
+        Assert.assertEquals("single request output differs ", cold.getSources().get("Outputs.MyFactory"),
+                single.getSources().get("Outputs.MyFactory"));
+    }
+
+    @Test
+    public void verifyKeyCoversRequestAndConfig(){
+        String key = RenderCache.keyOf(PatternBuilder.fromRequest(new PatternRequest("CDP", "MyHandler", "Outputs")));
+
+        Assert.assertEquals("key is not stable ", key,
+                RenderCache.keyOf(PatternBuilder.fromRequest(new PatternRequest(" cdp", "MyHandler", "Outputs"))));
+        Assert.assertNotEquals("package is not in the key ", key,
+                RenderCache.keyOf(PatternBuilder.fromRequest(new PatternRequest("CDP", "MyHandler", "Other"))));
+        Assert.assertNotEquals("config is not in the key ", key,
+                RenderCache.keyOf(PatternBuilder.fromRequest(new PatternRequest("CDP", "MyHandler", "Outputs").withChainLength(7))));
+        Assert.assertNotEquals("config override is not in the key ", key,
+                RenderCache.keyOf(PatternBuilder.fromRequest(new PatternRequest("CDP", "MyHandler", "Outputs")
+                        .withConfigOverrides(Collections.singletonMap("Chain.className", "Link")))));
+    }
+
+    @Test
+    public void verifyCorruptedEntryIsAMiss() throws IOException {
+        Path root = Files.createTempDirectory("render-cache");
+        RenderCache cache = new RenderCache(root);
+        List<GeneratedSource> sources = Collections.singletonList(new GeneratedSource("Outputs", "A", "class A {}"));
+        cache.put("ab01", sources);
+        Assert.assertEquals("entry not read back ", "class A {}", cache.get("ab01").get(0).getSource());
+
+        Path entry = entries(root).get(0);
+        byte[] bytes = Files.readAllBytes(entry);
+        bytes[bytes.length / 2] ^= 1;
+        Files.write(entry, bytes);
+
+        Assert.assertNull("corrupted entry must not be served ", cache.get("ab01"));
+        Assert.assertEquals("corruption not counted ", 1, cache.getCorrupted());
+        Assert.assertFalse("corrupted entry must be deleted ", Files.exists(entry));
+    }
+
+    @Test
+    public void verifyLeastRecentlyUsedIsEvicted() throws IOException {
+        Path root = Files.createTempDirectory("render-cache");
+        List<GeneratedSource> sources = Collections.singletonList(new GeneratedSource("Outputs", "A", "class A {}"));
+        RenderCache probe = new RenderCache(root);
+        probe.put("aa00", sources);
+        long entrySize = probe.getSizeBytes();
+        probe.clear();
+
+        RenderCache cache = new RenderCache(root, entrySize * 2);
+        cache.put("aa01", sources);
+        cache.put("bb02", sources);
+        cache.get("aa01");                  //aa01 is now the most recently used
+        cache.put("cc03", sources);         //evicts bb02
+
+        Assert.assertEquals("evictions are not correct ", 1, cache.getEvictions());
+        Assert.assertNotNull("aa01 must still be cached ", cache.get("aa01"));
+        Assert.assertNull("bb02 must be evicted ", cache.get("bb02"));
+        Assert.assertTrue("size bound is exceeded ", cache.getSizeBytes() <= entrySize * 2);
+    }
+}
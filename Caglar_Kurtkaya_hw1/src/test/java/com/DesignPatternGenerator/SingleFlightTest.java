@@ -0,0 +1,118 @@
+package com.DesignPatternGenerator;
+
+import com.DesignPatternGenerator.DPG.DePaCoG;
+import com.DesignPatternGenerator.DPG.GenerationMetrics;
+import com.DesignPatternGenerator.DPG.OutputSink;
+import com.DesignPatternGenerator.DPG.PatternRequest;
+import com.DesignPatternGenerator.DPG.PatternResult;
+import com.DesignPatternGenerator.DPG.SingleFlight;
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+public class SingleFlightTest {
+
+    private static final int CALLERS = 4;
+
+    @Test
+    public void verifyConcurrentCallsShareOneRun() throws Exception {
+        SingleFlight<String, String> flight = new SingleFlight<>();
+        AtomicInteger runs = new AtomicInteger();
+        CountDownLatch joined = new CountDownLatch(CALLERS - 1);
+        ExecutorService pool = Executors.newFixedThreadPool(CALLERS);
+        try {
+            List<Future<String>> results = new ArrayList<>();
+            for(int i = 0; i < CALLERS; i++){
+                results.add(pool.submit(() -> flight.execute("key", () -> {
+                    runs.incrementAndGet();
+                    await(joined);      //stays in flight until every other caller has joined
+                    return "value";
+                }, joined::countDown)));
+            }
+            for(Future<String> result : results){
+                Assert.assertEquals("result is not shared ", "value", result.get(10, TimeUnit.SECONDS));
+            }
+        } finally {
+            pool.shutdownNow();
+        }
+        Assert.assertEquals("work must run once ", 1, runs.get());
+        Assert.assertEquals("finished key must not stay in flight ", 0, flight.size());
+        Assert.assertEquals("a later call runs again ", "again", flight.execute("key", () -> "again", () -> { }));
+    }
+
+    @Test
+    public void verifyFailureIsSharedAndForgotten(){
+        SingleFlight<String, String> flight = new SingleFlight<>();
+        try {
+            flight.execute("key", () -> { throw new IllegalStateException("boom"); }, () -> { });
+            Assert.fail("failure is swallowed");
+        } catch (IllegalStateException ex){
+            Assert.assertEquals("wrong exception ", "boom", ex.getMessage());
+        }
+        Assert.assertEquals("failed key must not stay in flight ", 0, flight.size());
+    }
+
+    @Test
+    public void verifyIdenticalRequestsAreWrittenOnce() throws Exception {
+        CountDownLatch joined = new CountDownLatch(CALLERS - 1);
+        GenerationMetrics metrics = new GenerationMetrics() {
+            @Override
+            public void recordCoalesced(String patternName) {
+                super.recordCoalesced(patternName);
+                joined.countDown();
+            }
+        };
+        Map<String, AtomicInteger> writes = new ConcurrentHashMap<>();
+        //holds the first request in flight until the other callers have joined it
+        OutputSink sink = source -> {
+            await(joined);
+            writes.computeIfAbsent(source.getQualifiedName(), name -> new AtomicInteger()).incrementAndGet();
+        };
+
+        DePaCoG generator = new DePaCoG(1, metrics);
+        ExecutorService pool = Executors.newFixedThreadPool(CALLERS);
+        List<PatternResult> results = new ArrayList<>();
+        try {
+            List<Future<PatternResult>> futures = new ArrayList<>();
+            for(int i = 0; i < CALLERS; i++){
+                futures.add(pool.submit(() -> generator.generatePattern(
+                        new PatternRequest("AFDP", "MyFactory", "Bank", "Chase", "Outputs"), sink)));
+            }
+            for(Future<PatternResult> future : futures){
+                results.add(future.get(10, TimeUnit.SECONDS));
+            }
+        } finally {
+            pool.shutdownNow();
+        }
+
+        for(PatternResult result : results){
+            Assert.assertSame("callers must get the same result ", results.get(0), result);
+        }
+        Assert.assertTrue("generation failed ", results.get(0).isSuccess());
+        Assert.assertEquals("files are not correct ", 4, writes.size());
+        for(Map.Entry<String, AtomicInteger> entry : writes.entrySet()){
+            Assert.assertEquals(entry.getKey() + " must be written once ", 1, entry.getValue().get());
+        }
+        Assert.assertEquals("request must be recorded once ", 1, metrics.getRequestCount());
+        Assert.assertEquals("coalesced callers are not correct ", CALLERS - 1, metrics.getCoalescedCount());
+    }
+
+    private static void await(CountDownLatch latch){
+        try {
+            Assert.assertTrue("callers did not join ", latch.await(10, TimeUnit.SECONDS));
+        } catch (InterruptedException ex){
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException(ex);
+        }
+    }
+}
@@ -0,0 +1,171 @@
+package com.DesignPatternGenerator;
+
+import com.DesignPatternGenerator.DPG.DePaCoG;
+import com.DesignPatternGenerator.DPG.FragmentCache;
+import com.DesignPatternGenerator.DPG.GeneratedSource;
+import com.DesignPatternGenerator.DPG.GenerationProfile;
+import com.DesignPatternGenerator.DPG.GenerationStage;
+import com.DesignPatternGenerator.DPG.InMemorySink;
+import com.DesignPatternGenerator.DPG.MetricsRecorder;
+import com.DesignPatternGenerator.DPG.PatternBuilder;
+import com.DesignPatternGenerator.DPG.PatternFactory;
+import com.DesignPatternGenerator.DPG.PatternRegistry;
+import com.DesignPatternGenerator.DPG.PatternRequest;
+import com.DesignPatternGenerator.DPG.SourceEmitter;
+import com.DesignPatternGenerator.Utils.Configs;
+import com.typesafe.config.ConfigFactory;
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Scanner;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+public class SourceEmitterTest {
+
+    private static List<GeneratedSource> generate(SourceEmitter emitter, String pattern, String className, String packName,
+                                                  GenerationProfile profile, Map<String, String> overrides){
+        return new PatternBuilder.pBuilder(pattern, className).withPackName(packName)
+                .withConfigs(Configs.current().withOverrides(overrides))
+                .withProfile(profile)
+                .withEmitter(emitter)
+                .withFragmentCache(null)
+                .build().generateSources();
+    }
+
+    private static void assertSameSources(String message, List<GeneratedSource> expected, List<GeneratedSource> actual){
+        Assert.assertEquals(message + "file count ", expected.size(), actual.size());
+        for(int i = 0; i < expected.size(); i++){
+            Assert.assertEquals(message + "path ", expected.get(i).getRelativePath(), actual.get(i).getRelativePath());
+            Assert.assertEquals(message + expected.get(i), expected.get(i).getSource(), actual.get(i).getSource());
+        }
+    }
+
+    private static String golden(String relativePath) throws IOException {
+        try(InputStream in = SourceEmitterTest.class.getResourceAsStream("/golden/" + relativePath)){
+            Assert.assertNotNull("missing golden file " + relativePath, in);
+            return new Scanner(in, StandardCharsets.UTF_8.name()).useDelimiter("\\A").next();
+        }
+    }
+
+    @Test
+    public void verifyTemplatesMatchGoldenFiles() throws IOException {
+        List<GeneratedSource> sources = new ArrayList<>(
+                generate(SourceEmitter.TEMPLATE, "FCDP", "MyHandler", "OutFc", GenerationProfile.DEFAULT, null));
+        sources.addAll(generate(SourceEmitter.TEMPLATE, "TDP", "MyTemplate", "OutT", GenerationProfile.DEFAULT, null));
+
+        Assert.assertEquals("file count is not correct ", 4, sources.size());
+        for(GeneratedSource source : sources){
+            Assert.assertEquals("differs from the golden file " + source, golden(source.getRelativePath()), source.getSource());
+        }
+    }
+
+    @Test
+    public void verifyTemplatesMatchJavaPoet(){
+        Map<String, String> renamed = new HashMap<>();
+        renamed.put("Facade.facadeAbstractClassName", "Subsystem");
+        renamed.put("Facade.methodName1", "run");
+        renamed.put("Template.abstractTemplateName", "Algorithm");
+        renamed.put("Template.methodName1", "step1");
+        renamed.put("Template.methodName2", "step2");
+
+        for(String pattern : new String[]{"FCDP", "TDP"}){
+            for(GenerationProfile profile : GenerationProfile.values()){
+                for(String packName : new String[]{"Outputs", "com.example.gen", "", "java.lang"}){
+                    String message = pattern + " " + profile + " '" + packName + "' ";
+                    assertSameSources(message,
+                            generate(SourceEmitter.JAVAPOET, pattern, "MyClass", packName, profile, null),
+                            generate(SourceEmitter.TEMPLATE, pattern, "MyClass", packName, profile, null));
+                    assertSameSources(message + "renamed ",
+                            generate(SourceEmitter.JAVAPOET, pattern, "MyClass", packName, profile, renamed),
+                            generate(SourceEmitter.TEMPLATE, pattern, "MyClass", packName, profile, renamed));
+                }
+            }
+        }
+    }
+
+    //Stages DePaCoG records for a request generated with the template emitter
+    private static Set<GenerationStage> stagesWithTemplateEmitter(PatternRequest request){
+        Configs configs = Configs.of(ConfigFactory.parseString("emitter = template").withFallback(ConfigFactory.load()));
+        Set<GenerationStage> stages = ConcurrentHashMap.newKeySet();
+        MetricsRecorder recorder = new MetricsRecorder() {
+            @Override
+            public void recordStage(String patternName, GenerationStage stage, long nanos) {
+                stages.add(stage);
+            }
+
+            @Override
+            public void recordRequest(String patternName, int files, long bytes, long nanos, boolean success) {
+            }
+        };
+        try(DePaCoG generator = new DePaCoG(1, recorder, null,
+                new PatternFactory(PatternRegistry.withBuiltins(new FragmentCache(16), configs)))){
+            generator.generatePattern(request, new InMemorySink());
+        }
+        return stages;
+    }
+
+    @Test
+    public void verifyUnsafeNamesFallBackToJavaPoet(){
+        for(String key : new String[]{"Template.abstractTemplateName", "Template.methodName1"}){
+            PatternRequest dotted = new PatternRequest("TDP", "MyClass", "Outputs")
+                    .withConfigOverrides(Collections.singletonMap(key, "a.b"));
+            Assert.assertTrue("dotted " + key + " is emitted ", stagesWithTemplateEmitter(dotted).contains(GenerationStage.SPEC_BUILD));
+        }
+        Assert.assertTrue("java.lang is emitted ", stagesWithTemplateEmitter(new PatternRequest("TDP", "MyClass", "java.lang"))
+                .contains(GenerationStage.SPEC_BUILD));
+        Assert.assertFalse("Outputs is not emitted ", stagesWithTemplateEmitter(new PatternRequest("TDP", "MyClass", "Outputs"))
+                .contains(GenerationStage.SPEC_BUILD));
+    }
+
+    @Test
+    public void verifyOverrideNamedTypeFallsBackToJavaPoet(){
+        List<GeneratedSource> sources = generate(SourceEmitter.TEMPLATE, "TDP", "Override", "Outputs", GenerationProfile.DEFAULT, null);
+
+        Assert.assertTrue("java.lang.Override must be qualified ", sources.get(1).getSource().contains("@java.lang.Override"));
+        assertSameSources("Override ", generate(SourceEmitter.JAVAPOET, "TDP", "Override", "Outputs", GenerationProfile.DEFAULT, null),
+                sources);
+    }
+
+    @Test
+    public void verifyDePaCoGUsesTheConfiguredEmitter() throws IOException {
+        Configs configs = Configs.of(ConfigFactory.parseString("emitter = template").withFallback(ConfigFactory.load()));
+        Set<GenerationStage> stages = ConcurrentHashMap.newKeySet();
+        MetricsRecorder recorder = new MetricsRecorder() {
+            @Override
+            public void recordStage(String patternName, GenerationStage stage, long nanos) {
+                stages.add(stage);
+            }
+
+            @Override
+            public void recordRequest(String patternName, int files, long bytes, long nanos, boolean success) {
+            }
+        };
+        InMemorySink batch = new InMemorySink();
+        InMemorySink single = new InMemorySink();
+        try(DePaCoG generator = new DePaCoG(2, recorder, null,
+                new PatternFactory(PatternRegistry.withBuiltins(FragmentCache.shared(), configs)))){
+            generator.generateAll(Arrays.asList(new PatternRequest("FCDP", "MyHandler", "OutFc"),
+                    new PatternRequest("TDP", "MyTemplate", "OutT")), batch);
+            generator.generatePattern(new PatternRequest("TDP", "MyTemplate", "OutT"), single);
+        }
+
+        Assert.assertFalse("JavaPoet specs are built ", stages.contains(GenerationStage.SPEC_BUILD));
+        Assert.assertEquals("file count is not correct ", 4, batch.getSources().size());
+        Assert.assertEquals("single request differs from the batch ", batch.getSources().get("OutT.MyTemplate"),
+                single.getSources().get("OutT.MyTemplate"));
+        for(String file : new String[]{"OutFc/MyHandler.java", "OutT/MyTemplate.java"}){
+            String name = file.replace(".java", "").replace('/', '.');
+            Assert.assertEquals("differs from the golden file " + file, golden(file), batch.getSources().get(name));
+        }
+    }
+}
@@ -0,0 +1,135 @@
+package com.DesignPatternGenerator;
+
+import com.DesignPatternGenerator.DPG.DePaCoG;
+import com.DesignPatternGenerator.DPG.GeneratedSource;
+import com.DesignPatternGenerator.DPG.GenerationException;
+import com.DesignPatternGenerator.DPG.PatternRequest;
+import com.DesignPatternGenerator.DPG.PatternResult;
+import com.DesignPatternGenerator.DPG.StagedSink;
+import org.junit.Assert;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+public class StagedSinkTest {
+
+    @Rule
+    public TemporaryFolder temp = new TemporaryFolder();
+
+    @Test
+    public void verifyCommitAndDiscard() throws IOException {
+        Path root = temp.newFolder("root").toPath();
+        try(StagedSink sink = new StagedSink(root)){
+            sink.write(new GeneratedSource("Outputs", "A", "class A {}"));
+            Assert.assertFalse("file is visible before commit ", Files.exists(root.resolve("Outputs/A.java")));
+            sink.commit();
+        }
+        Assert.assertTrue("file is not committed ", Files.exists(root.resolve("Outputs/A.java")));
+
+        try(StagedSink sink = new StagedSink(root)){
+            sink.write(new GeneratedSource("Outputs", "B", "class B {}"));
+        }
+        Assert.assertFalse("uncommitted file is written ", Files.exists(root.resolve("Outputs/B.java")));
+        try(Stream<Path> siblings = Files.list(root.getParent())){
+            Assert.assertEquals("staging directory or lock file is left next to the root ", Collections.singletonList(root),
+                    siblings.collect(Collectors.toList()));
+        }
+    }
+
+    @Test
+    public void verifyRollbackOnFailedMove() throws IOException {
+        Path root = temp.newFolder("root").toPath();
+        Files.createDirectories(root.resolve("Outputs"));
+        Files.write(root.resolve("Outputs/A.java"), "old".getBytes(StandardCharsets.UTF_8));
+        //A non empty directory where B.java should go makes the second move fail
+        Files.createDirectories(root.resolve("Outputs/B.java/x"));
+
+        StagedSink sink = new StagedSink(root);
+        sink.write(new GeneratedSource("Outputs", "A", "new"));
+        sink.write(new GeneratedSource("Outputs", "B", "class B {}"));
+        try {
+            sink.commit();
+            Assert.fail("commit should fail");
+        } catch (IOException expected){
+            //rolled back
+        }
+        Assert.assertEquals("A.java is not restored ", "old",
+                new String(Files.readAllBytes(root.resolve("Outputs/A.java")), StandardCharsets.UTF_8));
+    }
+
+    @Test
+    public void verifyFailedBatchIsNotCommitted() throws IOException {
+        Path root = temp.newFolder("root").toPath();
+        List<PatternResult> results = new DePaCoG(2).generateAllStaged(Arrays.asList(
+                new PatternRequest("TDP", "MyTemplate", "Outputs"),
+                new PatternRequest("FCDP", "MyFacade", null)), root);
+
+        Assert.assertTrue("first request should succeed ", results.get(0).isSuccess());
+        Assert.assertTrue("null package is not reported ", results.get(1).getError() instanceof GenerationException);
+        Assert.assertFalse("failed batch is committed ", Files.exists(root.resolve("Outputs")));
+    }
+
+    @Test
+    public void verifyConcurrentCommitsDoNotInterleave() throws Exception {
+        Path root = temp.newFolder("root").toPath();
+        List<StagedSink> sinks = new ArrayList<>();
+        for(String content : Arrays.asList("first", "second")){
+            StagedSink sink = new StagedSink(root);
+            for(int i = 0; i < 200; i++){
+                sink.write(new GeneratedSource("Outputs", "C" + i, content));
+            }
+            sinks.add(sink);
+        }
+
+        CountDownLatch start = new CountDownLatch(1);
+        ExecutorService pool = Executors.newFixedThreadPool(sinks.size());
+        try {
+            List<Future<?>> commits = new ArrayList<>();
+            for(StagedSink sink : sinks){
+                commits.add(pool.submit(() -> {
+                    start.await();
+                    sink.commit();
+                    return null;
+                }));
+            }
+            start.countDown();
+            for(Future<?> commit : commits){
+                commit.get();
+            }
+        } finally {
+            pool.shutdownNow();
+        }
+
+        //the later commit replaces every file of the earlier one, never only some of them
+        Set<String> contents = new HashSet<>();
+        try(Stream<Path> files = Files.list(root.resolve("Outputs"))){
+            for(Path file : files.collect(Collectors.toList())){
+                contents.add(new String(Files.readAllBytes(file), StandardCharsets.UTF_8));
+            }
+        }
+        Assert.assertEquals("commits are interleaved " + contents, 1, contents.size());
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void verifyRootWithoutParentIsRejected() throws IOException {
+        new StagedSink(Paths.get("/"));
+    }
+}
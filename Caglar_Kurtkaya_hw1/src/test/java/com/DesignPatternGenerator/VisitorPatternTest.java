@@ -0,0 +1,65 @@
+package com.DesignPatternGenerator;
+
+import com.DesignPatternGenerator.DPG.DePaCoG;
+import com.DesignPatternGenerator.DPG.InMemoryCompiler;
+import com.DesignPatternGenerator.DPG.InMemorySink;
+import com.DesignPatternGenerator.DPG.PatternRequest;
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+
+public class VisitorPatternTest {
+
+    @Test
+    public void verifyElementsMatchVisitMethods(){
+        InMemorySink sink = new InMemorySink();
+        new DePaCoG().generatePattern(new PatternRequest("VDP", "MyVisitor", "Visitors")
+                .withConfigOverrides(Collections.singletonMap("Visitor.numberOfVisitorMethods", "4")), sink);
+
+        Assert.assertTrue("Element4 is missing ", sink.getSources().containsKey("Visitors.Element4"));
+        Assert.assertTrue("visitElement4 is missing ",
+                sink.getSources().get("Visitors.Visitor").contains("public abstract void visitElement4(Element4 element);"));
+    }
+
+    @Test
+    public void verifyElementTypeList(){
+        InMemorySink sink = new InMemorySink();
+        new DePaCoG().generatePattern(new PatternRequest("VDP", "AstVisitor", "Ast")
+                .withVisitorElements(Arrays.asList("BinaryExpr", "Literal")), sink);
+
+        Assert.assertEquals("generated files are not correct ",
+                Arrays.asList("Ast.AstVisitor", "Ast.BinaryExpr", "Ast.Element", "Ast.Literal", "Ast.Visitor"),
+                new ArrayList<>(sink.getSources().keySet()));
+        Assert.assertTrue("Literal does not call its visit method ",
+                sink.getSources().get("Ast.Literal").contains("visitor.visitLiteral(this);"));
+    }
+
+    @Test
+    public void verifyLargeTypeSwitchCompiles(){
+        List<String> types = new ArrayList<>();
+        for(int i = 0; i < 300; i++){
+            types.add("Node" + i);
+        }
+        InMemorySink sink = new InMemorySink();
+        new DePaCoG().generatePattern(new PatternRequest("VDP", "NodeVisitor", "Nodes")
+                .withVisitorElements(types).withTypeSwitchDispatch(), sink);
+
+        String visitor = sink.getSources().get("Nodes.Visitor");
+        Assert.assertTrue("dispatch is not split ", visitor.contains("case 1: dispatch1(element); break;"));
+        Assert.assertTrue("case is missing ", visitor.contains("case Node299.KIND: visitNode299((Node299) element); break;"));
+
+        Map<String, byte[]> classes = new InMemoryCompiler().compile(sink);
+        Assert.assertEquals("every generated type should be compiled ", sink.size(), classes.size());
+    }
+
+    @Test
+    public void verifyDuplicateElementTypesAreRejected(){
+        Assert.assertEquals("duplicate is not reported ", Arrays.asList("element type 'A' is listed twice"),
+                new PatternRequest("VDP", "V", "p").withVisitorElements(Arrays.asList("A", "B", "A")).getProblems());
+    }
+}
@@ -0,0 +1,9 @@
+// AUTO_GENERATED BY Caglar Kurtkaya
+package OutFc;
+
+public abstract class Facade {
+  /**
+   * To be implemented by the user.
+   */
+  public abstract void operation();
+}
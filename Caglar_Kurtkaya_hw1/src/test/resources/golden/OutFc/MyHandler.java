@@ -0,0 +1,13 @@
+// AUTO_GENERATED BY Caglar Kurtkaya
+package OutFc;
+
+import java.lang.Override;
+
+public class MyHandler extends Facade {
+  /**
+   * To be implemented by the user.
+   */
+  @Override
+  public void operation() {
+  }
+}
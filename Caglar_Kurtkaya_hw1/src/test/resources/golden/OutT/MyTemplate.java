@@ -0,0 +1,14 @@
+// AUTO_GENERATED BY Caglar Kurtkaya
+package OutT;
+
+import java.lang.Override;
+
+public class MyTemplate extends Template {
+  @Override
+  protected void primitive1() {
+  }
+
+  @Override
+  protected void primitive2() {
+  }
+}
@@ -0,0 +1,8 @@
+// AUTO_GENERATED BY Caglar Kurtkaya
+package OutT;
+
+public abstract class Template {
+  protected abstract void primitive1();
+
+  protected abstract void primitive2();
+}